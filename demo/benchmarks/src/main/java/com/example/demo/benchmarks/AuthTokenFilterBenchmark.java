@@ -0,0 +1,108 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.security.jwt.AuthTokenFilter;
+import com.example.demo.security.jwt.CacheJetonsValides;
+import com.example.demo.security.jwt.JwtUtils;
+import com.example.demo.security.jwt.RegistreVersionsJetons;
+import com.example.demo.service.impl.UserDetailsImpl;
+import com.example.demo.service.impl.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtre d'authentification JWT sur une requête d'API avec les en-têtes d'un navigateur.
+ * Le paramètre cache distingue le cas courant (token déjà validé) d'un premier passage
+ * qui analyse le token et construit l'utilisateur ; le paramètre utilisateur indique
+ * s'il est chargé via le UserDetailsService (base) ou reconstruit depuis les claims.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class AuthTokenFilterBenchmark {
+
+    @Param({"succes", "echec"})
+    public String cache;
+
+    @Param({"base", "claims"})
+    public String utilisateur;
+
+    private AuthTokenFilter filtre;
+    private CacheJetonsValides cacheJetons;
+    private MockHttpServletRequest requete;
+
+    @Setup
+    public void preparer() {
+        JwtUtils jwtUtils = Fixtures.jwtUtils("claims".equals(utilisateur));
+        UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl();
+        ReflectionTestUtils.setField(userDetailsService, "userRepository", Fixtures.userRepository(Fixtures.utilisateur()));
+        RegistreVersionsJetons registreVersions = new RegistreVersionsJetons(
+                Fixtures.userRepository(Fixtures.utilisateur()), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(registreVersions, "taille", 10_000L);
+        ReflectionTestUtils.setField(registreVersions, "ttlMs", 60_000L);
+        registreVersions.init();
+        cacheJetons = new CacheJetonsValides(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cacheJetons, "taille", 10_000L);
+        ReflectionTestUtils.setField(cacheJetons, "ttlMaxMs", 300_000L);
+        cacheJetons.init();
+
+        filtre = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filtre, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filtre, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filtre, "cacheJetons", cacheJetons);
+        ReflectionTestUtils.setField(filtre, "registreVersions", registreVersions);
+
+        UserDetailsImpl userDetails = UserDetailsImpl.build(Fixtures.utilisateur());
+        Authentication authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        requete = new MockHttpServletRequest("GET", "/api/evenements/mes-evenements/plage");
+        requete.setQueryString("debut=2025-06-02T00:00:00&fin=2025-06-09T00:00:00");
+        requete.addHeader("Host", "localhost:8080");
+        requete.addHeader("Connection", "keep-alive");
+        requete.addHeader("Accept", "application/json, text/plain, */*");
+        requete.addHeader("Accept-Encoding", "gzip, deflate, br, zstd");
+        requete.addHeader("Accept-Language", "fr-FR,fr;q=0.9,en-US;q=0.8,en;q=0.7");
+        requete.addHeader("Authorization", "Bearer " + token);
+        requete.addHeader("Origin", "http://localhost:4200");
+        requete.addHeader("Referer", "http://localhost:4200/calendrier");
+        requete.addHeader("User-Agent", "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0 Safari/537.36");
+        requete.addHeader("Sec-Fetch-Mode", "cors");
+    }
+
+    @Benchmark
+    public Authentication doFilterInternal() throws ServletException, IOException {
+        if ("echec".equals(cache)) {
+            cacheJetons.vider();
+        }
+        try {
+            filtre.doFilter(requete, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
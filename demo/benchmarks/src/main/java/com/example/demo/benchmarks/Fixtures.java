@@ -0,0 +1,110 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.dto.EvenementDTO;
+import com.example.demo.model.Evenement;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.jwt.JwtUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Données et composants partagés par les benchmarks, construits sans contexte Spring
+ */
+public final class Fixtures {
+
+    /** Même secret que application.properties, afin de mesurer le même algorithme et la même taille de clé */
+    public static final String JWT_SECRET = "5970337336763979244226452948404D635166546A576E5A7234753777217A25432A462D4A614E645267556B58703273357638792F423F4528482B4D6251655468";
+
+    public static final LocalDateTime ORIGINE = LocalDateTime.of(2025, 1, 6, 8, 0);
+
+    private Fixtures() {
+    }
+
+    public static User utilisateur() {
+        User user = new User("alice", "alice@example.com", "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3S5Z1r2n6YxJ2rP0x1xG6S6");
+        user.setId(1L);
+        user.setRoles(Set.of("ROLE_USER"));
+        return user;
+    }
+
+    public static JwtUtils jwtUtils() {
+        return jwtUtils(false);
+    }
+
+    /**
+     * @param claimsUtilisateur Tokens portant l'id, l'email et les rôles de l'utilisateur
+     */
+    public static JwtUtils jwtUtils(boolean claimsUtilisateur) {
+        JwtUtils jwtUtils = new JwtUtils(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86_400_000);
+        ReflectionTestUtils.setField(jwtUtils, "claimsUtilisateur", claimsUtilisateur);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    /**
+     * Dépôt d'utilisateurs en mémoire qui ne connaît qu'un utilisateur, sans base de données
+     */
+    public static UserRepository userRepository(User user) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, methode, arguments) -> switch (methode.getName()) {
+                    case "findByUsername" -> user.getUsername().equals(arguments[0]) ? Optional.of(user) : Optional.empty();
+                    case "findById" -> user.getId().equals(arguments[0]) ? Optional.of(user) : Optional.empty();
+                    case "findVersionJetonById" -> user.getId().equals(arguments[0])
+                            ? Optional.of(user.getVersionJeton()) : Optional.empty();
+                    case "getReferenceById" -> user;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == arguments[0];
+                    case "toString" -> "UserRepository en mémoire";
+                    default -> throw new UnsupportedOperationException(methode.getName());
+                });
+    }
+
+    /**
+     * Génère des événements réalistes et reproductibles : créneaux de 30 minutes à 3 heures
+     * répartis sur les jours ouvrés, quelques journées entières
+     */
+    public static List<EvenementDTO> evenements(int nombre, Long userId) {
+        Random aleatoire = new Random(42);
+        List<EvenementDTO> evenements = new ArrayList<>(nombre);
+        for (int i = 0; i < nombre; i++) {
+            LocalDateTime debut = ORIGINE.plusDays(i / 4).plusMinutes(30L * aleatoire.nextInt(20));
+            EvenementDTO dto = new EvenementDTO();
+            dto.setId((long) i + 1);
+            dto.setTitre("Réunion projet " + i);
+            dto.setDescription(i % 3 == 0 ? "Point d'avancement hebdomadaire avec l'équipe, ordre du jour en pièce jointe" : null);
+            dto.setDateDebut(debut);
+            dto.setDateFin(debut.plusMinutes(30L * (1 + aleatoire.nextInt(6))));
+            dto.setLieu(i % 2 == 0 ? "Salle " + (i % 7) : null);
+            dto.setEstJourneeEntiere(i % 25 == 0);
+            dto.setDateModification(debut.minusDays(3));
+            dto.setUserId(userId);
+            evenements.add(dto);
+        }
+        return evenements;
+    }
+
+    public static Evenement entite(EvenementDTO dto, User user) {
+        Evenement evenement = new Evenement();
+        evenement.setId(dto.getId());
+        evenement.setTitre(dto.getTitre());
+        evenement.setDescription(dto.getDescription());
+        evenement.setDateDebut(dto.getDateDebut());
+        evenement.setDateFin(dto.getDateFin());
+        evenement.setLieu(dto.getLieu());
+        evenement.setEstJourneeEntiere(dto.isEstJourneeEntiere());
+        evenement.setDateModification(dto.getDateModification());
+        evenement.setUser(user);
+        return evenement;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.dto.EvenementDTO;
+import com.example.demo.model.Evenement;
+import com.example.demo.model.User;
+import com.example.demo.repository.EvenementLotRepository;
+import com.example.demo.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prédicat de chevauchement des requêtes par plage sur un million d'événements, en SQL direct
+ * sur le schéma généré depuis les entités (index compris), dans une base H2 en mode MySQL.
+ * L'ancien prédicat (BETWEEN ... OR BETWEEN ... OR ...) ne peut utiliser que l'index de user_id
+ * et parcourt tout l'agenda de l'utilisateur ; le nouveau parcourt une tranche bornée de l'index
+ * (user_id, date_debut). Les séries sont lues à part : MySQL parcourt pour cela l'index
+ * (user_id, regle_recurrence) sur IS NOT NULL, ce que H2 ne sait pas faire ; la mesure des séries
+ * sur H2 est donc un majorant. Les plans sont affichés au démarrage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PredicatPlageBenchmark {
+
+    private static final int UTILISATEURS = 20;
+    private static final int EVENEMENTS_PAR_UTILISATEUR = 50_000;
+    private static final int LOT = 5_000;
+    private static final int DUREE_MAX_JOURS = 92;
+
+    private static final String ANCIENNE = "SELECT * FROM evenements e WHERE e.user_id = ? AND (" +
+            "(e.regle_recurrence IS NULL AND (" +
+            "(e.date_debut BETWEEN ? AND ?) OR " +
+            "(e.date_fin BETWEEN ? AND ?) OR " +
+            "(e.date_debut <= ? AND e.date_fin >= ?))) OR " +
+            "(e.regle_recurrence IS NOT NULL AND e.date_debut <= ? AND " +
+            "(e.fin_recurrence IS NULL OR e.fin_recurrence >= ?)))";
+
+    private static final String PONCTUELS = "SELECT * FROM evenements e WHERE e.user_id = ? AND " +
+            "e.regle_recurrence IS NULL AND e.date_debut BETWEEN ? AND ? AND e.date_fin >= ?";
+
+    private static final String SERIES = "SELECT * FROM evenements e WHERE e.user_id = ? AND " +
+            "e.regle_recurrence IS NOT NULL AND e.date_debut <= ? AND " +
+            "(e.fin_recurrence IS NULL OR e.fin_recurrence >= ?)";
+
+    private ConfigurableApplicationContext contexte;
+    private JdbcTemplate jdbcTemplate;
+    private Long userId;
+    private LocalDateTime[] debutsSemaine;
+    private int requete;
+
+    @Setup(Level.Trial)
+    public void demarrer() {
+        contexte = new SpringApplicationBuilder(DemoApplication.class)
+                // En arguments : ils priment sur l'application.properties de l'application, sur le classpath
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:bench" + System.nanoTime() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--server.port=0",
+                        "--logging.level.root=WARN",
+                        "--ajenda.app.jwtSecret=" + Fixtures.JWT_SECRET,
+                        "--ajenda.app.jwtExpirationMs=86400000",
+                        "--ajenda.app.recherche.moteur=sql",
+                        "--ajenda.app.indexPlages.actif=false");
+        jdbcTemplate = contexte.getBean(JdbcTemplate.class);
+        UserRepository userRepository = contexte.getBean(UserRepository.class);
+        EvenementLotRepository lotRepository = contexte.getBean(EvenementLotRepository.class);
+
+        List<EvenementDTO> modeles = Fixtures.evenements(EVENEMENTS_PAR_UTILISATEUR, null);
+        for (int u = 0; u < UTILISATEURS; u++) {
+            User user = userRepository.save(new User("user" + u, "user" + u + "@example.com", "motdepasse"));
+            if (u == 0) {
+                userId = user.getId();
+            }
+            List<Evenement> lot = new ArrayList<>(LOT);
+            for (EvenementDTO dto : modeles) {
+                Evenement evenement = Fixtures.entite(dto, user);
+                evenement.setId(null);
+                lot.add(evenement);
+                if (lot.size() == LOT) {
+                    lotRepository.insererEnLot(lot);
+                    lot.clear();
+                }
+            }
+            if (!lot.isEmpty()) {
+                lotRepository.insererEnLot(lot);
+            }
+        }
+        jdbcTemplate.execute("ANALYZE");
+
+        int jours = EVENEMENTS_PAR_UTILISATEUR / 4 - 7;
+        Random aleatoire = new Random(7);
+        debutsSemaine = new LocalDateTime[1024];
+        for (int i = 0; i < debutsSemaine.length; i++) {
+            debutsSemaine[i] = Fixtures.ORIGINE.toLocalDate().atStartOfDay().plusDays(aleatoire.nextInt(jours));
+        }
+
+        LocalDateTime debut = debutsSemaine[0];
+        LocalDateTime fin = debut.plusDays(7);
+        System.out.println("Plan de l'ancien prédicat :\n" + jdbcTemplate.queryForObject("EXPLAIN " + ANCIENNE,
+                String.class, parametresAncienne(debut, fin)));
+        System.out.println("Plan des événements ponctuels :\n" + jdbcTemplate.queryForObject("EXPLAIN " + PONCTUELS,
+                String.class, parametresPonctuels(debut, fin)));
+        System.out.println("Plan des séries :\n" + jdbcTemplate.queryForObject("EXPLAIN " + SERIES,
+                String.class, userId, Timestamp.valueOf(fin), Timestamp.valueOf(debut)));
+    }
+
+    @TearDown(Level.Trial)
+    public void arreter() {
+        contexte.close();
+    }
+
+    @Benchmark
+    public int ancienPredicat() {
+        LocalDateTime debut = debutsSemaine[requete++ & (debutsSemaine.length - 1)];
+        return compter(ANCIENNE, parametresAncienne(debut, debut.plusDays(7)));
+    }
+
+    @Benchmark
+    public int ponctuelsBornes() {
+        LocalDateTime debut = debutsSemaine[requete++ & (debutsSemaine.length - 1)];
+        return compter(PONCTUELS, parametresPonctuels(debut, debut.plusDays(7)));
+    }
+
+    @Benchmark
+    public int series() {
+        LocalDateTime debut = debutsSemaine[requete++ & (debutsSemaine.length - 1)];
+        return compter(SERIES, userId, Timestamp.valueOf(debut.plusDays(7)), Timestamp.valueOf(debut));
+    }
+
+    private Object[] parametresAncienne(LocalDateTime debut, LocalDateTime fin) {
+        Timestamp d = Timestamp.valueOf(debut);
+        Timestamp f = Timestamp.valueOf(fin);
+        return new Object[]{userId, d, f, d, f, d, f, f, d};
+    }
+
+    private Object[] parametresPonctuels(LocalDateTime debut, LocalDateTime fin) {
+        return new Object[]{userId, Timestamp.valueOf(debut.minusDays(DUREE_MAX_JOURS)), Timestamp.valueOf(fin),
+                Timestamp.valueOf(debut)};
+    }
+
+    /**
+     * Lit toutes les lignes, colonnes comprises, comme le ferait le chargement des entités
+     */
+    private int compter(String sql, Object... parametres) {
+        int[] lignes = new int[1];
+        jdbcTemplate.query(sql, resultat -> {
+            resultat.getString("titre");
+            lignes[0]++;
+        }, parametres);
+        return lignes[0];
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.dto.EvenementDTO;
+import com.example.demo.model.Evenement;
+import com.example.demo.model.User;
+import com.example.demo.repository.EvenementLotRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.EvenementService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requêtes par plage de dates de bout en bout, du service jusqu'à une base H2 en mode MySQL.
+ * Plusieurs utilisateurs partagent la table afin que la requête filtre réellement par propriétaire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class RequetesPlageBenchmark {
+
+    private static final int UTILISATEURS = 20;
+    private static final int LOT = 1_000;
+
+    @Param({"1000", "20000"})
+    public int evenementsParUtilisateur;
+
+    @Param({"false", "true"})
+    public boolean indexPlages;
+
+    private ConfigurableApplicationContext contexte;
+    private EvenementService evenementService;
+    private Long userId;
+    private LocalDateTime[] debutsSemaine;
+    private int requete;
+
+    @Setup(Level.Trial)
+    public void demarrer() {
+        contexte = new SpringApplicationBuilder(DemoApplication.class)
+                // En arguments : ils priment sur l'application.properties de l'application, sur le classpath
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:bench" + System.nanoTime() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--server.port=0",
+                        "--logging.level.root=WARN",
+                        "--ajenda.app.jwtSecret=" + Fixtures.JWT_SECRET,
+                        "--ajenda.app.jwtExpirationMs=86400000",
+                        "--ajenda.app.recherche.moteur=sql",
+                        "--ajenda.app.indexPlages.actif=" + indexPlages);
+        evenementService = contexte.getBean(EvenementService.class);
+        UserRepository userRepository = contexte.getBean(UserRepository.class);
+        EvenementLotRepository lotRepository = contexte.getBean(EvenementLotRepository.class);
+
+        for (int u = 0; u < UTILISATEURS; u++) {
+            User user = userRepository.save(new User("user" + u, "user" + u + "@example.com", "motdepasse"));
+            if (u == 0) {
+                userId = user.getId();
+            }
+            List<Evenement> lot = new ArrayList<>(LOT);
+            for (EvenementDTO dto : Fixtures.evenements(evenementsParUtilisateur, user.getId())) {
+                dto.setId(null);
+                lot.add(Fixtures.entite(dto, user));
+                if (lot.size() == LOT) {
+                    lotRepository.insererEnLot(lot);
+                    lot.clear();
+                }
+            }
+            if (!lot.isEmpty()) {
+                lotRepository.insererEnLot(lot);
+            }
+        }
+
+        int jours = Math.max(1, evenementsParUtilisateur / 4 - 7);
+        Random aleatoire = new Random(7);
+        debutsSemaine = new LocalDateTime[1024];
+        for (int i = 0; i < debutsSemaine.length; i++) {
+            debutsSemaine[i] = Fixtures.ORIGINE.toLocalDate().atStartOfDay().plusDays(aleatoire.nextInt(jours));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void arreter() {
+        contexte.close();
+    }
+
+    @Benchmark
+    public List<EvenementDTO> plageDUneSemaine() {
+        LocalDateTime debut = debutsSemaine[requete++ & (debutsSemaine.length - 1)];
+        return evenementService.getEvenementsParUtilisateurEtPlageDeDates(userId, debut, debut.plusDays(7));
+    }
+}
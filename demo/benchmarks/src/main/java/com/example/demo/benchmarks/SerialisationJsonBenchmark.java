@@ -0,0 +1,88 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.config.JacksonConfig;
+import com.example.demo.controller.SelectionChampsAdvice;
+import com.example.demo.dto.EvenementDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Sérialisation des listes d'événements renvoyées par l'API, en JSON ou en CBOR,
+ * avec ou sans sélection des champs, avec un ObjectMapper configuré comme celui de Spring Boot.
+ * La taille des réponses, brute et compressée en gzip, est affichée à la préparation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SerialisationJsonBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int taille;
+
+    @Param({"json", "cbor"})
+    public String format;
+
+    // "tous", ou les champs demandés par ?fields=
+    @Param({"tous", "id,titre,dateDebut,dateFin"})
+    public String champs;
+
+    private ObjectWriter writer;
+    private List<EvenementDTO> evenements;
+
+    @Setup
+    public void preparer() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json().filters(JacksonConfig.filtresParDefaut());
+        if ("cbor".equals(format)) {
+            builder.factory(new CBORFactory());
+        }
+        ObjectMapper objectMapper = builder.build();
+        writer = objectMapper.writerFor(new TypeReference<List<EvenementDTO>>() { });
+        FilterProvider selection = SelectionChampsAdvice.filtres("tous".equals(champs) ? null : champs);
+        if (selection != null) {
+            writer = writer.with(selection);
+        }
+        evenements = Fixtures.evenements(taille, 1L);
+
+        byte[] octets = writer.writeValueAsBytes(evenements);
+        ByteArrayOutputStream compresses = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compresses)) {
+            gzip.write(octets);
+        }
+        System.out.printf("%n%s, champs %s : %d octets, %d en gzip%n", format, champs, octets.length, compresses.size());
+    }
+
+    @Benchmark
+    public void serialiserVersFlux() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), evenements);
+    }
+
+    @Benchmark
+    public byte[] serialiserEnOctets() throws IOException {
+        return writer.writeValueAsBytes(evenements);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.benchmarks.Fixtures;
+import com.example.demo.dto.EvenementDTO;
+import com.example.demo.model.Evenement;
+import com.example.demo.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion entité/DTO du service des événements, exécutée pour chaque événement lu ou écrit.
+ * Placé dans le paquetage du service pour accéder aux méthodes de conversion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class ConversionEvenementBenchmark {
+
+    private EvenementServiceImpl service;
+    private Evenement entite;
+    private EvenementDTO dto;
+
+    @Setup
+    public void preparer() {
+        User user = Fixtures.utilisateur();
+        service = new EvenementServiceImpl(null, null, Fixtures.userRepository(user), null, null, null, null, null, null);
+        dto = Fixtures.evenements(1, user.getId()).get(0);
+        entite = Fixtures.entite(dto, user);
+    }
+
+    @Benchmark
+    public EvenementDTO convertToDTO() {
+        return service.convertToDTO(entite);
+    }
+
+    @Benchmark
+    public Evenement convertToEntity() {
+        return service.convertToEntity(dto);
+    }
+}
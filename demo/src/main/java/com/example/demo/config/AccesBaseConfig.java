@@ -0,0 +1,49 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration de l'accès concurrent à la base de données
+ */
+@Configuration
+public class AccesBaseConfig {
+
+    /**
+     * Limiteur des accès concurrents à la base, dimensionné sur le pool de connexions Hikari.
+     * Il enveloppe les services et les dépôts.
+     * Déclaré static : un BeanPostProcessor doit être créé avant les dépôts qu'il enveloppe.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "ajenda.app.limiteurBase.actif", havingValue = "true")
+    public static LimiteurConnexionsBase limiteurConnexionsBase(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int taillePool,
+            @Value("${ajenda.app.limiteurBase.attenteMaxMs:10000}") long attenteMaxMs,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new LimiteurConnexionsBase(taillePool, attenteMaxMs, meterRegistry);
+    }
+
+    /**
+     * Refuse de démarrer avec les threads virtuels demandés sur un JDK antérieur à 21 : Spring Boot ignorerait
+     * l'option et les requêtes resteraient servies par le pool de Tomcat, avec un limiteur dimensionné pour autre chose.
+     * Déclaré static pour échouer avant la création des autres beans.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public static BeanFactoryPostProcessor verificationThreadsVirtuels() {
+        verifierJdkThreadsVirtuels(Runtime.version().feature());
+        return beanFactory -> { };
+    }
+
+    static void verifierJdkThreadsVirtuels(int versionJdk) {
+        if (versionJdk < 21) {
+            throw new IllegalStateException("spring.threads.virtual.enabled (profil threads-virtuels) nécessite un JDK 21 "
+                    + "ou plus, l'application tourne sur un JDK " + versionJdk);
+        }
+    }
+}
@@ -22,6 +22,9 @@ public class CorsConfig {
         corsConfiguration.addAllowedOrigin("http://localhost:4200"); // URL du frontend Angular
         corsConfiguration.addAllowedHeader("*");
         corsConfiguration.addAllowedMethod("*");
+        corsConfiguration.addExposedHeader("X-Chevauchements"); // Avertissement de double réservation à la création
+        corsConfiguration.addExposedHeader("ETag"); // Version des listes d'événements, pour If-None-Match
+        corsConfiguration.addExposedHeader("Retry-After"); // Délai avant un nouvel essai après un refus 429 ou 503
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", corsConfiguration);
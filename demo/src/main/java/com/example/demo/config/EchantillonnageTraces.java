@@ -0,0 +1,52 @@
+package com.example.demo.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import java.util.Arrays;
+
+/**
+ * Filtre Logback qui n'écrit les traces DEBUG et TRACE des loggers configurés (chemin d'authentification)
+ * que pour les requêtes échantillonnées par {@link FiltreEchantillonnageTraces}. La décision est prise
+ * une fois par requête et portée par le MDC : une requête retenue garde toutes ses traces, les autres
+ * n'en écrivent aucune, et isDebugEnabled() répond de même, ce qui évite aussi de calculer leurs arguments.
+ * Hors requête, ces traces ne sont jamais écrites. Les niveaux INFO et au-delà ne sont pas concernés.
+ * Déclaré dans logback-spring.xml.
+ */
+public class EchantillonnageTraces extends TurboFilter {
+
+    public static final String CLE_MDC = "traceEchantillonnee";
+
+    private String[] prefixes = new String[0];
+
+    /**
+     * @param loggers Préfixes des loggers échantillonnés, séparés par des virgules
+     */
+    public void setLoggers(String loggers) {
+        this.prefixes = Arrays.stream(loggers.split(","))
+                .map(String::trim)
+                .filter(prefixe -> !prefixe.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.isGreaterOrEqual(Level.INFO) || !estEchantillonne(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return MDC.get(CLE_MDC) != null ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean estEchantillonne(String nom) {
+        for (String prefixe : prefixes) {
+            if (nom.startsWith(prefixe)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retient une requête sur N pour les traces de débogage échantillonnées ({@link EchantillonnageTraces}),
+ * en la marquant dans le MDC le temps de son traitement. Placé en tête de la chaîne de filtres,
+ * avant Spring Security, pour que toute l'authentification de la requête soit couverte.
+ * Avec un taux de 1 toutes les requêtes sont retenues, avec 0 aucune.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FiltreEchantillonnageTraces extends OncePerRequestFilter {
+
+    @Value("${ajenda.app.journal.echantillonnage.taux:1}")
+    private long taux;
+
+    private final AtomicLong requetes = new AtomicLong();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (taux <= 0 || requetes.getAndIncrement() % taux != 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        MDC.put(EchantillonnageTraces.CLE_MDC, "1");
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(EchantillonnageTraces.CLE_MDC);
+        }
+    }
+}
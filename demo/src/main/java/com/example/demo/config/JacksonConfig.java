@@ -0,0 +1,41 @@
+package com.example.demo.config;
+
+import com.example.demo.dto.EvenementDTO;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+/**
+ * Configuration de la sérialisation des réponses : filtre de sélection des champs et format binaire CBOR
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Sans sélection de champs demandée, le filtre des événements écrit tous les champs
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer filtresJackson() {
+        return builder -> builder.filters(filtresParDefaut());
+    }
+
+    public static FilterProvider filtresParDefaut() {
+        return new SimpleFilterProvider()
+                .addFilter(EvenementDTO.FILTRE_CHAMPS, SimpleBeanPropertyFilter.serializeAll());
+    }
+
+    /**
+     * Réponses CBOR (Accept: application/cbor), avec la même configuration que le JSON :
+     * plus compactes pour les clients mobiles, dates comprises
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demo.config;
+
+import com.example.demo.exception.SurchargeException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limite le nombre de threads qui accèdent en même temps à la base au nombre de connexions du pool.
+ * Avec les threads virtuels, le nombre de requêtes concurrentes n'est plus borné par Tomcat :
+ * sans ce limiteur, des milliers de threads attendraient une connexion dans Hikari et expireraient
+ * ensemble. Ici ils attendent un permis, et le temps d'attente est mesuré par endpoint (ajenda.base.attente).
+ * Le permis est pris à l'entrée du premier service ou dépôt appelé, avant que sa transaction
+ * n'ouvre une connexion, et rendu à sa sortie, après le commit. Un thread qui détient déjà un permis,
+ * ou dont la transaction a déjà obtenu une connexion, n'en attend pas d'autre : un thread
+ * ne peut donc jamais garder une connexion en attendant un permis.
+ * Les services annotés {@link SansPermisBase} ne prennent pas de permis : seuls les services
+ * et dépôts qu'ils appellent en prennent.
+ */
+public class LimiteurConnexionsBase implements BeanPostProcessor {
+    private static final Logger logger = LoggerFactory.getLogger(LimiteurConnexionsBase.class);
+
+    private static final String HORS_REQUETE = "hors-requete";
+
+    private final Semaphore permis;
+    private final long attenteMaxMs;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ThreadLocal<Boolean> permisDetenu = new ThreadLocal<>();
+    private final Map<String, Timer> attentes = new ConcurrentHashMap<>();
+    private volatile boolean metriquesEnregistrees;
+
+    public LimiteurConnexionsBase(int nombrePermis, long attenteMaxMs, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.permis = new Semaphore(nombrePermis, true);
+        this.attenteMaxMs = attenteMaxMs;
+        this.meterRegistry = meterRegistry;
+        logger.info("Limiteur d'accès à la base actif: {} permis, attente maximale {} ms", nombrePermis, attenteMaxMs);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (AnnotationUtils.findAnnotation(bean.getClass(), Repository.class) == null
+                && AnnotationUtils.findAnnotation(AopUtils.getTargetClass(bean), Service.class) == null) {
+            return bean;
+        }
+        if (AnnotationUtils.findAnnotation(AopUtils.getTargetClass(bean), SansPermisBase.class) != null) {
+            return bean;
+        }
+        MethodInterceptor limiteur = this::appeler;
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            // Dépôt Spring Data ou service transactionnel : le limiteur passe avant l'ouverture de la transaction
+            advised.addAdvice(0, limiteur);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(limiteur);
+        return proxyFactory.getProxy();
+    }
+
+    private Object appeler(MethodInvocation invocation) throws Throwable {
+        if (Boolean.TRUE.equals(permisDetenu.get())
+                || TransactionSynchronizationManager.isActualTransactionActive()
+                || estMethodeObject(invocation)) {
+            return invocation.proceed();
+        }
+
+        acquerir();
+        try {
+            return invocation.proceed();
+        } finally {
+            liberer();
+        }
+    }
+
+    private void acquerir() throws InterruptedException {
+        long debut = System.nanoTime();
+        boolean obtenu = permis.tryAcquire(attenteMaxMs, TimeUnit.MILLISECONDS);
+        long attente = System.nanoTime() - debut;
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            enregistrerJauges(registry);
+            String endpoint = endpointCourant();
+            String resultat = obtenu ? "obtenu" : "expire";
+            attentes.computeIfAbsent(endpoint + '|' + resultat, cle -> Timer.builder("ajenda.base.attente")
+                            .description("Attente d'un permis d'accès à la base")
+                            .tag("endpoint", endpoint)
+                            .tag("resultat", resultat)
+                            .register(registry))
+                    .record(attente, TimeUnit.NANOSECONDS);
+        }
+        if (!obtenu) {
+            throw new SurchargeException("Base de données saturée, veuillez réessayer");
+        }
+        permisDetenu.set(Boolean.TRUE);
+    }
+
+    private void liberer() {
+        permisDetenu.remove();
+        permis.release();
+    }
+
+    private void enregistrerJauges(MeterRegistry registry) {
+        if (metriquesEnregistrees) {
+            return;
+        }
+        Gauge.builder("ajenda.base.permis.disponibles", permis, Semaphore::availablePermits)
+                .description("Permis d'accès à la base disponibles")
+                .register(registry);
+        Gauge.builder("ajenda.base.permis.attente", permis, Semaphore::getQueueLength)
+                .description("Threads en attente d'un permis d'accès à la base")
+                .register(registry);
+        metriquesEnregistrees = true;
+    }
+
+    /**
+     * Motif de l'endpoint de la requête en cours, comme dans les métriques http.server.requests
+     */
+    private static String endpointCourant() {
+        RequestAttributes attributs = RequestContextHolder.getRequestAttributes();
+        if (!(attributs instanceof ServletRequestAttributes servlet)) {
+            return HORS_REQUETE;
+        }
+        HttpServletRequest requete = servlet.getRequest();
+        Object motif = requete.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return requete.getMethod() + " " + (motif != null ? motif : "inconnu");
+    }
+
+    private static boolean estMethodeObject(MethodInvocation invocation) {
+        return invocation.getMethod().getDeclaringClass() == Object.class;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.demo.config;
+
+import com.example.demo.dto.PageEvenementsDTO;
+import com.example.demo.dto.SynchronisationDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure chaque méthode publique des services de l'application : durée des appels (ajenda.service),
+ * par service, opération, taille du résultat et exception, et nombre d'éléments retournés (ajenda.service.elements).
+ * La taille est regroupée en tranches pour borner le nombre de séries.
+ * Enveloppe les services avant leur transaction : la durée comprend l'attente d'une connexion et le commit.
+ */
+public class MesureServices implements BeanPostProcessor {
+
+    static final String SANS_TAILLE = "sans-objet";
+    private static final String AUCUNE = "aucune";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<String, Timer> durees = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> elements = new ConcurrentHashMap<>();
+
+    public MesureServices(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> classe = AopUtils.getTargetClass(bean);
+        if (AnnotationUtils.findAnnotation(classe, Service.class) == null
+                || !classe.getPackageName().startsWith("com.example.demo")) {
+            return bean;
+        }
+        String service = classe.getSimpleName();
+        MethodInterceptor mesure = invocation -> mesurer(service, invocation);
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, mesure);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(mesure);
+        return proxyFactory.getProxy();
+    }
+
+    private Object mesurer(String service, MethodInvocation invocation) throws Throwable {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null || invocation.getMethod().getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        String operation = invocation.getMethod().getName();
+        long debut = System.nanoTime();
+        Object resultat = null;
+        String exception = AUCUNE;
+        try {
+            resultat = invocation.proceed();
+            return resultat;
+        } catch (Throwable t) {
+            exception = t.getClass().getSimpleName();
+            throw t;
+        } finally {
+            long duree = System.nanoTime() - debut;
+            int taille = taille(resultat);
+            String tranche = tranche(taille);
+            String exceptionFinale = exception;
+            durees.computeIfAbsent(service + '|' + operation + '|' + tranche + '|' + exception,
+                            cle -> Timer.builder("ajenda.service")
+                                    .description("Durée des appels aux services")
+                                    .tag("service", service)
+                                    .tag("operation", operation)
+                                    .tag("taille", tranche)
+                                    .tag("exception", exceptionFinale)
+                                    .register(registry))
+                    .record(duree, TimeUnit.NANOSECONDS);
+            if (taille >= 0) {
+                elements.computeIfAbsent(service + '|' + operation,
+                                cle -> DistributionSummary.builder("ajenda.service.elements")
+                                        .description("Nombre d'éléments retournés par les services")
+                                        .tag("service", service)
+                                        .tag("operation", operation)
+                                        .register(registry))
+                        .record(taille);
+            }
+        }
+    }
+
+    /**
+     * Nombre d'éléments d'un résultat de service
+     * @return La taille, ou -1 si le résultat n'est pas une collection d'éléments
+     */
+    static int taille(Object resultat) {
+        if (resultat instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (resultat instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (resultat instanceof PageEvenementsDTO page && page.getEvenements() != null) {
+            return page.getEvenements().size();
+        }
+        if (resultat instanceof SynchronisationDTO synchronisation && synchronisation.getEvenements() != null) {
+            return synchronisation.getEvenements().size()
+                    + (synchronisation.getSupprimes() != null ? synchronisation.getSupprimes().size() : 0);
+        }
+        return -1;
+    }
+
+    static String tranche(int taille) {
+        if (taille < 0) {
+            return SANS_TAILLE;
+        }
+        if (taille == 0) {
+            return "0";
+        }
+        if (taille <= 10) {
+            return "1-10";
+        }
+        if (taille <= 100) {
+            return "11-100";
+        }
+        if (taille <= 1000) {
+            return "101-1000";
+        }
+        return "plus-de-1000";
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration des métriques propres à l'application, exposées avec celles de Spring Boot
+ * sur /actuator/prometheus
+ */
+@Configuration
+public class MetriquesConfig {
+
+    /**
+     * Mesure des appels aux services.
+     * Déclaré static : un BeanPostProcessor doit être créé avant les services qu'il enveloppe.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "ajenda.app.metriques.services.actif", havingValue = "true", matchIfMissing = true)
+    public static MesureServices mesureServices(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new MesureServices(meterRegistry);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Routage des lectures vers une réplique MySQL (ajenda.app.replique.actif=true).
+ * Remplace la source de données de Spring Boot par deux pools Hikari, la base principale
+ * (spring.datasource.*) et la réplique (ajenda.app.replique.*), derrière un routage par transaction.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ajenda.app.replique.actif", havingValue = "true")
+public class RepliqueLectureConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimaire(DataSourceProperties properties) {
+        HikariDataSource primaire = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primaire.setPoolName("primaire");
+        return primaire;
+    }
+
+    @Bean
+    public HikariDataSource dataSourceReplique(DataSourceProperties primaire,
+                                               @Value("${ajenda.app.replique.url}") String url,
+                                               @Value("${ajenda.app.replique.username:${spring.datasource.username:}}") String username,
+                                               @Value("${ajenda.app.replique.password:${spring.datasource.password:}}") String password,
+                                               @Value("${ajenda.app.replique.taillePool:10}") int taillePool) {
+        HikariDataSource replique = new HikariDataSource();
+        replique.setPoolName("replique");
+        replique.setDriverClassName(primaire.determineDriverClassName());
+        replique.setJdbcUrl(url);
+        replique.setUsername(username);
+        replique.setPassword(password);
+        replique.setMaximumPoolSize(taillePool);
+        replique.setReadOnly(true);
+        // Une réplique arrêtée au démarrage ne doit pas empêcher l'application de démarrer sur la base principale
+        replique.setInitializationFailTimeout(-1);
+        return replique;
+    }
+
+    @Bean
+    public SondeReplique sondeReplique(@Qualifier("dataSourceReplique") DataSource replique,
+                                       @Value("${ajenda.app.replique.requeteRetard:SHOW REPLICA STATUS}") String requete,
+                                       @Value("${ajenda.app.replique.retardMaxSecondes:2}") long retardMaxSecondes,
+                                       MeterRegistry meterRegistry) {
+        return new SondeReplique(replique, requete, retardMaxSecondes, meterRegistry);
+    }
+
+    /**
+     * Source de données de l'application : JPA, JdbcTemplate et transactions passent par le routage
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("dataSourcePrimaire") DataSource primaire,
+                                 @Qualifier("dataSourceReplique") DataSource replique,
+                                 SondeReplique sonde,
+                                 @Value("${ajenda.app.replique.fenetreEcritureMs:5000}") long fenetreEcritureMs,
+                                 @Value("${ajenda.app.replique.tailleMax:100000}") long tailleMax,
+                                 MeterRegistry meterRegistry) {
+        RoutageLectureEcriture routage = new RoutageLectureEcriture(primaire, replique, sonde,
+                Duration.ofMillis(fenetreEcritureMs), tailleMax, meterRegistry);
+        return new LazyConnectionDataSourceProxy(routage);
+    }
+}
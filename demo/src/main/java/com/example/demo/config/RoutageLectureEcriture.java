@@ -0,0 +1,193 @@
+package com.example.demo.config;
+
+import com.example.demo.service.impl.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Source de données qui envoie les transactions en lecture seule (@Transactional(readOnly = true))
+ * vers la réplique, et tout le reste vers la base principale.
+ * Les lectures restent sur la base principale quand la réplique est écartée par la {@link SondeReplique},
+ * et pendant fenetreEcriture après la validation d'une écriture d'un utilisateur : ses données,
+ * que la réplique n'a peut-être pas encore reçues, sont relues sur la base principale par l'utilisateur
+ * connecté qui a écrit, et par les lectures déclarées pour lui avec {@link #lectureDe}.
+ * Une écriture compte pour l'utilisateur connecté et pour ceux signalés par {@link #signalerEcriture}.
+ * La cible est choisie à l'obtention de la connexion : la source doit être enveloppée dans un
+ * LazyConnectionDataSourceProxy, qui ne l'obtient qu'à la première requête, une fois la transaction
+ * et son attribut readOnly en place. Pour la même raison, {@link #surPrimaire} et {@link #lectureDe}
+ * doivent précéder la première requête de la transaction.
+ */
+public class RoutageLectureEcriture extends AbstractRoutingDataSource {
+
+    public enum Cible { PRIMAIRE, REPLIQUE }
+
+    private static final ThreadLocal<Boolean> primaireImposee = new ThreadLocal<>();
+    private static final ThreadLocal<Long> utilisateurLu = new ThreadLocal<>();
+    private static volatile boolean actif;
+
+    private final SondeReplique sonde;
+    private final Cache<Long, Boolean> ecrituresRecentes;
+    private final Counter versPrimaire;
+    private final Counter versReplique;
+
+    public RoutageLectureEcriture(DataSource primaire, DataSource replique, SondeReplique sonde,
+                                  Duration fenetreEcriture, long tailleMax, MeterRegistry meterRegistry) {
+        this.sonde = sonde;
+        this.ecrituresRecentes = Caffeine.newBuilder()
+                .maximumSize(tailleMax)
+                .expireAfterWrite(fenetreEcriture)
+                .build();
+        this.versPrimaire = compteur(meterRegistry, Cible.PRIMAIRE);
+        this.versReplique = compteur(meterRegistry, Cible.REPLIQUE);
+        setTargetDataSources(Map.of(Cible.PRIMAIRE, primaire, Cible.REPLIQUE, replique));
+        setDefaultTargetDataSource(primaire);
+        afterPropertiesSet();
+        actif = true;
+    }
+
+    /**
+     * Exécute une lecture sur la base principale, même en lecture seule.
+     * Pour les chargements conservés en mémoire, qu'une réplique en retard figerait dans un état périmé.
+     */
+    public static <T> T surPrimaire(Supplier<T> lecture) {
+        Boolean precedente = primaireImposee.get();
+        primaireImposee.set(Boolean.TRUE);
+        try {
+            return lecture.get();
+        } finally {
+            restaurer(primaireImposee, precedente);
+        }
+    }
+
+    /**
+     * Exécute une lecture des données d'un utilisateur, qui relit la base principale s'il vient d'écrire.
+     * Pour les lectures pour le compte d'un autre que l'utilisateur connecté, ou hors requête.
+     */
+    public static <T> T lectureDe(Long userId, Supplier<T> lecture) {
+        Long precedent = utilisateurLu.get();
+        utilisateurLu.set(userId);
+        try {
+            return lecture.get();
+        } finally {
+            restaurer(utilisateurLu, precedent);
+        }
+    }
+
+    private static <T> void restaurer(ThreadLocal<T> indication, T precedente) {
+        if (precedente == null) {
+            indication.remove();
+        } else {
+            indication.set(precedente);
+        }
+    }
+
+    /**
+     * Signale que la transaction courante écrit les données d'un utilisateur : après sa validation,
+     * les lectures de ses données reviennent sur la base principale pendant fenetreEcriture
+     */
+    public static void signalerEcriture(Long userId) {
+        EcrituresTransaction ecritures = ecrituresTransaction();
+        if (ecritures != null && userId != null) {
+            ecritures.utilisateurs.add(userId);
+        }
+    }
+
+    private static Counter compteur(MeterRegistry meterRegistry, Cible cible) {
+        return Counter.builder("ajenda.base.routage")
+                .description("Connexions obtenues par base cible")
+                .tag("cible", cible.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Cible cible = cible();
+        Counter connexions = cible == Cible.REPLIQUE ? versReplique : versPrimaire;
+        connexions.increment();
+        return cible;
+    }
+
+    Cible cible() {
+        Long userId = utilisateurCourant();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            EcrituresTransaction ecritures = ecrituresTransaction();
+            if (ecritures != null) {
+                ecritures.routage = this;
+                if (userId != null) {
+                    ecritures.utilisateurs.add(userId);
+                }
+            }
+            return Cible.PRIMAIRE;
+        }
+        if (!sonde.estDisponible() || Boolean.TRUE.equals(primaireImposee.get())
+                || aEcritRecemment(userId) || aEcritRecemment(utilisateurLu.get())) {
+            return Cible.PRIMAIRE;
+        }
+        return Cible.REPLIQUE;
+    }
+
+    private boolean aEcritRecemment(Long userId) {
+        return userId != null && ecrituresRecentes.getIfPresent(userId) != null;
+    }
+
+    /**
+     * Utilisateurs écrits par la transaction courante, créés à la première écriture ou au premier signalement,
+     * ou null hors transaction synchronisée
+     */
+    private static EcrituresTransaction ecrituresTransaction() {
+        if (!actif || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        EcrituresTransaction ecritures =
+                (EcrituresTransaction) TransactionSynchronizationManager.getResource(EcrituresTransaction.class);
+        if (ecritures == null) {
+            ecritures = new EcrituresTransaction();
+            TransactionSynchronizationManager.bindResource(EcrituresTransaction.class, ecritures);
+            TransactionSynchronizationManager.registerSynchronization(ecritures);
+        }
+        return ecritures;
+    }
+
+    private static Long utilisateurCourant() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl utilisateur
+                ? utilisateur.getId()
+                : null;
+    }
+
+    /**
+     * Marque les utilisateurs écrits une fois la transaction validée : une lecture pendant la transaction
+     * ne peut pas voir ses écritures, et une transaction annulée n'a rien écrit
+     */
+    private static final class EcrituresTransaction implements TransactionSynchronization {
+        private final Set<Long> utilisateurs = new HashSet<>();
+        private RoutageLectureEcriture routage;
+
+        @Override
+        public void afterCommit() {
+            if (routage != null) {
+                utilisateurs.forEach(userId -> routage.ecrituresRecentes.put(userId, Boolean.TRUE));
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(EcrituresTransaction.class);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Exclut un service du {@link LimiteurConnexionsBase}.
+ * Réservé aux services sans transaction qui répartissent leurs lectures sur d'autres threads :
+ * le permis, lié au thread appelant, ne suit pas ces lectures, qui en prennent chacune un.
+ * Si l'appelant gardait le sien en les attendant, assez de requêtes simultanées détiendraient
+ * tous les permis en attendant des lectures qui n'en obtiendraient jamais.
+ * Les services et dépôts appelés par un tel service restent limités.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SansPermisBase {
+}
@@ -0,0 +1,87 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Mesure périodiquement le retard de la réplique en lecture sur la base principale.
+ * La réplique n'est utilisée que si la dernière mesure a réussi et que son retard ne dépasse pas retardMaxSecondes ;
+ * sinon, réplique arrêtée, injoignable ou en retard, les lectures repassent sur la base principale.
+ * La requête de mesure retourne le retard en secondes : colonne Seconds_Behind_Source
+ * (ou Seconds_Behind_Master) de SHOW REPLICA STATUS, ou à défaut la première colonne de la première ligne.
+ */
+public class SondeReplique {
+    private static final Logger logger = LoggerFactory.getLogger(SondeReplique.class);
+
+    private static final String[] COLONNES_RETARD = {"Seconds_Behind_Source", "Seconds_Behind_Master"};
+
+    private final DataSource replique;
+    private final String requete;
+    private final long retardMaxSecondes;
+    private volatile double retardSecondes = Double.NaN;
+    private volatile boolean disponible;
+
+    public SondeReplique(DataSource replique, String requete, long retardMaxSecondes, MeterRegistry meterRegistry) {
+        this.replique = replique;
+        this.requete = requete;
+        this.retardMaxSecondes = retardMaxSecondes;
+        Gauge.builder("ajenda.replique.retard", this, sonde -> sonde.retardSecondes)
+                .description("Retard de la réplique en lecture, en secondes (NaN si inconnu)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public boolean estDisponible() {
+        return disponible;
+    }
+
+    @Scheduled(fixedDelayString = "${ajenda.app.replique.intervalleSondeMs:1000}")
+    public void sonder() {
+        Double retard = mesurer();
+        retardSecondes = retard != null ? retard : Double.NaN;
+        boolean utilisable = retard != null && retard <= retardMaxSecondes;
+        if (utilisable != disponible) {
+            logger.warn("Réplique en lecture {} (retard: {} s)", utilisable ? "utilisée" : "écartée", retard);
+        }
+        disponible = utilisable;
+    }
+
+    /**
+     * @return Le retard en secondes, ou null si la réplique est injoignable ou ne réplique pas
+     */
+    private Double mesurer() {
+        try (Connection connexion = replique.getConnection();
+             Statement statement = connexion.createStatement();
+             ResultSet resultat = statement.executeQuery(requete)) {
+            if (!resultat.next()) {
+                return null;
+            }
+            Object valeur = resultat.getObject(colonneRetard(resultat.getMetaData()));
+            return valeur instanceof Number nombre ? nombre.doubleValue() : null;
+        } catch (SQLException e) {
+            logger.debug("Mesure du retard de la réplique impossible: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static int colonneRetard(ResultSetMetaData colonnes) throws SQLException {
+        for (int i = 1; i <= colonnes.getColumnCount(); i++) {
+            for (String nom : COLONNES_RETARD) {
+                if (nom.equalsIgnoreCase(colonnes.getColumnLabel(i))) {
+                    return i;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -2,10 +2,22 @@ package com.example.demo.config;
 
 import com.example.demo.security.jwt.AuthEntryPointJwt;
 import com.example.demo.security.jwt.AuthTokenFilter;
+import com.example.demo.security.limitation.FiltreLimitationDebit;
+import com.example.demo.security.limitation.PolitiquesLimitation;
+import com.example.demo.security.motdepasse.EncodeurMotDePasseBorne;
+import com.example.demo.security.motdepasse.EncodeurMotDePasseMesure;
+import com.example.demo.security.motdepasse.EncodeursMotDePasse;
 import com.example.demo.service.impl.UserDetailsServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,7 +27,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -38,18 +49,47 @@ public class WebSecurityConfig {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${ajenda.app.motdepasse.encodage:bcrypt}")
+    private String encodageMotDePasse;
+
+    @Value("${ajenda.app.motdepasse.bcrypt.force:10}")
+    private int forceBcrypt;
+
+    @Value("${ajenda.app.motdepasse.threads:4}")
+    private int threadsHachage;
+
+    @Value("${ajenda.app.motdepasse.file:64}")
+    private int fileHachage;
+
+    @Value("${ajenda.app.motdepasse.attenteMaxMs:5000}")
+    private long attenteMaxHachageMs;
+
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
         logger.info("Initialisation du filtre d'authentification JWT");
         return new AuthTokenFilter();
     }
 
+    /**
+     * Limitation de débit par adresse IP, placée après CORS pour que les réponses 429 restent lisibles
+     * par le frontend, et avant l'authentification JWT qu'elle épargne aux requêtes refusées
+     */
+    @Bean
+    public FiltreLimitationDebit filtreLimitationDebit(PolitiquesLimitation politiques, ObjectMapper objectMapper) {
+        return new FiltreLimitationDebit(politiques, objectMapper);
+    }
+
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Réencode le mot de passe à la connexion quand son hachage n'utilise plus l'encodage configuré
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         
         logger.info("Configuration du fournisseur d'authentification");
         return authProvider;
@@ -61,14 +101,21 @@ public class WebSecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
+    /**
+     * Encodeur des mots de passe, exécuté sur un pool de threads borné.
+     * Fermé avec le contexte (AutoCloseable), ce qui arrête le pool.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        logger.info("Configuration de l'encodeur de mot de passe BCrypt");
-        return new BCryptPasswordEncoder();
+        logger.info("Configuration de l'encodeur de mot de passe: {} (force BCrypt {}), {} threads de hachage",
+                encodageMotDePasse, forceBcrypt, threadsHachage);
+        PasswordEncoder encodeur = EncodeursMotDePasse.creer(encodageMotDePasse, forceBcrypt);
+        return new EncodeurMotDePasseBorne(new EncodeurMotDePasseMesure(encodeur, meterRegistry),
+                threadsHachage, fileHachage, attenteMaxHachageMs, meterRegistry);
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, FiltreLimitationDebit filtreLimitationDebit) throws Exception {
         logger.info("Configuration de la chaîne de filtres de sécurité");
         
         http.csrf(csrf -> {
@@ -88,14 +135,21 @@ public class WebSecurityConfig {
                 logger.info("Politique de session définie sur STATELESS");
             })
             .authorizeHttpRequests(auth -> {
-                auth.requestMatchers("/api/auth/**").permitAll()
+                // Redistributions asynchrones (fin des flux NDJSON et SSE) et d'erreur d'une requête déjà autorisée :
+                // AuthTokenFilter ne s'y exécute pas et ne conserve pas le contexte, elles seraient refusées
+                // alors que la réponse est déjà commencée
+                auth.dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+                    .requestMatchers("/api/auth/**").permitAll()
                     .requestMatchers("/api/test/**").permitAll()
+                    // Sondes et collecte Prometheus : à restreindre au réseau interne en production
+                    .requestMatchers(EndpointRequest.to(HealthEndpoint.class, PrometheusScrapeEndpoint.class)).permitAll()
                     .anyRequest().authenticated();
-                logger.info("Configuration des règles d'autorisation: /api/auth/** et /api/test/** sont publics, le reste nécessite une authentification");
+                logger.info("Configuration des règles d'autorisation: /api/auth/**, /api/test/**, /actuator/health et /actuator/prometheus sont publics, le reste nécessite une authentification");
             });
         
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+        http.addFilterBefore(filtreLimitationDebit, AuthTokenFilter.class);
         
         logger.info("Chaîne de filtres de sécurité configurée avec succès");
         return http.build();
@@ -111,9 +165,9 @@ public class WebSecurityConfig {
         configuration.setAllowedHeaders(Arrays.asList(
             "Authorization", "Content-Type", "X-Auth-Token", "Origin", 
             "Accept", "X-Requested-With", "Access-Control-Request-Method", 
-            "Access-Control-Request-Headers"
+            "Access-Control-Request-Headers", "If-None-Match"
         ));
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "X-Auth-Token"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "X-Auth-Token", "Retry-After", "X-Chevauchements", "ETag"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
         
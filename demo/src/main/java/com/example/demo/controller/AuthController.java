@@ -7,16 +7,20 @@ import com.example.demo.dto.SignupRequest;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.security.jwt.JwtUtils;
+import com.example.demo.security.jwt.RegistreVersionsJetons;
+import com.example.demo.security.limitation.PolitiquesLimitation;
 import com.example.demo.service.impl.UserDetailsImpl;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
@@ -44,9 +48,17 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    RegistreVersionsJetons registreVersions;
+
+    @Autowired
+    PolitiquesLimitation politiquesLimitation;
+
     @PostMapping("/signin")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
         logger.info("Tentative de connexion pour l'utilisateur: {}", loginRequest.getUsername());
+        // Avant BCrypt : un même compte attaqué depuis de nombreuses adresses échappe à la limite par IP
+        politiquesLimitation.verifierConnexion(loginRequest.getUsername());
 
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
@@ -56,23 +68,15 @@ public class AuthController {
         
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
         
-        // Log user details to help with debugging
-        logger.info("Utilisateur authentifié: {}", userDetails.getUsername());
-        logger.info("Rôles bruts: {}", userDetails.getAuthorities());
-        
         List<String> roles = userDetails.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList());
         
-        logger.info("Rôles extraits: {}", roles);
-        
         // Ensure roles have the ROLE_ prefix if they don't already
         List<String> formattedRoles = roles.stream()
                 .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
                 .collect(Collectors.toList());
         
-        logger.info("Rôles formatés: {}", formattedRoles);
-        
         JwtResponse response = new JwtResponse(
             jwt,
             userDetails.getId(), 
@@ -81,12 +85,23 @@ public class AuthController {
             formattedRoles
         );
         
-        logger.info("Réponse JWT générée avec succès: token={} (tronqué), roles={}", 
-            jwt.substring(0, Math.min(20, jwt.length())), formattedRoles);
+        logger.info("Utilisateur authentifié: {}, rôles: {}", userDetails.getUsername(), formattedRoles);
         
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Révoque tous les tokens de l'utilisateur connecté, y compris celui de la requête.
+     * L'utilisateur doit ensuite se reconnecter sur chacun de ses appareils.
+     */
+    @PostMapping("/revocation")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<MessageResponse> revoquerJetons(@AuthenticationPrincipal UserDetailsImpl userDetails) {
+        registreVersions.revoquer(userDetails.getId());
+        logger.info("Tokens révoqués pour l'utilisateur: {}", userDetails.getUsername());
+        return ResponseEntity.ok(new MessageResponse("Toutes les sessions ont été fermées"));
+    }
+
     @PostMapping("/signup")
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
         logger.info("Tentative d'inscription pour l'utilisateur: {}", signUpRequest.getUsername());
@@ -0,0 +1,35 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.DemandeDisponibilitesDTO;
+import com.example.demo.dto.DisponibilitesDTO;
+import com.example.demo.service.DisponibiliteService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Contrôleur REST pour la recherche de disponibilités communes entre utilisateurs
+ */
+@RestController
+@RequestMapping("/api/disponibilites")
+@CrossOrigin(origins = "*")
+public class DisponibiliteController {
+
+    private final DisponibiliteService disponibiliteService;
+
+    @Autowired
+    public DisponibiliteController(DisponibiliteService disponibiliteService) {
+        this.disponibiliteService = disponibiliteService;
+    }
+
+    /**
+     * Cherche les plages libres communes à plusieurs utilisateurs, et les périodes où ils sont en conflit
+     */
+    @PostMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<DisponibilitesDTO> calculerDisponibilites(@Valid @RequestBody DemandeDisponibilitesDTO demande) {
+        return ResponseEntity.ok(disponibiliteService.calculerDisponibilites(demande));
+    }
+}
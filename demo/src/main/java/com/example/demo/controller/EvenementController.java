@@ -1,19 +1,58 @@
 package com.example.demo.controller;
 
 import com.example.demo.dto.EvenementDTO;
+import com.example.demo.dto.MessageResponse;
+import com.example.demo.dto.PageEvenementsDTO;
+import com.example.demo.dto.ResultatImportDTO;
+import com.example.demo.dto.ResumeCreneauDTO;
+import com.example.demo.dto.SynchronisationDTO;
+import com.example.demo.exception.RequeteInvalideException;
 import com.example.demo.service.EvenementService;
+import com.example.demo.service.SynchronisationService;
+import com.example.demo.service.ical.RedacteurICalendar;
 import com.example.demo.service.impl.UserDetailsImpl;
+import com.example.demo.service.notification.BusChangements;
+import com.example.demo.service.notification.VersionsAgendas;
+import com.example.demo.service.planning.Granularite;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Contrôleur REST pour la gestion des événements
@@ -23,11 +62,27 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class EvenementController {
 
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+    static final String EN_TETE_CHEVAUCHEMENTS = "X-Chevauchements";
+
     private final EvenementService evenementService;
+    private final ObjectMapper objectMapper;
+    private final BusChangements busChangements;
+    private final VersionsAgendas versionsAgendas;
+    private final SynchronisationService synchronisationService;
+
+    @Value("${ajenda.app.sse.delaiExpirationMs:1800000}")
+    private long delaiExpirationSse;
 
     @Autowired
-    public EvenementController(EvenementService evenementService) {
+    public EvenementController(EvenementService evenementService, ObjectMapper objectMapper,
+                               BusChangements busChangements, VersionsAgendas versionsAgendas,
+                               SynchronisationService synchronisationService) {
         this.evenementService = evenementService;
+        this.objectMapper = objectMapper;
+        this.busChangements = busChangements;
+        this.versionsAgendas = versionsAgendas;
+        this.synchronisationService = synchronisationService;
     }
 
     /**
@@ -40,7 +95,57 @@ public class EvenementController {
             @AuthenticationPrincipal UserDetailsImpl userDetails) {
         
         evenementDTO.setUserId(userDetails.getId());
-        return new ResponseEntity<>(evenementService.creerEvenement(evenementDTO), HttpStatus.CREATED);
+        EvenementDTO cree = evenementService.creerEvenement(evenementDTO);
+        // La création n'est jamais refusée : les événements chevauchés sont signalés au client, qui avertit l'utilisateur
+        List<Long> chevauchements = cree.isEstJourneeEntiere() ? List.of()
+                : evenementService.getChevauchements(cree.getUserId(), cree.getDateDebut(), cree.getDateFin(), cree.getId());
+        ResponseEntity.BodyBuilder reponse = ResponseEntity.status(HttpStatus.CREATED);
+        if (!chevauchements.isEmpty()) {
+            reponse.header(EN_TETE_CHEVAUCHEMENTS, chevauchements.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        }
+        return reponse.body(cree);
+    }
+
+    /**
+     * Importe en masse des événements pour l'utilisateur connecté.
+     * Le corps est un tableau JSON ou du NDJSON, lu au fil de l'eau sans être chargé en mémoire.
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<ResultatImportDTO>> importerEvenements(
+            HttpServletRequest request,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) throws IOException {
+        
+        try (MappingIterator<EvenementDTO> evenements = objectMapper.readerFor(EvenementDTO.class)
+                .readValues(request.getInputStream())) {
+            return ResponseEntity.ok(evenementService.importerEvenements(
+                    userDetails.getId(), new LectureImport(evenements)));
+        }
+    }
+
+    /**
+     * Exporte les événements de l'utilisateur connecté au format NDJSON, réimportable tel quel
+     */
+    @GetMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> exporterEvenementsNdjson(
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        // L'export reste complet pour pouvoir être réimporté
+        return fluxMesEvenements(null, userDetails);
+    }
+
+    /**
+     * Exporte les événements de l'utilisateur connecté sous forme de tableau JSON écrit au fil de l'eau
+     */
+    @GetMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> exporterEvenementsJson(
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        Long userId = userDetails.getId();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> ecrireTableauJson(out, consommateur ->
+                        evenementService.parcourirEvenementsParUtilisateur(userId, consommateur)));
     }
 
     /**
@@ -62,12 +167,7 @@ public class EvenementController {
             @Valid @RequestBody EvenementDTO evenementDTO,
             @AuthenticationPrincipal UserDetailsImpl userDetails) {
         
-        // Vérifier que l'événement appartient à l'utilisateur connecté
-        EvenementDTO existingEvent = evenementService.getEvenementById(id);
-        if (!existingEvent.getUserId().equals(userDetails.getId())) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+        // La mise à jour ne porte que sur les événements de l'utilisateur connecté
         evenementDTO.setUserId(userDetails.getId());
         return ResponseEntity.ok(evenementService.mettreAJourEvenement(id, evenementDTO));
     }
@@ -81,24 +181,117 @@ public class EvenementController {
             @PathVariable Long id,
             @AuthenticationPrincipal UserDetailsImpl userDetails) {
         
-        // Vérifier que l'événement appartient à l'utilisateur connecté
-        EvenementDTO existingEvent = evenementService.getEvenementById(id);
-        if (!existingEvent.getUserId().equals(userDetails.getId())) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
-        evenementService.supprimerEvenement(id);
+        // La suppression ne porte que sur les événements de l'utilisateur connecté
+        evenementService.supprimerEvenement(id, userDetails.getId());
         return ResponseEntity.noContent().build();
     }
 
     /**
-     * Récupère tous les événements de l'utilisateur connecté
+     * Récupère tous les événements de l'utilisateur connecté.
+     * Comme pour la plage et la recherche, un client qui détient déjà la version courante reçoit 304.
      */
     @GetMapping("/mes-evenements")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<List<EvenementDTO>> getMesEvenements(
+            WebRequest webRequest,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        Long userId = userDetails.getId();
+        return siModifie(webRequest, userId, () -> evenementService.getEvenementsParUtilisateur(userId));
+    }
+
+    /**
+     * Flux iCalendar des événements de l'utilisateur connecté, pour les abonnements depuis un client de calendrier.
+     * La version de l'agenda sert d'ETag : un flux inchangé répond 304 sans lire aucun événement.
+     */
+    @GetMapping("/mes-evenements.ics")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> getMesEvenementsICalendar(
+            WebRequest webRequest,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        Long userId = userDetails.getId();
+        String etag = "W/\"ics-" + evenementService.getVersionAgenda(userId) + "\"";
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        String nom = "Agenda de " + userDetails.getUsername();
+        return ResponseEntity.ok()
+                .contentType(TEXT_CALENDAR)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(out -> {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                    RedacteurICalendar redacteur = new RedacteurICalendar(writer, ZoneId.systemDefault(), Instant.now());
+                    redacteur.ouvrir(nom);
+                    try {
+                        evenementService.parcourirEvenementsParUtilisateur(userId, evenement -> {
+                            try {
+                                redacteur.ecrire(evenement);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    }
+                    redacteur.fermer();
+                });
+    }
+
+    /**
+     * Flux SSE des changements des événements de l'utilisateur connecté (creation, modification, suppression).
+     * Un événement resync demande au client de recharger ses événements : des changements ont été perdus
+     * parce qu'il ne les lisait pas assez vite, ou sont trop nombreux pour être détaillés.
+     * À l'expiration du flux, le client se reconnecte puis recharge ses événements.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public SseEmitter fluxChangements(@AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return busChangements.abonner(userDetails.getId(), delaiExpirationSse);
+    }
+
+    /**
+     * Synchronise un client hors ligne : événements créés ou modifiés et identifiants supprimés depuis le jeton,
+     * ou copie complète sans jeton. Un jeton trop ancien pour le journal répond 410 : le client repart
+     * d'une copie complète. Comme pour les listes, ?fields= limite les champs des événements.
+     */
+    @GetMapping("/sync")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<SynchronisationDTO> synchroniser(
+            @RequestParam(required = false) String depuis,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return ResponseEntity.ok(synchronisationService.synchroniser(userDetails.getId(), depuis));
+    }
+
+    /**
+     * Récupère une page des événements de l'utilisateur connecté, triés par date de début
+     */
+    @GetMapping("/mes-evenements/page")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<PageEvenementsDTO> getPageMesEvenements(
+            @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "50") int taille,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return ResponseEntity.ok(evenementService.getPageEvenementsParUtilisateur(
+                userDetails.getId(), curseur, taille));
+    }
+
+    /**
+     * Diffuse tous les événements de l'utilisateur connecté au format NDJSON, un événement par ligne.
+     * Comme pour les listes, ?fields= limite les champs écrits.
+     */
+    @GetMapping(value = "/mes-evenements/flux", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> fluxMesEvenements(
+            @RequestParam(name = SelectionChampsAdvice.PARAMETRE, required = false) String champs,
             @AuthenticationPrincipal UserDetailsImpl userDetails) {
-        return ResponseEntity.ok(evenementService.getEvenementsParUtilisateur(userDetails.getId()));
+        Long userId = userDetails.getId();
+        FilterProvider filtres = SelectionChampsAdvice.filtres(champs);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> ecrireNdjson(out, filtres, consommateur ->
+                        evenementService.parcourirEvenementsParUtilisateur(userId, consommateur)));
     }
 
     /**
@@ -109,9 +302,26 @@ public class EvenementController {
     public ResponseEntity<List<EvenementDTO>> getMesEvenementsParPlage(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime debut,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            WebRequest webRequest,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        Long userId = userDetails.getId();
+        return siModifie(webRequest, userId,
+                () -> evenementService.getEvenementsParUtilisateurEtPlageDeDates(userId, debut, fin));
+    }
+
+    /**
+     * Résume l'occupation de l'agenda de l'utilisateur connecté par jour ou par heure :
+     * nombre d'événements et plages occupées par créneau, pour les vues mois et semaine
+     */
+    @GetMapping("/mes-evenements/resume")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<ResumeCreneauDTO>> getResumeMesEvenements(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime debut,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            @RequestParam(defaultValue = "jour") String granularite,
             @AuthenticationPrincipal UserDetailsImpl userDetails) {
-        return ResponseEntity.ok(evenementService.getEvenementsParUtilisateurEtPlageDeDates(
-                userDetails.getId(), debut, fin));
+        return ResponseEntity.ok(evenementService.getResumeParUtilisateur(
+                userDetails.getId(), debut, fin, Granularite.analyser(granularite)));
     }
 
     /**
@@ -121,9 +331,13 @@ public class EvenementController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<List<EvenementDTO>> rechercherMesEvenements(
             @RequestParam String motCle,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int taille,
+            WebRequest webRequest,
             @AuthenticationPrincipal UserDetailsImpl userDetails) {
-        return ResponseEntity.ok(evenementService.rechercherEvenementsParUtilisateur(
-                userDetails.getId(), motCle));
+        Long userId = userDetails.getId();
+        return siModifie(webRequest, userId,
+                () -> evenementService.rechercherEvenementsParUtilisateur(userId, motCle, page, taille));
     }
     
     /**
@@ -135,6 +349,30 @@ public class EvenementController {
         return ResponseEntity.ok(evenementService.getTousLesEvenements());
     }
 
+    /**
+     * Récupère une page de tous les événements, triés par date de début (admin)
+     */
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<PageEvenementsDTO> getPageTousLesEvenements(
+            @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "50") int taille) {
+        return ResponseEntity.ok(evenementService.getPageTousLesEvenements(curseur, taille));
+    }
+
+    /**
+     * Diffuse tous les événements au format NDJSON, un événement par ligne (admin)
+     */
+    @GetMapping(value = "/flux", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> fluxTousLesEvenements(
+            @RequestParam(name = SelectionChampsAdvice.PARAMETRE, required = false) String champs) {
+        FilterProvider filtres = SelectionChampsAdvice.filtres(champs);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> ecrireNdjson(out, filtres, evenementService::parcourirTousLesEvenements));
+    }
+
     /**
      * Récupère les événements dans une plage de dates (admin)
      */
@@ -151,7 +389,122 @@ public class EvenementController {
      */
     @GetMapping("/recherche")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    public ResponseEntity<List<EvenementDTO>> rechercherEvenements(@RequestParam String motCle) {
-        return ResponseEntity.ok(evenementService.rechercherEvenements(motCle));
+    public ResponseEntity<List<EvenementDTO>> rechercherEvenements(
+            @RequestParam String motCle,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int taille) {
+        return ResponseEntity.ok(evenementService.rechercherEvenements(motCle, page, taille));
+    }
+
+    /**
+     * Reconstruit l'index de recherche à partir de la base de données (admin)
+     */
+    @PostMapping("/recherche/reconstruction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<MessageResponse> reconstruireIndexRecherche() {
+        int total = evenementService.reconstruireIndexRecherche();
+        return ResponseEntity.ok(new MessageResponse("Index de recherche reconstruit: " + total + " événements"));
+    }
+
+    /**
+     * Écrit les événements produits par la source sous forme d'un tableau JSON, sans construire la liste en mémoire
+     */
+    private void ecrireTableauJson(OutputStream out, Consumer<Consumer<EvenementDTO>> source) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(EvenementDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generateur = objectMapper.getFactory().createGenerator(out)) {
+            generateur.writeStartArray();
+            source.accept(evenement -> {
+                try {
+                    writer.writeValue(generateur, evenement);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generateur.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Répond 304 sans lire aucun événement si le client détient déjà la version courante de l'agenda,
+     * sinon lit les événements et les renvoie avec cette version pour ETag.
+     * L'ETag est faible : la réponse peut être compressée ou sérialisée en CBOR selon la requête.
+     */
+    private <T> ResponseEntity<T> siModifie(WebRequest webRequest, Long userId, Supplier<T> lecture) {
+        // Lue avant les événements : une écriture validée pendant la lecture change la version suivante
+        String etag = "W/\"" + versionsAgendas.version(userId) + "\"";
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(lecture.get());
+    }
+
+    /**
+     * Écrit les événements produits par la source directement dans la réponse, un objet JSON par ligne,
+     * sans jamais construire la liste complète en mémoire
+     * @param filtres Sélection des champs, ou null pour tous les champs
+     */
+    private void ecrireNdjson(OutputStream out, FilterProvider filtres, Consumer<Consumer<EvenementDTO>> source)
+            throws IOException {
+        ObjectWriter ecrivain = objectMapper.writerFor(EvenementDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        ObjectWriter writer = filtres != null ? ecrivain.with(filtres) : ecrivain;
+        try (JsonGenerator generateur = objectMapper.getFactory().createGenerator(out)) {
+            source.accept(evenement -> {
+                try {
+                    writer.writeValue(generateur, evenement);
+                    generateur.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Itérateur sur les événements d'un import, qui signale un élément mal formé par sa position
+     */
+    private static final class LectureImport implements Iterator<EvenementDTO> {
+        private final MappingIterator<EvenementDTO> source;
+        private int position;
+
+        private LectureImport(MappingIterator<EvenementDTO> source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return source.hasNextValue();
+            } catch (IOException e) {
+                throw new RequeteInvalideException("Import illisible après l'index " + (position - 1) + ": "
+                        + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public EvenementDTO next() {
+            try {
+                EvenementDTO evenement = source.nextValue();
+                position++;
+                return evenement;
+            } catch (IOException | RuntimeJsonMappingException e) {
+                throw new RequeteInvalideException("Événement mal formé à l'index " + position + ": "
+                        + e.getMessage(), e);
+            }
+        }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.EvenementDTO;
+import com.example.demo.exception.RequeteInvalideException;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sélection des champs des événements renvoyés, par le paramètre ?fields=id,titre,dateDebut,dateFin.
+ * S'applique à toute réponse contenant des événements, listes et pages comprises, en JSON comme en CBOR.
+ */
+@ControllerAdvice(assignableTypes = EvenementController.class)
+public class SelectionChampsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    static final String PARAMETRE = "fields";
+
+    private static final Set<String> CHAMPS = Arrays.stream(EvenementDTO.class.getDeclaredFields())
+            .filter(champ -> !Modifier.isStatic(champ.getModifiers()))
+            .map(Field::getName)
+            .collect(Collectors.toUnmodifiableSet());
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            FilterProvider filtres = filtres(servletRequest.getServletRequest().getParameter(PARAMETRE));
+            if (filtres != null) {
+                bodyContainer.setFilters(filtres);
+            }
+        }
+    }
+
+    /**
+     * Filtres ne conservant que les champs demandés des événements
+     * @param champs Noms des champs séparés par des virgules ; null ou sans aucun nom pour tous les champs
+     * @return Les filtres à appliquer, ou null si aucune sélection n'est demandée
+     * @throws RequeteInvalideException si un champ est inconnu
+     */
+    public static FilterProvider filtres(String champs) {
+        if (champs == null || champs.isBlank()) {
+            return null;
+        }
+        Set<String> selection = Arrays.stream(champs.split(","))
+                .map(String::trim)
+                .filter(champ -> !champ.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (selection.isEmpty()) {
+            return null;
+        }
+        for (String champ : selection) {
+            if (!CHAMPS.contains(champ)) {
+                throw new RequeteInvalideException("Champ inconnu: " + champ);
+            }
+        }
+        return new SimpleFilterProvider()
+                .addFilter(EvenementDTO.FILTRE_CHAMPS, SimpleBeanPropertyFilter.filterOutAllExcept(selection));
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Changement poussé aux clients abonnés au flux des événements.
+ * RESYNC signale que des changements ont été perdus : le client doit recharger ses événements.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangementEvenementDTO {
+
+    public enum Type { CREATION, MODIFICATION, SUPPRESSION, RESYNC }
+
+    private Type type;
+
+    private Long id;
+
+    // Événement après le changement, absent pour une suppression ou une resynchronisation
+    private EvenementDTO evenement;
+}
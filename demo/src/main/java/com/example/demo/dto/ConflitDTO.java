@@ -0,0 +1,23 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Période [debut, fin[ pendant laquelle plusieurs utilisateurs sont occupés en même temps
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConflitDTO {
+
+    private LocalDateTime debut;
+
+    private LocalDateTime fin;
+
+    private List<Long> userIds;
+}
@@ -0,0 +1,34 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Recherche de créneaux libres communs à plusieurs utilisateurs
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandeDisponibilitesDTO {
+
+    @NotEmpty(message = "Au moins un utilisateur est obligatoire")
+    private List<Long> userIds;
+
+    @NotNull(message = "La date de début est obligatoire")
+    private LocalDateTime debut;
+
+    @NotNull(message = "La date de fin est obligatoire")
+    private LocalDateTime fin;
+
+    // Durée minimale d'un créneau libre, en minutes
+    @NotNull(message = "La durée du créneau est obligatoire")
+    @Positive(message = "La durée du créneau doit être positive")
+    private Integer dureeMinutes;
+}
@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Disponibilités communes d'un groupe d'utilisateurs sur une plage
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisponibilitesDTO {
+
+    // Plages où tous les utilisateurs sont libres, d'au moins la durée demandée
+    private List<PlageDTO> plagesLibres;
+
+    private List<ConflitDTO> conflits;
+}
@@ -1,5 +1,6 @@
 package com.example.demo.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -7,6 +8,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * DTO (Data Transfer Object) pour les événements
@@ -15,8 +19,12 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(EvenementDTO.FILTRE_CHAMPS)
 public class EvenementDTO {
 
+    // Filtre Jackson de sélection des champs (?fields=), qui écrit tous les champs par défaut
+    public static final String FILTRE_CHAMPS = "champsEvenement";
+
     private Long id;
     
     @NotBlank(message = "Le titre est obligatoire")
@@ -38,5 +46,45 @@ public class EvenementDTO {
     
     private boolean estJourneeEntiere = false;
     
+    // Règle RRULE (FREQ, INTERVAL, COUNT, UNTIL, BYDAY) pour un événement récurrent
+    private String regleRecurrence;
+    
+    // Débuts des occurrences exclues de la série
+    private List<LocalDateTime> exceptionsRecurrence;
+    
+    // Fin de la dernière occurrence, calculée par le serveur
+    private LocalDateTime finRecurrence;
+    
+    // Série à laquelle appartient l'occurrence ou que remplace cet événement
+    private Long serieId;
+    
+    // Début d'origine de l'occurrence dans sa série
+    private LocalDateTime occurrenceOriginale;
+    
+    private LocalDateTime dateModification;
+    
     private Long userId;
+    
+    // Version de l'événement : renvoyée lors d'une modification, elle la refuse si l'événement a changé entre-temps
+    private Long version;
+
+    /**
+     * Construit le DTO directement depuis les colonnes d'un événement, sans entité intermédiaire :
+     * utilisé par les expressions constructeur des requêtes de lecture (EvenementRepository)
+     * @param exceptionsRecurrence Exceptions telles que stockées, au format ISO et séparées par des virgules
+     */
+    public EvenementDTO(Long id, String titre, String description, LocalDateTime dateDebut, LocalDateTime dateFin,
+                        String couleurFond, String couleurTexte, String lieu, boolean estJourneeEntiere,
+                        String regleRecurrence, String exceptionsRecurrence, LocalDateTime finRecurrence,
+                        Long serieId, LocalDateTime occurrenceOriginale, LocalDateTime dateModification, Long userId,
+                        Long version) {
+        this(id, titre, description, dateDebut, dateFin, couleurFond, couleurTexte, lieu, estJourneeEntiere,
+                regleRecurrence, (List<LocalDateTime>) null, finRecurrence, serieId, occurrenceOriginale, dateModification,
+                userId, version);
+        if (exceptionsRecurrence != null && !exceptionsRecurrence.isEmpty()) {
+            this.exceptionsRecurrence = Arrays.stream(exceptionsRecurrence.split(","))
+                    .map(LocalDateTime::parse)
+                    .collect(Collectors.toList());
+        }
+    }
 } 
\ No newline at end of file
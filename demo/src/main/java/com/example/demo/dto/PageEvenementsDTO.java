@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page d'événements obtenue par pagination sur curseur
+ * Le curseur suivant est null lorsque la dernière page est atteinte
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageEvenementsDTO {
+
+    private List<EvenementDTO> evenements;
+
+    private String curseurSuivant;
+}
@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Plage horaire [debut, fin[, fin exclue
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlageDTO {
+
+    private LocalDateTime debut;
+
+    private LocalDateTime fin;
+}
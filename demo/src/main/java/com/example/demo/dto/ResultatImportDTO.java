@@ -0,0 +1,25 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Résultat de l'import d'un événement au sein d'un import en masse
+ * L'index correspond à la position de l'événement dans le flux importé
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultatImportDTO {
+
+    private int index;
+
+    private Long id;
+
+    private boolean succes;
+
+    private Map<String, String> erreurs;
+}
@@ -0,0 +1,32 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Résumé de l'occupation d'un créneau (jour ou heure) pour les vues d'ensemble de l'agenda
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumeCreneauDTO {
+
+    private LocalDateTime debut;
+
+    private LocalDateTime fin;
+
+    // Événements qui chevauchent le créneau, journées entières comprises
+    private int nombreEvenements;
+
+    private int nombreJourneesEntieres;
+
+    // Durée couverte par au moins un événement avec heure
+    private long minutesOccupees;
+
+    // Plages occupées par les événements avec heure, fusionnées et limitées au créneau
+    private List<PlageDTO> plagesOccupees;
+}
@@ -0,0 +1,34 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Modifications des événements d'un utilisateur depuis un jeton de synchronisation.
+ * Une copie complète remplace les données du client ; sinon le client enregistre les événements reçus
+ * et retire les événements supprimés. Tant que la synchronisation n'est pas complète,
+ * le client rappelle avec le nouveau jeton.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SynchronisationDTO {
+
+    // Événements créés ou modifiés, dans leur état courant
+    private List<EvenementDTO> evenements;
+
+    // Identifiants des événements supprimés
+    private List<Long> supprimes;
+
+    // Jeton à fournir à la prochaine synchronisation
+    private String jeton;
+
+    // Faux s'il reste des modifications à lire avec le nouveau jeton
+    private boolean complet;
+
+    // Vrai si la réponse contient tous les événements de l'utilisateur, sans jeton de départ
+    private boolean copieComplete;
+}
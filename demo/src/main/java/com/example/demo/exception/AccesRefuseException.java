@@ -0,0 +1,11 @@
+package com.example.demo.exception;
+
+/**
+ * Exception levée lorsqu'un utilisateur tente de modifier une ressource qui ne lui appartient pas
+ */
+public class AccesRefuseException extends RuntimeException {
+
+    public AccesRefuseException(String message) {
+        super(message);
+    }
+}
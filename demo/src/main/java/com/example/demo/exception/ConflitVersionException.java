@@ -0,0 +1,11 @@
+package com.example.demo.exception;
+
+/**
+ * Exception levée lorsqu'une modification porte sur une version d'une ressource qui n'est plus la version courante
+ */
+public class ConflitVersionException extends RuntimeException {
+
+    public ConflitVersionException(String message) {
+        super(message);
+    }
+}
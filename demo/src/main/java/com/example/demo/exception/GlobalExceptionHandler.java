@@ -1,6 +1,10 @@
 package com.example.demo.exception;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -17,6 +21,7 @@ import java.util.Map;
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
     /**
      * Gère les exceptions de validation des données
@@ -52,15 +57,100 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Gère les accès à une ressource appartenant à un autre utilisateur
+     */
+    @ExceptionHandler(AccesRefuseException.class)
+    public ResponseEntity<Map<String, Object>> handleAccesRefuseException(AccesRefuseException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.FORBIDDEN.value());
+        response.put("message", ex.getMessage());
+
+        return new ResponseEntity<>(response, HttpStatus.FORBIDDEN);
+    }
+
+    /**
+     * Gère les modifications concurrentes, signalées par le service ou par le verrouillage optimiste de JPA :
+     * le client doit relire la ressource avant de réessayer
+     */
+    @ExceptionHandler({ConflitVersionException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<Map<String, Object>> handleConflitVersionException(RuntimeException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.CONFLICT.value());
+        response.put("message", ex.getMessage());
+
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Gère les jetons de synchronisation expirés : le client doit repartir d'une copie complète
+     */
+    @ExceptionHandler(JetonExpireException.class)
+    public ResponseEntity<Map<String, Object>> handleJetonExpireException(JetonExpireException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.GONE.value());
+        response.put("message", ex.getMessage());
+
+        return new ResponseEntity<>(response, HttpStatus.GONE);
+    }
+
+    /**
+     * Gère les surcharges temporaires : le client peut réessayer après le délai indiqué
+     */
+    @ExceptionHandler(SurchargeException.class)
+    public ResponseEntity<Map<String, Object>> handleSurchargeException(SurchargeException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
+    /**
+     * Gère les dépassements de débit : le client peut réessayer après le délai indiqué
+     */
+    @ExceptionHandler(TropDeRequetesException.class)
+    public ResponseEntity<Map<String, Object>> handleTropDeRequetesException(TropDeRequetesException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        response.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getAttenteSecondes()))
+                .body(response);
+    }
+
+    /**
+     * Gère les requêtes invalides signalées par l'application, dont le message s'adresse au client
+     */
+    @ExceptionHandler(RequeteInvalideException.class)
+    public ResponseEntity<Map<String, Object>> handleRequeteInvalideException(RequeteInvalideException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        response.put("message", ex.getMessage());
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Gère toutes les autres exceptions
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGlobalException(Exception ex) {
+        // Le message peut décrire le fonctionnement interne : il est journalisé, pas renvoyé au client
+        logger.error("Erreur non gérée: {}", ex.getMessage(), ex);
         Map<String, Object> response = new HashMap<>();
         response.put("timestamp", LocalDateTime.now());
         response.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        response.put("message", "Une erreur est survenue: " + ex.getMessage());
+        response.put("message", "Une erreur interne est survenue");
 
         return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
     }
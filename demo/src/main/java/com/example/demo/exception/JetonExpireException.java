@@ -0,0 +1,11 @@
+package com.example.demo.exception;
+
+/**
+ * Exception levée lorsqu'un jeton de synchronisation désigne des modifications que le journal ne conserve plus
+ */
+public class JetonExpireException extends RuntimeException {
+
+    public JetonExpireException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.exception;
+
+/**
+ * Exception levée lorsqu'une requête est invalide : son message s'adresse au client et lui est renvoyé avec un 400.
+ * Les autres IllegalArgumentException, levées par les bibliothèques ou par erreur de programmation, restent des 500.
+ */
+public class RequeteInvalideException extends IllegalArgumentException {
+
+    public RequeteInvalideException(String message) {
+        super(message);
+    }
+
+    public RequeteInvalideException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.exception;
+
+/**
+ * Exception levée lorsqu'une ressource partagée reste saturée au-delà du délai d'attente autorisé
+ */
+public class SurchargeException extends RuntimeException {
+
+    public SurchargeException(String message) {
+        super(message);
+    }
+}
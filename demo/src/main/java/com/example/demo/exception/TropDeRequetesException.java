@@ -0,0 +1,18 @@
+package com.example.demo.exception;
+
+/**
+ * Exception levée lorsqu'un client dépasse le débit autorisé : il peut réessayer après le délai indiqué
+ */
+public class TropDeRequetesException extends RuntimeException {
+
+    private final long attenteSecondes;
+
+    public TropDeRequetesException(String message, long attenteSecondes) {
+        super(message);
+        this.attenteSecondes = attenteSecondes;
+    }
+
+    public long getAttenteSecondes() {
+        return attenteSecondes;
+    }
+}
@@ -13,7 +13,13 @@ import java.time.LocalDateTime;
  * Classe modèle représentant un événement dans l'agenda
  */
 @Entity
-@Table(name = "evenements")
+@Table(name = "evenements", indexes = {
+        @Index(name = "idx_evenements_user_modification", columnList = "user_id, date_modification"),
+        @Index(name = "idx_evenements_user_debut", columnList = "user_id, date_debut"),
+        @Index(name = "idx_evenements_user_fin", columnList = "user_id, date_fin"),
+        @Index(name = "idx_evenements_user_regle", columnList = "user_id, regle_recurrence"),
+        @Index(name = "idx_evenements_serie", columnList = "serie_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -50,6 +56,36 @@ public class Evenement {
     @Column(name = "est_journee_entiere")
     private boolean estJourneeEntiere = false;
     
+    // Règle RRULE canonique (RFC 5545) si l'événement est une série récurrente
+    @Column(name = "regle_recurrence")
+    private String regleRecurrence;
+    
+    // Débuts des occurrences exclues de la série (EXDATE), au format ISO, triés, sans doublon et séparés
+    // par des virgules ; le service en limite le nombre pour tenir dans la colonne
+    @Column(name = "exceptions_recurrence", length = 4000)
+    private String exceptionsRecurrence;
+    
+    // Fin de la dernière occurrence, calculée à l'écriture ; null pour une série sans fin
+    @Column(name = "fin_recurrence")
+    private LocalDateTime finRecurrence;
+    
+    // Série dont cet événement remplace une occurrence, et début d'origine de cette occurrence
+    @Column(name = "serie_id")
+    private Long serieId;
+    
+    @Column(name = "occurrence_originale")
+    private LocalDateTime occurrenceOriginale;
+    
+    // Horodatage de la dernière écriture, renseigné explicitement par le service
+    // car les mises à jour et imports en masse contournent le cycle de vie JPA
+    @Column(name = "date_modification")
+    private LocalDateTime dateModification;
+
+    // Verrouillage optimiste : incrémentée à chaque écriture, y compris par la mise à jour en une requête
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
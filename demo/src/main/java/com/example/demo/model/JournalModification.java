@@ -0,0 +1,47 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrée du journal des modifications d'événements, écrite dans la même transaction que la modification.
+ * L'identifiant, croissant, sert de jeton de synchronisation aux clients hors ligne.
+ */
+@Entity
+@Table(name = "journal_modifications", indexes = {
+        @Index(name = "idx_journal_user", columnList = "user_id, id"),
+        @Index(name = "idx_journal_date", columnList = "date_modification")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalModification {
+
+    public enum Type { MODIFICATION, SUPPRESSION }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Sans clé étrangère : le journal survit aux événements et ne ralentit pas leur suppression
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "evenement_id", nullable = false)
+    private Long evenementId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 12)
+    private Type type;
+
+    @Column(name = "date_modification", nullable = false)
+    private LocalDateTime dateModification;
+
+    public JournalModification(Long userId, Long evenementId, Type type, LocalDateTime dateModification) {
+        this(null, userId, evenementId, type, dateModification);
+    }
+}
@@ -7,11 +7,24 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.util.HashSet;
 import java.util.Set;
 
+/**
+ * Utilisateur, avec ses rôles, conservé dans le cache de second niveau d'Hibernate :
+ * il est lu à chaque authentification et ne change presque jamais.
+ * Le nom d'utilisateur est l'identifiant naturel, résolu lui aussi par le cache.
+ * Les régions sont dimensionnées dans application.conf.
+ */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "utilisateurs")
+@NaturalIdCache(region = "utilisateurs-par-nom")
 @Table(name = "users", 
        uniqueConstraints = {
            @UniqueConstraint(columnNames = "username"),
@@ -25,6 +38,7 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId
     @NotBlank
     @Size(max = 20)
     private String username;
@@ -39,9 +53,14 @@ public class User {
     private String password;
 
     @ElementCollection(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "utilisateurs-roles")
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "role")
     private Set<String> roles = new HashSet<>();
+
+    // Incrémentée pour révoquer tous les tokens JWT émis jusque-là
+    @Column(name = "version_jeton", nullable = false)
+    private long versionJeton;
     
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Evenement> evenements = new HashSet<>();
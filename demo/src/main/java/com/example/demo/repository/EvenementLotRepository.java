@@ -0,0 +1,122 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Evenement;
+import com.example.demo.model.JournalModification;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Insertion en masse des événements, et de leurs entrées du journal des modifications, par lots JDBC.
+ * Hibernate désactive le regroupement des INSERT avec GenerationType.IDENTITY,
+ * on passe donc directement par JdbcTemplate pour les imports volumineux.
+ */
+@Repository
+public class EvenementLotRepository {
+
+    private static final String INSERTION = "INSERT INTO evenements " +
+            "(titre, description, date_debut, date_fin, couleur_fond, couleur_texte, lieu, est_journee_entiere, " +
+            "regle_recurrence, exceptions_recurrence, fin_recurrence, serie_id, occurrence_originale, " +
+            "date_modification, user_id, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String JOURNALISATION = "INSERT INTO journal_modifications " +
+            "(user_id, evenement_id, type, date_modification) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EvenementLotRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insère les événements en un seul lot JDBC et renseigne leurs identifiants générés
+     * @param evenements Les événements à insérer, sans id
+     */
+    public void insererEnLot(List<Evenement> evenements) {
+        KeyHolder cles = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connexion -> connexion.prepareStatement(INSERTION, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Evenement evenement = evenements.get(i);
+                        ps.setString(1, evenement.getTitre());
+                        ps.setString(2, evenement.getDescription());
+                        ps.setTimestamp(3, Timestamp.valueOf(evenement.getDateDebut()));
+                        ps.setTimestamp(4, Timestamp.valueOf(evenement.getDateFin()));
+                        ps.setString(5, evenement.getCouleurFond());
+                        ps.setString(6, evenement.getCouleurTexte());
+                        ps.setString(7, evenement.getLieu());
+                        ps.setBoolean(8, evenement.isEstJourneeEntiere());
+                        ps.setString(9, evenement.getRegleRecurrence());
+                        ps.setString(10, evenement.getExceptionsRecurrence());
+                        ps.setTimestamp(11, horodatage(evenement.getFinRecurrence()));
+                        if (evenement.getSerieId() != null) {
+                            ps.setLong(12, evenement.getSerieId());
+                        } else {
+                            ps.setNull(12, Types.BIGINT);
+                        }
+                        ps.setTimestamp(13, horodatage(evenement.getOccurrenceOriginale()));
+                        ps.setTimestamp(14, horodatage(evenement.getDateModification()));
+                        if (evenement.getUser() != null) {
+                            ps.setLong(15, evenement.getUser().getId());
+                        } else {
+                            ps.setNull(15, Types.BIGINT);
+                        }
+                        ps.setLong(16, evenement.getVersion());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return evenements.size();
+                    }
+                },
+                cles);
+
+        List<Map<String, Object>> clesGenerees = cles.getKeyList();
+        for (int i = 0; i < evenements.size() && i < clesGenerees.size(); i++) {
+            Object id = clesGenerees.get(i).values().iterator().next();
+            evenements.get(i).setId(((Number) id).longValue());
+        }
+    }
+
+    /**
+     * Inscrit au journal des modifications, en un seul lot JDBC, des événements créés, modifiés ou supprimés
+     * @param userId ID de l'utilisateur propriétaire
+     * @param ids Identifiants des événements
+     * @param type Type de la modification
+     * @param date Date de la modification
+     */
+    public void journaliserEnLot(Long userId, List<Long> ids, JournalModification.Type type, LocalDateTime date) {
+        Timestamp instant = Timestamp.valueOf(date);
+        jdbcTemplate.batchUpdate(JOURNALISATION, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, userId);
+                ps.setLong(2, ids.get(i));
+                ps.setString(3, type.name());
+                ps.setTimestamp(4, instant);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+    }
+
+    private static Timestamp horodatage(LocalDateTime date) {
+        return date == null ? null : Timestamp.valueOf(date);
+    }
+}
@@ -1,65 +1,319 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.EvenementDTO;
 import com.example.demo.model.Evenement;
-import com.example.demo.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
- * Repository pour l'accès aux données des événements
+ * Repository pour l'accès aux données des événements.
+ * Les lectures construisent directement des EvenementDTO : aucune entité n'est chargée dans le contexte
+ * de persistance, ni surveillée à la fin de la transaction, et user_id est lu sans passer par l'utilisateur.
  */
 @Repository
 public interface EvenementRepository extends JpaRepository<Evenement, Long> {
     
     /**
-     * Trouve tous les événements qui se déroulent dans une plage de dates
+     * Nombre de lignes lues à la fois par les flux. Avec useCursorFetch=true dans l'URL JDBC, MySQL ouvre
+     * un curseur côté serveur et ne transmet que ce nombre de lignes par aller-retour ; sans cette option,
+     * le pilote charge tout le résultat en mémoire quelle que soit la valeur.
+     */
+    String TAILLE_LOT_FLUX = "500";
+    
+    /**
+     * Expression constructeur commune aux lectures, à compléter par la clause WHERE
+     */
+    String SELECT_DTO = "SELECT new com.example.demo.dto.EvenementDTO(e.id, e.titre, e.description, " +
+           "e.dateDebut, e.dateFin, e.couleurFond, e.couleurTexte, e.lieu, e.estJourneeEntiere, " +
+           "e.regleRecurrence, e.exceptionsRecurrence, e.finRecurrence, e.serieId, e.occurrenceOriginale, " +
+           "e.dateModification, e.user.id, e.version) FROM Evenement e ";
+    
+    /**
+     * Trouve un événement par son ID
+     * @param id ID de l'événement
+     * @return L'événement, ou vide s'il n'existe pas
+     */
+    @Query(SELECT_DTO + "WHERE e.id = ?1")
+    Optional<EvenementDTO> findDTOById(Long id);
+    
+    /**
+     * Trouve tous les événements
+     * @return Liste de tous les événements
+     */
+    @Query(SELECT_DTO)
+    List<EvenementDTO> findAllDTO();
+    
+    /**
+     * Trouve les événements d'identifiants donnés, dans un ordre quelconque
+     * @param ids Identifiants des événements
+     * @return Liste des événements existants parmi ces identifiants
+     */
+    @Query(SELECT_DTO + "WHERE e.id IN ?1")
+    List<EvenementDTO> findDTOParIds(Collection<Long> ids);
+    
+    /**
+     * Durée du plus long événement non récurrent enregistré, qui borne le parcours des requêtes par plage
+     * @return La durée en secondes, ou null si aucun événement non récurrent n'existe
+     */
+    @Query("SELECT MAX((e.dateFin - e.dateDebut) by second) FROM Evenement e WHERE e.regleRecurrence IS NULL")
+    Long findDureeMaxPonctuelsSecondes();
+    
+    /**
+     * Trouve les événements non récurrents qui chevauchent une plage de dates, bornes incluses.
+     * Aucun événement ne durant plus que le plus long enregistré, seuls les débuts compris entre
+     * debutMin (début de la plage moins cette durée) et la fin de la plage sont parcourus.
      * @param debut Date de début de la plage
      * @param fin Date de fin de la plage
+     * @param debutMin Début au plus tôt d'un événement pouvant atteindre la plage
      * @return Liste des événements dans cette plage
      */
-    @Query("SELECT e FROM Evenement e WHERE " +
-           "(e.dateDebut BETWEEN ?1 AND ?2) OR " +
-           "(e.dateFin BETWEEN ?1 AND ?2) OR " +
-           "(e.dateDebut <= ?1 AND e.dateFin >= ?2)")
-    List<Evenement> findByDateDebutAndDateFin(LocalDateTime debut, LocalDateTime fin);
+    @Query(SELECT_DTO + "WHERE e.regleRecurrence IS NULL AND " +
+           "e.dateDebut BETWEEN ?3 AND ?2 AND e.dateFin >= ?1")
+    List<EvenementDTO> findPonctuelsParPlage(LocalDateTime debut, LocalDateTime fin, LocalDateTime debutMin);
     
     /**
-     * Recherche d'événements par mot clé dans le titre ou la description
-     * @param motCle Mot clé à rechercher
-     * @return Liste des événements correspondants
+     * Trouve les séries récurrentes susceptibles d'avoir une occurrence dans une plage de dates
+     * @param debut Date de début de la plage
+     * @param fin Date de fin de la plage
+     * @return Liste des séries dont la période de récurrence chevauche la plage
+     */
+    @Query(SELECT_DTO + "WHERE e.regleRecurrence IS NOT NULL AND e.dateDebut <= ?2 AND " +
+           "(e.finRecurrence IS NULL OR e.finRecurrence >= ?1)")
+    List<EvenementDTO> findSeriesParPlage(LocalDateTime debut, LocalDateTime fin);
+    
+    /**
+     * Met à jour un événement en une seule requête, uniquement s'il appartient à l'utilisateur
+     * et, si une version est attendue, s'il n'a pas été modifié depuis. La version est incrémentée.
+     * @param evenement Les nouvelles données, id compris
+     * @param userId ID de l'utilisateur propriétaire
+     * @param versionAttendue Version lue par le client, ou null pour écraser sans contrôle
+     * @return Le nombre de lignes modifiées (0 si l'événement n'existe pas, appartient à un autre utilisateur
+     *         ou a changé de version)
      */
-    List<Evenement> findByTitreContainingOrDescriptionContaining(String motCle, String memeMotCle);
+    @Modifying
+    @Query("UPDATE Evenement e SET e.titre = :#{#evenement.titre}, e.description = :#{#evenement.description}, " +
+           "e.dateDebut = :#{#evenement.dateDebut}, e.dateFin = :#{#evenement.dateFin}, " +
+           "e.couleurFond = :#{#evenement.couleurFond}, e.couleurTexte = :#{#evenement.couleurTexte}, " +
+           "e.lieu = :#{#evenement.lieu}, e.estJourneeEntiere = :#{#evenement.estJourneeEntiere}, " +
+           "e.regleRecurrence = :#{#evenement.regleRecurrence}, " +
+           "e.exceptionsRecurrence = :#{#evenement.exceptionsRecurrence}, " +
+           "e.finRecurrence = :#{#evenement.finRecurrence}, " +
+           "e.dateModification = :#{#evenement.dateModification}, e.version = e.version + 1 " +
+           "WHERE e.id = :#{#evenement.id} AND e.user.id = :userId " +
+           "AND (:versionAttendue IS NULL OR e.version = :versionAttendue)")
+    int mettreAJourParUtilisateur(@Param("evenement") Evenement evenement, @Param("userId") Long userId,
+                                  @Param("versionAttendue") Long versionAttendue);
+    
+    /**
+     * Identifiants supprimés par supprimerParUtilisateur : l'événement et, pour une série, ses occurrences modifiées
+     * @param id ID de l'événement
+     * @param userId ID de l'utilisateur propriétaire
+     * @return Les identifiants, vide si l'événement n'existe pas ou appartient à un autre utilisateur
+     */
+    @Query("SELECT e.id FROM Evenement e WHERE (e.id = ?1 OR e.serieId = ?1) AND e.user.id = ?2")
+    List<Long> findIdsSupprimables(Long id, Long userId);
+    
+    /**
+     * Supprime un événement en une seule requête, uniquement s'il appartient à l'utilisateur.
+     * La suppression d'une série emporte les occurrences modifiées qui lui sont rattachées.
+     * @param id ID de l'événement
+     * @param userId ID de l'utilisateur propriétaire
+     * @return Le nombre de lignes supprimées (0 si l'événement n'existe pas ou appartient à un autre utilisateur)
+     */
+    @Modifying
+    @Query("DELETE FROM Evenement e WHERE (e.id = ?1 OR e.serieId = ?1) AND e.user.id = ?2")
+    int supprimerParUtilisateur(Long id, Long userId);
+    
+    /**
+     * Lit la version d'un événement, uniquement s'il appartient à l'utilisateur
+     * @param id ID de l'événement
+     * @param userId ID de l'utilisateur propriétaire
+     * @return La version, ou vide si l'événement n'existe pas ou appartient à un autre utilisateur
+     */
+    @Query("SELECT e.version FROM Evenement e WHERE e.id = ?1 AND e.user.id = ?2")
+    Optional<Long> findVersionParUtilisateur(Long id, Long userId);
+    
+    /**
+     * Trouve un événement uniquement s'il appartient à l'utilisateur
+     * @param id ID de l'événement
+     * @param userId ID de l'utilisateur propriétaire
+     * @return L'événement, ou vide s'il n'existe pas ou appartient à un autre utilisateur
+     */
+    Optional<Evenement> findByIdAndUserId(Long id, Long userId);
     
     /**
      * Trouve tous les événements d'un utilisateur
-     * @param user L'utilisateur propriétaire des événements
+     * @param userId ID de l'utilisateur propriétaire des événements
      * @return Liste des événements de l'utilisateur
      */
-    List<Evenement> findByUser(User user);
+    @Query(SELECT_DTO + "WHERE e.user.id = ?1")
+    List<EvenementDTO> findDTOParUtilisateur(Long userId);
     
     /**
-     * Trouve tous les événements d'un utilisateur dans une plage de dates
-     * @param user L'utilisateur propriétaire des événements
+     * Trouve les événements non récurrents d'un utilisateur qui chevauchent une plage de dates, bornes incluses.
+     * La borne debutMin limite le parcours de l'index (user_id, date_debut) aux événements pouvant atteindre la plage.
+     * @param userId ID de l'utilisateur propriétaire des événements
      * @param debut Date de début de la plage
      * @param fin Date de fin de la plage
+     * @param debutMin Début au plus tôt d'un événement pouvant atteindre la plage
      * @return Liste des événements de l'utilisateur dans cette plage
      */
-    @Query("SELECT e FROM Evenement e WHERE e.user = ?1 AND " +
-           "((e.dateDebut BETWEEN ?2 AND ?3) OR " +
-           "(e.dateFin BETWEEN ?2 AND ?3) OR " +
-           "(e.dateDebut <= ?2 AND e.dateFin >= ?3))")
-    List<Evenement> findByUserAndDateDebutAndDateFin(User user, LocalDateTime debut, LocalDateTime fin);
+    @Query(SELECT_DTO + "WHERE e.user.id = ?1 AND e.regleRecurrence IS NULL AND " +
+           "e.dateDebut BETWEEN ?4 AND ?3 AND e.dateFin >= ?2")
+    List<EvenementDTO> findPonctuelsParUtilisateurEtPlage(Long userId, LocalDateTime debut, LocalDateTime fin,
+                                                          LocalDateTime debutMin);
     
     /**
-     * Recherche d'événements d'un utilisateur par mot clé dans le titre ou la description
-     * @param user L'utilisateur propriétaire des événements
+     * Trouve les séries récurrentes d'un utilisateur susceptibles d'avoir une occurrence dans une plage de dates,
+     * lues sur l'index (user_id, regle_recurrence)
+     * @param userId ID de l'utilisateur propriétaire des séries
+     * @param debut Date de début de la plage
+     * @param fin Date de fin de la plage
+     * @return Liste des séries de l'utilisateur dont la période de récurrence chevauche la plage
+     */
+    @Query(SELECT_DTO + "WHERE e.user.id = ?1 AND e.regleRecurrence IS NOT NULL AND " +
+           "e.dateDebut <= ?3 AND (e.finRecurrence IS NULL OR e.finRecurrence >= ?2)")
+    List<EvenementDTO> findSeriesParUtilisateurEtPlage(Long userId, LocalDateTime debut, LocalDateTime fin);
+    
+    /**
+     * Recherche par mot clé dans le titre ou la description, sans classement par pertinence
+     * @param motCle Mot clé à rechercher
+     * @param pageable Page demandée
+     * @return Identifiants des événements correspondants, du plus récent au plus ancien
+     */
+    @Query("SELECT e.id FROM Evenement e WHERE " +
+           "e.titre LIKE %?#{escape([0])}% ESCAPE ?#{escapeCharacter()} OR " +
+           "e.description LIKE %?#{escape([0])}% ESCAPE ?#{escapeCharacter()} " +
+           "ORDER BY e.dateDebut DESC, e.id DESC")
+    List<Long> findIdsParMotCle(String motCle, Pageable pageable);
+    
+    /**
+     * Recherche parmi les événements d'un utilisateur par mot clé dans le titre ou la description
+     * @param userId ID de l'utilisateur
      * @param motCle Mot clé à rechercher
-     * @return Liste des événements correspondants
+     * @param pageable Page demandée
+     * @return Identifiants des événements correspondants, du plus récent au plus ancien
+     */
+    @Query("SELECT e.id FROM Evenement e WHERE e.user.id = ?1 AND (" +
+           "e.titre LIKE %?#{escape([1])}% ESCAPE ?#{escapeCharacter()} OR " +
+           "e.description LIKE %?#{escape([1])}% ESCAPE ?#{escapeCharacter()}) " +
+           "ORDER BY e.dateDebut DESC, e.id DESC")
+    List<Long> findIdsParUtilisateurEtMotCle(Long userId, String motCle, Pageable pageable);
+    
+    /**
+     * Première page des événements d'un utilisateur, triés par date de début puis par id
+     * @param userId ID de l'utilisateur
+     * @param limit Nombre maximal d'événements
+     * @return Liste des événements de la page
+     */
+    @Query(SELECT_DTO + "WHERE e.user.id = ?1 ORDER BY e.dateDebut, e.id")
+    List<EvenementDTO> findByUserIdOrderByDateDebutAscIdAsc(Long userId, Limit limit);
+    
+    /**
+     * Page suivante des événements d'un utilisateur, après la position (dateDebut, id) du curseur
+     * @param userId ID de l'utilisateur
+     * @param dateDebut Date de début du dernier événement de la page précédente
+     * @param id ID du dernier événement de la page précédente
+     * @param limit Nombre maximal d'événements
+     * @return Liste des événements de la page
+     */
+    @Query(SELECT_DTO + "WHERE e.user.id = ?1 AND " +
+           "(e.dateDebut > ?2 OR (e.dateDebut = ?2 AND e.id > ?3)) " +
+           "ORDER BY e.dateDebut, e.id")
+    List<EvenementDTO> findPageSuivanteParUtilisateur(Long userId, LocalDateTime dateDebut, Long id, Limit limit);
+    
+    /**
+     * Première page de tous les événements, triés par date de début puis par id
+     * @param limit Nombre maximal d'événements
+     * @return Liste des événements de la page
+     */
+    @Query(SELECT_DTO + "ORDER BY e.dateDebut, e.id")
+    List<EvenementDTO> findAllByOrderByDateDebutAscIdAsc(Limit limit);
+    
+    /**
+     * Page suivante de tous les événements, après la position (dateDebut, id) du curseur
+     * @param dateDebut Date de début du dernier événement de la page précédente
+     * @param id ID du dernier événement de la page précédente
+     * @param limit Nombre maximal d'événements
+     * @return Liste des événements de la page
+     */
+    @Query(SELECT_DTO + "WHERE " +
+           "e.dateDebut > ?1 OR (e.dateDebut = ?1 AND e.id > ?2) " +
+           "ORDER BY e.dateDebut, e.id")
+    List<EvenementDTO> findPageSuivante(LocalDateTime dateDebut, Long id, Limit limit);
+    
+    /**
+     * Parcourt les événements d'un utilisateur sans les charger tous en mémoire.
+     * Le flux doit être consommé dans une transaction puis fermé.
+     * @param userId ID de l'utilisateur
+     * @return Flux des événements de l'utilisateur
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TAILLE_LOT_FLUX))
+    @Query(SELECT_DTO + "WHERE e.user.id = ?1 ORDER BY e.dateDebut, e.id")
+    Stream<EvenementDTO> streamByUserId(Long userId);
+    
+    /**
+     * Parcourt tous les événements sans les charger tous en mémoire.
+     * Le flux doit être consommé dans une transaction puis fermé.
+     * @return Flux de tous les événements
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TAILLE_LOT_FLUX))
+    @Query(SELECT_DTO + "ORDER BY e.dateDebut, e.id")
+    Stream<EvenementDTO> streamAll();
+    
+    /**
+     * Parcourt le texte indexable de tous les événements, sans charger d'entités.
+     * Le flux doit être consommé dans une transaction puis fermé.
+     * @return Flux des textes de tous les événements
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TAILLE_LOT_FLUX))
+    @Query("SELECT e.id AS id, e.user.id AS userId, e.titre AS titre, e.description AS description " +
+           "FROM Evenement e")
+    Stream<TexteEvenement> streamTextes();
+    
+    /**
+     * Calcule la version de l'agenda d'un utilisateur sans charger ses événements :
+     * nombre d'événements et date de la dernière modification, lus sur l'index (user_id, date_modification)
+     * @param userId ID de l'utilisateur
+     * @return La version de l'agenda
+     */
+    @Query("SELECT COUNT(e) AS nombre, MAX(e.dateModification) AS derniereModification " +
+           "FROM Evenement e WHERE e.user.id = :userId")
+    VersionAgenda findVersionAgenda(@Param("userId") Long userId);
+    
+    /**
+     * Projection des champs utiles à l'indexation plein texte
+     */
+    interface TexteEvenement {
+        Long getId();
+        
+        Long getUserId();
+        
+        String getTitre();
+        
+        String getDescription();
+    }
+    
+    /**
+     * Projection de la version de l'agenda d'un utilisateur
      */
-    List<Evenement> findByUserAndTitreContainingOrUserAndDescriptionContaining(
-        User user, String titreCle, User sameUser, String descriptionCle);
-} 
\ No newline at end of file
+    interface VersionAgenda {
+        long getNombre();
+        
+        LocalDateTime getDerniereModification();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.JournalModification;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface JournalModificationRepository extends JpaRepository<JournalModification, Long> {
+
+    /**
+     * Lit les entrées du journal d'un utilisateur dans un intervalle de jetons, dans l'ordre des modifications,
+     * en parcourant l'index (user_id, id)
+     * @param userId ID de l'utilisateur
+     * @param apres Jeton exclu
+     * @param jusqua Jeton inclus
+     * @param limite Nombre maximal d'entrées
+     */
+    @Query("SELECT j FROM JournalModification j WHERE j.userId = ?1 AND j.id > ?2 AND j.id <= ?3 ORDER BY j.id")
+    List<JournalModification> findParUtilisateurEntre(Long userId, long apres, long jusqua, Limit limite);
+
+    /**
+     * Identifiant de la dernière entrée écrite avant une date, lu sur l'index des dates
+     */
+    @Query("SELECT j.id FROM JournalModification j WHERE j.dateModification < ?1 " +
+           "ORDER BY j.dateModification DESC, j.id DESC")
+    List<Long> findDernierIdAvant(LocalDateTime date, Limit limite);
+
+    /**
+     * Identifiant de la plus ancienne entrée conservée par la compaction
+     */
+    @Query("SELECT MIN(j.id) FROM JournalModification j")
+    Optional<Long> findPremierId();
+
+    /**
+     * Supprime les entrées d'un intervalle d'identifiants, dans sa propre transaction
+     * @return Le nombre d'entrées supprimées
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM JournalModification j WHERE j.id >= ?1 AND j.id < ?2")
+    int supprimerEntre(long debut, long fin);
+}
@@ -0,0 +1,18 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.User;
+
+import java.util.Optional;
+
+/**
+ * Recherche d'un utilisateur par son identifiant naturel, servie par le cache de second niveau
+ */
+public interface RechercheUtilisateurParNom {
+
+    /**
+     * Charge un utilisateur par son nom. Le nom est d'abord résolu en identifiant par le cache
+     * des identifiants naturels, puis l'utilisateur et ses rôles sont lus dans le cache des entités ;
+     * la base n'est interrogée qu'en cas d'absence.
+     */
+    Optional<User> findByUsername(String username);
+}
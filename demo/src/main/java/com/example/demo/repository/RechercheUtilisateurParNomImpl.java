@@ -0,0 +1,28 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Implémentation du fragment {@link RechercheUtilisateurParNom} de {@link UserRepository}.
+ * Une requête dérivée (WHERE username = ?) interrogerait la base à chaque appel : seul le chargement
+ * par identifiant naturel de la session Hibernate passe par le cache.
+ */
+class RechercheUtilisateurParNomImpl implements RechercheUtilisateurParNom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByUsername(String username) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(username);
+    }
+}
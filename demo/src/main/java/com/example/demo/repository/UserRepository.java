@@ -2,15 +2,40 @@ package com.example.demo.repository;
 
 import com.example.demo.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByUsername(String username);
-    
+public interface UserRepository extends JpaRepository<User, Long>, RechercheUtilisateurParNom {
+
     Boolean existsByUsername(String username);
     
     Boolean existsByEmail(String email);
+
+    /**
+     * Identifiants existants parmi ceux donnés, sans charger les utilisateurs
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id IN ?1")
+    List<Long> findIdsExistants(Collection<Long> ids);
+
+    /**
+     * Version courante des tokens JWT d'un utilisateur, sans charger l'utilisateur ni ses rôles
+     */
+    @Query("SELECT u.versionJeton FROM User u WHERE u.id = ?1")
+    Optional<Long> findVersionJetonById(Long id);
+
+    /**
+     * Révoque tous les tokens émis pour un utilisateur en incrémentant leur version
+     * @return Le nombre d'utilisateurs modifiés, 0 si l'utilisateur n'existe pas
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.versionJeton = u.versionJeton + 1 WHERE u.id = ?1")
+    int incrementerVersionJeton(Long id);
 } 
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.example.demo.security.jwt;
+
+import com.example.demo.service.impl.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache borné des tokens JWT déjà validés, indexé par l'empreinte SHA-256 du token.
+ * Un succès évite l'analyse cryptographique du token et le chargement de l'utilisateur en base.
+ * La durée de vie d'une entrée ne dépasse jamais l'expiration du token.
+ * Les utilisateurs y sont conservés sans leur mot de passe.
+ */
+@Component
+public class CacheJetonsValides {
+
+    @Value("${ajenda.app.jwtCache.taille:10000}")
+    private long taille;
+
+    @Value("${ajenda.app.jwtCache.ttlMs:300000}")
+    private long ttlMaxMs;
+
+    private final MeterRegistry meterRegistry;
+    private final Ticker horloge;
+    private final LongSupplier horlogeMs;
+
+    private Cache<String, JetonValide> cache;
+
+    @Autowired
+    public CacheJetonsValides(MeterRegistry meterRegistry) {
+        this(meterRegistry, Ticker.systemTicker(), System::currentTimeMillis);
+    }
+
+    /**
+     * @param horloge Horloge d'expiration des entrées
+     * @param horlogeMs Heure courante en millisecondes, comparée à l'expiration des tokens
+     */
+    CacheJetonsValides(MeterRegistry meterRegistry, Ticker horloge, LongSupplier horlogeMs) {
+        this.meterRegistry = meterRegistry;
+        this.horloge = horloge;
+        this.horlogeMs = horlogeMs;
+    }
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(taille)
+                .expireAfter(new ExpirationJeton())
+                .ticker(horloge)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "ajenda.jwt.cache");
+    }
+
+    /**
+     * Retourne l'utilisateur associé à un token déjà validé, ou null s'il n'est pas en cache
+     */
+    public UserDetailsImpl obtenir(String token) {
+        JetonValide jeton = cache.getIfPresent(empreinte(token));
+        if (jeton == null || jeton.expirationMs() <= horlogeMs.getAsLong()) {
+            return null;
+        }
+        return jeton.utilisateur();
+    }
+
+    /**
+     * Enregistre un token validé avec l'utilisateur qu'il authentifie
+     * @return L'utilisateur tel qu'il est conservé, sans mot de passe
+     */
+    public UserDetailsImpl enregistrer(String token, UserDetailsImpl utilisateur, Date expiration) {
+        UserDetailsImpl conserve = utilisateur.sansMotDePasse();
+        cache.put(empreinte(token), new JetonValide(conserve, expiration.getTime()));
+        return conserve;
+    }
+
+    /**
+     * Vide le cache, par exemple après une modification des rôles
+     */
+    public void vider() {
+        cache.invalidateAll();
+    }
+
+    private static String empreinte(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private record JetonValide(UserDetailsImpl utilisateur, long expirationMs) {
+    }
+
+    private class ExpirationJeton implements Expiry<String, JetonValide> {
+
+        @Override
+        public long expireAfterCreate(String cle, JetonValide jeton, long maintenant) {
+            long restantMs = Math.min(ttlMaxMs, jeton.expirationMs() - horlogeMs.getAsLong());
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, restantMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(String cle, JetonValide jeton, long maintenant, long dureeActuelle) {
+            return expireAfterCreate(cle, jeton, maintenant);
+        }
+
+        @Override
+        public long expireAfterRead(String cle, JetonValide jeton, long maintenant, long dureeActuelle) {
+            return dureeActuelle;
+        }
+    }
+}
@@ -5,37 +5,98 @@ import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    static final String CLAIM_ID = "uid";
+    static final String CLAIM_EMAIL = "email";
+    static final String CLAIM_ROLES = "roles";
+    static final String CLAIM_VERSION = "ver";
+
     @Value("${ajenda.app.jwtSecret}")
     private String jwtSecret;
 
     @Value("${ajenda.app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
+    // Le token porte l'id, l'email et les rôles : le filtre n'a plus besoin de charger l'utilisateur
+    @Value("${ajenda.app.jwtClaims.actif:false}")
+    private boolean claimsUtilisateur;
+
+    private Key cle;
+
+    private JwtParser parser;
+
+    private final Timer generations;
+    private final Timer validationsAcceptees;
+    private final Timer validationsRefusees;
+
+    public JwtUtils(MeterRegistry meterRegistry) {
+        this.generations = Timer.builder("ajenda.jwt")
+                .description("Génération et validation des tokens JWT")
+                .tag("operation", "generation")
+                .tag("resultat", "succes")
+                .register(meterRegistry);
+        this.validationsAcceptees = timerValidation(meterRegistry, "valide");
+        this.validationsRefusees = timerValidation(meterRegistry, "invalide");
+    }
+
+    private static Timer timerValidation(MeterRegistry meterRegistry, String resultat) {
+        return Timer.builder("ajenda.jwt")
+                .description("Génération et validation des tokens JWT")
+                .tag("operation", "validation")
+                .tag("resultat", resultat)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Décode la clé secrète et construit le parseur une seule fois au démarrage
+     */
+    @PostConstruct
+    public void init() {
+        cle = key();
+        parser = Jwts.parserBuilder()
+                .setSigningKey(cle)
+                .build();
+    }
+
     public String generateJwtToken(Authentication authentication) {
+        long debut = System.nanoTime();
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
-        logger.debug("Génération du token JWT pour l'utilisateur: {}", userPrincipal.getUsername());
-        
-        String token = Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
+                .claim(CLAIM_VERSION, userPrincipal.getVersionJeton());
+        if (claimsUtilisateur) {
+            builder.claim(CLAIM_ID, userPrincipal.getId())
+                    .claim(CLAIM_EMAIL, userPrincipal.getEmail())
+                    .claim(CLAIM_ROLES, userPrincipal.getAuthorities().stream()
+                            .map(GrantedAuthority::getAuthority)
+                            .toList());
+        }
+        String token = builder
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .signWith(cle, SignatureAlgorithm.HS256)
                 .compact();
-        
-        logger.debug("Token JWT généré avec succès");
+
+        generations.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
         return token;
     }
     
@@ -52,13 +113,10 @@ public class JwtUtils {
 
     public String getUserNameFromJwtToken(String token) {
         try {
-            String username = Jwts.parserBuilder()
-                    .setSigningKey(key())
-                    .build()
+            String username = parser
                     .parseClaimsJws(token)
                     .getBody()
                     .getSubject();
-            logger.debug("Nom d'utilisateur extrait du token JWT: {}", username);
             return username;
         } catch (Exception e) {
             logger.error("Erreur lors de l'extraction du nom d'utilisateur du token: {}", e.getMessage());
@@ -66,36 +124,73 @@ public class JwtUtils {
         }
     }
 
+    public boolean isClaimsUtilisateur() {
+        return claimsUtilisateur;
+    }
+
+    /**
+     * Version des tokens de l'utilisateur au moment de l'émission ; 0 pour un token émis sans version
+     */
+    public long getVersion(Claims claims) {
+        Number version = claims.get(CLAIM_VERSION, Number.class);
+        return version == null ? 0L : version.longValue();
+    }
+
+    /**
+     * Reconstruit l'utilisateur depuis les claims du token, sans accès à la base
+     * @return L'utilisateur, ou null si le token n'a pas été émis avec les claims utilisateur
+     */
+    public UserDetailsImpl construireUtilisateur(Claims claims) {
+        Number id = claims.get(CLAIM_ID, Number.class);
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        if (id == null || roles == null) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                .toList();
+        return new UserDetailsImpl(id.longValue(), claims.getSubject(), claims.get(CLAIM_EMAIL, String.class),
+                null, authorities, getVersion(claims));
+    }
+
     public boolean validateJwtToken(String authToken) {
+        return extraireClaims(authToken) != null;
+    }
+
+    /**
+     * Valide le token et retourne ses claims en une seule analyse
+     * @param authToken Le token JWT
+     * @return Les claims du token, ou null si le token est invalide ou expiré
+     */
+    public Claims extraireClaims(String authToken) {
+        long debut = System.nanoTime();
+        Claims claims = analyser(authToken);
+        Timer validations = claims != null ? validationsAcceptees : validationsRefusees;
+        validations.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+        return claims;
+    }
+
+    private Claims analyser(String authToken) {
         try {
             if (authToken == null) {
                 logger.error("Le token est null");
-                return false;
+                return null;
             }
-            
-            logger.debug("Validation du token JWT: {}", authToken.substring(0, Math.min(10, authToken.length())) + "...");
-            
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key())
-                    .build()
+
+            Claims claims = parser
                     .parseClaimsJws(authToken)
                     .getBody();
             
-            String subject = claims.getSubject();
-            Date issuedAt = claims.getIssuedAt();
             Date expiration = claims.getExpiration();
             Date now = new Date();
-            
-            logger.debug("Token JWT décodé: subject={}, issuedAt={}, expiration={}, currentTime={}", 
-                    subject, issuedAt, expiration, now);
-                    
+
             if (expiration.before(now)) {
                 logger.error("Le token est expiré: expiration={}, currentTime={}", expiration, now);
-                return false;
+                return null;
             }
-            
-            logger.debug("JWT token valide");
-            return true;
+
+            logger.debug("Token JWT valide pour l'utilisateur: {}", claims.getSubject());
+            return claims;
         } catch (SignatureException e) {
             logger.error("Signature JWT invalide: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -110,6 +205,6 @@ public class JwtUtils {
             logger.error("Erreur non gérée lors de la validation du token JWT: {}", e.getMessage(), e);
         }
 
-        return false;
+        return null;
     }
 } 
\ No newline at end of file
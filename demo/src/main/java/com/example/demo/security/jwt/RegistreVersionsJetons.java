@@ -0,0 +1,69 @@
+package com.example.demo.security.jwt;
+
+import com.example.demo.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Versions courantes des tokens JWT par utilisateur, chargées à la demande puis servies depuis la mémoire.
+ * Un token n'est accepté que si sa version est la version courante de son utilisateur :
+ * incrémenter la version révoque d'un coup tous les tokens déjà émis.
+ * Sur l'instance qui révoque, l'effet est immédiat ; les autres instances relisent la version
+ * au plus tard après ttlMs.
+ */
+@Component
+public class RegistreVersionsJetons {
+
+    // Version d'un utilisateur supprimé : ne correspond à aucun token
+    private static final long UTILISATEUR_INCONNU = -1L;
+
+    @Value("${ajenda.app.jwtVersions.taille:100000}")
+    private long taille;
+
+    @Value("${ajenda.app.jwtVersions.ttlMs:60000}")
+    private long ttlMs;
+
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    private LoadingCache<Long, Long> versions;
+
+    public RegistreVersionsJetons(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(taille)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build(userId -> userRepository.findVersionJetonById(userId).orElse(UTILISATEUR_INCONNU));
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "ajenda.jwt.versions");
+    }
+
+    /**
+     * Indique si un token de la version donnée est encore valide pour l'utilisateur
+     */
+    public boolean estActuelle(Long userId, long version) {
+        return userId != null && version != UTILISATEUR_INCONNU && versions.get(userId) == version;
+    }
+
+    /**
+     * Révoque tous les tokens émis pour l'utilisateur
+     * @return false si l'utilisateur n'existe pas
+     */
+    public boolean revoquer(Long userId) {
+        boolean revoque = userRepository.incrementerVersionJeton(userId) > 0;
+        versions.invalidate(userId);
+        return revoque;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.security.limitation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Filtre de limitation de débit par adresse IP, placé dans la chaîne de sécurité avant l'authentification JWT :
+ * une requête refusée répond 429 avec Retry-After sans atteindre le contrôleur.
+ * L'adresse est celle vue par le serveur : derrière un proxy, server.forward-headers-strategy
+ * doit être configuré pour retrouver celle du client.
+ */
+public class FiltreLimitationDebit extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(FiltreLimitationDebit.class);
+
+    private final PolitiquesLimitation politiques;
+    private final ObjectMapper objectMapper;
+
+    public FiltreLimitationDebit(PolitiquesLimitation politiques, ObjectMapper objectMapper) {
+        this.politiques = politiques;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !politiques.estActif() || HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        LimiteurDebit limiteur = politiques.pourRequete(request);
+        long attente = limiteur == null ? 0 : limiteur.consommer(request.getRemoteAddr());
+        if (attente == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        logger.debug("Requête refusée par la politique {} pour {}", limiteur.getNom(), request.getRemoteAddr());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                Long.toString(PolitiquesLimitation.secondesAvantNouvelEssai(attente)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("message", "Trop de requêtes, réessayer plus tard");
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.security.limitation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limiteur de débit par clé (adresse IP, nom d'utilisateur) : au plus capacite requêtes par periode,
+ * en rafale ou étalées. Chaque clé est un seau à jetons réduit à un seul AtomicLong, la date théorique
+ * de la prochaine requête (GCRA), mis à jour par compare-and-set sans verrou.
+ * Les clés sont conservées dans un cache Caffeine borné, segmenté pour les accès concurrents :
+ * une clé inactive pendant une période, dont le seau est de nouveau plein, est oubliée ;
+ * au-delà de tailleMax clés, les moins récentes le sont aussi.
+ */
+public class LimiteurDebit {
+
+    private final String nom;
+    private final long intervalleNanos;
+    private final long toleranceNanos;
+    private final Ticker horloge;
+    private final Cache<String, AtomicLong> dates;
+    private Counter refus;
+
+    /**
+     * @param nom Nom de la politique, repris dans les métriques
+     * @param capacite Nombre de requêtes acceptées en rafale, puis par période
+     * @param periode Durée de rechargement complet du seau
+     * @param tailleMax Nombre maximal de clés suivies
+     */
+    public LimiteurDebit(String nom, int capacite, Duration periode, long tailleMax) {
+        this(nom, capacite, periode, tailleMax, Ticker.systemTicker());
+    }
+
+    LimiteurDebit(String nom, int capacite, Duration periode, long tailleMax, Ticker horloge) {
+        if (capacite < 1 || periode.isNegative() || periode.isZero()) {
+            throw new IllegalArgumentException("Politique de limitation invalide: " + nom);
+        }
+        this.nom = nom;
+        this.intervalleNanos = periode.toNanos() / capacite;
+        this.toleranceNanos = periode.toNanos() - intervalleNanos;
+        this.horloge = horloge;
+        this.dates = Caffeine.newBuilder()
+                .maximumSize(tailleMax)
+                .expireAfterAccess(periode.toNanos(), TimeUnit.NANOSECONDS)
+                .ticker(horloge)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Enregistre les métriques du limiteur : clés suivies (cache ajenda.limiteur.nom) et requêtes refusées.
+     * Le nom de la politique est porté par le nom du cache : Prometheus exige les mêmes tags
+     * pour toutes les métriques cache.* de l'application.
+     */
+    public LimiteurDebit surveiller(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, dates, "ajenda.limiteur." + nom);
+        refus = Counter.builder("ajenda.limiteur.refus")
+                .description("Requêtes refusées par le limiteur de débit")
+                .tag("politique", nom)
+                .register(meterRegistry);
+        return this;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    /**
+     * Consomme un jeton pour la clé s'il en reste
+     * @return 0 si la requête est acceptée, sinon le délai en nanosecondes avant qu'elle puisse l'être
+     */
+    public long consommer(String cle) {
+        long maintenant = horloge.read();
+        AtomicLong date = dates.get(cle, c -> new AtomicLong(maintenant));
+        while (true) {
+            long prevue = date.get();
+            long debut = Math.max(prevue, maintenant);
+            long attente = debut - maintenant - toleranceNanos;
+            if (attente > 0) {
+                if (refus != null) {
+                    refus.increment();
+                }
+                return attente;
+            }
+            if (date.compareAndSet(prevue, debut + intervalleNanos)) {
+                return 0;
+            }
+        }
+    }
+}
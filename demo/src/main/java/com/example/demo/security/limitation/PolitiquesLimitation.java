@@ -0,0 +1,129 @@
+package com.example.demo.security.limitation;
+
+import com.example.demo.exception.TropDeRequetesException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Politiques de limitation de débit : par adresse IP sur la connexion, l'inscription et la recherche,
+ * et par nom d'utilisateur sur la connexion. La connexion vérifie un mot de passe BCrypt à chaque tentative :
+ * sans limite, quelques clients suffisent à saturer les processeurs de l'instance.
+ * Les compteurs sont locaux à l'instance : derrière un répartiteur, chaque limite vaut par instance.
+ */
+@Component
+public class PolitiquesLimitation {
+
+    @Value("${ajenda.app.limiteur.actif:true}")
+    private boolean actif;
+
+    @Value("${ajenda.app.limiteur.tailleMax:100000}")
+    private long tailleMax;
+
+    @Value("${ajenda.app.limiteur.connexion.capacite:10}")
+    private int capaciteConnexion;
+
+    @Value("${ajenda.app.limiteur.connexion.periodeSecondes:60}")
+    private long periodeConnexion;
+
+    @Value("${ajenda.app.limiteur.connexionParUtilisateur.capacite:5}")
+    private int capaciteConnexionParUtilisateur;
+
+    @Value("${ajenda.app.limiteur.connexionParUtilisateur.periodeSecondes:60}")
+    private long periodeConnexionParUtilisateur;
+
+    @Value("${ajenda.app.limiteur.inscription.capacite:5}")
+    private int capaciteInscription;
+
+    @Value("${ajenda.app.limiteur.inscription.periodeSecondes:600}")
+    private long periodeInscription;
+
+    @Value("${ajenda.app.limiteur.recherche.capacite:60}")
+    private int capaciteRecherche;
+
+    @Value("${ajenda.app.limiteur.recherche.periodeSecondes:60}")
+    private long periodeRecherche;
+
+    @Value("${ajenda.app.limiteur.connexion.chemins:/api/auth/signin}")
+    private Set<String> cheminsConnexion;
+
+    @Value("${ajenda.app.limiteur.inscription.chemins:/api/auth/signup}")
+    private Set<String> cheminsInscription;
+
+    @Value("${ajenda.app.limiteur.recherche.chemins:/api/evenements/recherche,/api/evenements/mes-evenements/recherche}")
+    private Set<String> cheminsRecherche;
+
+    private final MeterRegistry meterRegistry;
+
+    private List<Politique> parChemin;
+    private LimiteurDebit connexionParUtilisateur;
+
+    public PolitiquesLimitation(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        parChemin = List.of(
+                new Politique(cheminsConnexion, limiteur("connexion", capaciteConnexion, periodeConnexion)),
+                new Politique(cheminsInscription, limiteur("inscription", capaciteInscription, periodeInscription)),
+                new Politique(cheminsRecherche, limiteur("recherche", capaciteRecherche, periodeRecherche)));
+        connexionParUtilisateur = limiteur("connexionParUtilisateur",
+                capaciteConnexionParUtilisateur, periodeConnexionParUtilisateur);
+    }
+
+    public boolean estActif() {
+        return actif;
+    }
+
+    /**
+     * Limiteur par adresse IP qui s'applique à la requête
+     * @return Le limiteur, ou null si aucune politique ne couvre son chemin
+     */
+    public LimiteurDebit pourRequete(HttpServletRequest request) {
+        String chemin = request.getRequestURI().substring(request.getContextPath().length());
+        for (Politique politique : parChemin) {
+            if (politique.chemins.contains(chemin)) {
+                return politique.limiteur;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compte une tentative de connexion pour un nom d'utilisateur, quelle que soit l'adresse d'origine
+     * @throws TropDeRequetesException si les tentatives pour ce nom sont trop nombreuses
+     */
+    public void verifierConnexion(String username) {
+        if (!actif || username == null) {
+            return;
+        }
+        long attente = connexionParUtilisateur.consommer(username.trim().toLowerCase(Locale.ROOT));
+        if (attente > 0) {
+            throw new TropDeRequetesException("Trop de tentatives de connexion pour cet utilisateur",
+                    secondesAvantNouvelEssai(attente));
+        }
+    }
+
+    /**
+     * Délai à annoncer dans Retry-After, arrondi à la seconde supérieure
+     */
+    public static long secondesAvantNouvelEssai(long attenteNanos) {
+        return Math.max(1, (attenteNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private LimiteurDebit limiteur(String nom, int capacite, long periodeSecondes) {
+        return new LimiteurDebit(nom, capacite, Duration.ofSeconds(periodeSecondes), tailleMax).surveiller(meterRegistry);
+    }
+
+    private record Politique(Set<String> chemins, LimiteurDebit limiteur) {
+    }
+}
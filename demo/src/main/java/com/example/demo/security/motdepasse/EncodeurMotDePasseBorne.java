@@ -0,0 +1,110 @@
+package com.example.demo.security.motdepasse;
+
+import com.example.demo.exception.SurchargeException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encodeur de mots de passe qui hache et vérifie sur un pool de threads dédié, de taille et de file bornées.
+ * Le hachage est volontairement coûteux en processeur : sans borne, une rafale de connexions occuperait
+ * tous les threads de Tomcat et les processeurs au détriment de la lecture des agendas.
+ * Ici au plus threads hachages s'exécutent en même temps ; au-delà de file demandes en attente,
+ * ou après attenteMaxMs, la demande échoue en 503 (SurchargeException) au lieu d'attendre.
+ * Le thread de la requête attend le résultat sans consommer de processeur.
+ */
+public class EncodeurMotDePasseBorne implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegue;
+    private final ThreadPoolExecutor hachage;
+    private final long attenteMaxMs;
+    private final Timer attentes;
+
+    /**
+     * @param delegue Encodeur exécuté sur le pool
+     * @param threads Nombre de hachages simultanés
+     * @param file Nombre de demandes en attente d'un thread
+     * @param attenteMaxMs Délai maximal d'une demande, attente et hachage compris
+     */
+    public EncodeurMotDePasseBorne(PasswordEncoder delegue, int threads, int file, long attenteMaxMs,
+                                   MeterRegistry meterRegistry) {
+        this.delegue = delegue;
+        this.attenteMaxMs = attenteMaxMs;
+        AtomicInteger numero = new AtomicInteger();
+        this.hachage = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(file), tache -> {
+                    Thread thread = new Thread(tache, "hachage-mots-de-passe-" + numero.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.attentes = Timer.builder("ajenda.motdepasse.attente")
+                .description("Attente d'un thread de hachage des mots de passe")
+                .register(meterRegistry);
+        Gauge.builder("ajenda.motdepasse.file", hachage, executeur -> executeur.getQueue().size())
+                .description("Demandes de hachage en attente d'un thread")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executer(() -> delegue.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executer(() -> delegue.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Lecture du préfixe et de la force du hachage, sans calcul coûteux
+        return delegue.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T executer(Callable<T> calcul) {
+        long soumission = System.nanoTime();
+        Future<T> resultat;
+        try {
+            resultat = hachage.submit(() -> {
+                attentes.record(System.nanoTime() - soumission, TimeUnit.NANOSECONDS);
+                return calcul.call();
+            });
+        } catch (RejectedExecutionException e) {
+            throw new SurchargeException("Trop de demandes d'authentification en cours, veuillez réessayer");
+        }
+        try {
+            return resultat.get(attenteMaxMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            resultat.cancel(true);
+            throw new SurchargeException("Délai d'authentification dépassé, veuillez réessayer");
+        } catch (InterruptedException e) {
+            resultat.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SurchargeException("Authentification interrompue");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Arrête le pool à la fermeture du contexte
+     */
+    @Override
+    public void close() {
+        hachage.shutdownNow();
+    }
+}
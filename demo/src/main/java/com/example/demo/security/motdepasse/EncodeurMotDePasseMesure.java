@@ -0,0 +1,56 @@
+package com.example.demo.security.motdepasse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodeur de mots de passe qui mesure le hachage et la vérification (ajenda.motdepasse).
+ * BCrypt est volontairement lent : c'est le coût dominant de la connexion et de l'inscription.
+ */
+public class EncodeurMotDePasseMesure implements PasswordEncoder {
+
+    private final PasswordEncoder delegue;
+    private final Timer hachages;
+    private final Timer verificationsReussies;
+    private final Timer verificationsEchouees;
+
+    public EncodeurMotDePasseMesure(PasswordEncoder delegue, MeterRegistry meterRegistry) {
+        this.delegue = delegue;
+        this.hachages = timer(meterRegistry, "hachage", "succes");
+        this.verificationsReussies = timer(meterRegistry, "verification", "succes");
+        this.verificationsEchouees = timer(meterRegistry, "verification", "echec");
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String operation, String resultat) {
+        return Timer.builder("ajenda.motdepasse")
+                .description("Hachage et vérification des mots de passe")
+                .tag("operation", operation)
+                .tag("resultat", resultat)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        long debut = System.nanoTime();
+        String hash = delegue.encode(rawPassword);
+        hachages.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+        return hash;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long debut = System.nanoTime();
+        boolean valide = delegue.matches(rawPassword, encodedPassword);
+        Timer verifications = valide ? verificationsReussies : verificationsEchouees;
+        verifications.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+        return valide;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegue.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.security.motdepasse;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.util.ClassUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodeurs de mots de passe reconnus par l'application.
+ * Les nouveaux hachages sont préfixés par l'identifiant de leur encodage ({bcrypt}, {pbkdf2}, {argon2}) ;
+ * les hachages BCrypt sans préfixe, écrits avant, restent lisibles.
+ */
+public final class EncodeursMotDePasse {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String PBKDF2 = "pbkdf2";
+    public static final String ARGON2 = "argon2";
+
+    private EncodeursMotDePasse() {
+    }
+
+    /**
+     * Encodeur qui hache avec l'encodage choisi et vérifie les hachages de tous les encodages reconnus.
+     * Un hachage d'un autre encodage, ou BCrypt d'une force inférieure, est signalé par upgradeEncoding :
+     * Spring Security le réencode à la connexion suivante réussie.
+     * @param encodage Identifiant de l'encodage des nouveaux hachages
+     * @param forceBcrypt Force (log2 du nombre d'itérations) de BCrypt, entre 4 et 31
+     * @throws IllegalStateException si Argon2 est choisi sans Bouncy Castle dans le classpath
+     */
+    public static PasswordEncoder creer(String encodage, int forceBcrypt) {
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(forceBcrypt);
+        Map<String, PasswordEncoder> encodeurs = new HashMap<>();
+        encodeurs.put(BCRYPT, bcrypt);
+        encodeurs.put(PBKDF2, Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        // Argon2 repose sur Bouncy Castle, qui n'est pas une dépendance de l'application
+        if (ClassUtils.isPresent("org.bouncycastle.crypto.params.Argon2Parameters",
+                EncodeursMotDePasse.class.getClassLoader())) {
+            encodeurs.put(ARGON2, Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        }
+        if (!encodeurs.containsKey(encodage)) {
+            throw new IllegalStateException("Encodage de mot de passe indisponible: " + encodage
+                    + " (disponibles: " + encodeurs.keySet() + ")");
+        }
+        DelegatingPasswordEncoder encodeur = new DelegatingPasswordEncoder(encodage, encodeurs);
+        encodeur.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encodeur;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DemandeDisponibilitesDTO;
+import com.example.demo.dto.DisponibilitesDTO;
+
+/**
+ * Interface du service de recherche de disponibilités communes
+ */
+public interface DisponibiliteService {
+
+    /**
+     * Calcule les plages libres communes à plusieurs utilisateurs et leurs conflits sur une plage.
+     * Seules les périodes occupées sont exposées, jamais le contenu des événements.
+     * @param demande Utilisateurs, plage et durée minimale d'un créneau libre
+     * @return Les plages libres d'au moins la durée demandée et les périodes où plusieurs utilisateurs sont occupés
+     * @throws IllegalArgumentException si la plage est vide ou trop longue, ou les utilisateurs trop nombreux
+     */
+    DisponibilitesDTO calculerDisponibilites(DemandeDisponibilitesDTO demande);
+}
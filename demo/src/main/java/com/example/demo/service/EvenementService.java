@@ -1,9 +1,15 @@
 package com.example.demo.service;
 
 import com.example.demo.dto.EvenementDTO;
+import com.example.demo.dto.PageEvenementsDTO;
+import com.example.demo.dto.ResultatImportDTO;
+import com.example.demo.dto.ResumeCreneauDTO;
+import com.example.demo.service.planning.Granularite;
 
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interface de service pour la gestion des événements
@@ -25,18 +31,19 @@ public interface EvenementService {
     EvenementDTO getEvenementById(Long id);
     
     /**
-     * Met à jour un événement existant
+     * Met à jour un événement existant appartenant à l'utilisateur indiqué dans les données
      * @param id L'id de l'événement à mettre à jour
-     * @param evenementDTO Les nouvelles données
+     * @param evenementDTO Les nouvelles données, dont l'id du propriétaire
      * @return L'événement mis à jour
      */
     EvenementDTO mettreAJourEvenement(Long id, EvenementDTO evenementDTO);
     
     /**
-     * Supprime un événement
+     * Supprime un événement appartenant à un utilisateur
      * @param id L'id de l'événement à supprimer
+     * @param userId ID de l'utilisateur propriétaire
      */
-    void supprimerEvenement(Long id);
+    void supprimerEvenement(Long id, Long userId);
     
     /**
      * Récupère tous les événements
@@ -53,11 +60,13 @@ public interface EvenementService {
     List<EvenementDTO> getEvenementsParPlageDeDates(LocalDateTime debut, LocalDateTime fin);
     
     /**
-     * Recherche d'événements par mot clé
+     * Recherche d'événements par mot clé, classés par pertinence
      * @param motCle Mot clé à rechercher
+     * @param page Numéro de page, à partir de 0
+     * @param taille Nombre maximal de résultats dans la page
      * @return Liste des événements correspondants
      */
-    List<EvenementDTO> rechercherEvenements(String motCle);
+    List<EvenementDTO> rechercherEvenements(String motCle, int page, int taille);
     
     /**
      * Récupère tous les événements d'un utilisateur
@@ -74,12 +83,88 @@ public interface EvenementService {
      * @return Liste des événements de l'utilisateur dans cette plage
      */
     List<EvenementDTO> getEvenementsParUtilisateurEtPlageDeDates(Long userId, LocalDateTime debut, LocalDateTime fin);
+
+    /**
+     * Cherche les événements d'un utilisateur qui chevauchent une plage, pour avertir d'une double réservation.
+     * Les journées entières et les événements qui se touchent seulement ne sont pas des chevauchements.
+     * @param userId ID de l'utilisateur
+     * @param debut Début de la plage
+     * @param fin Fin de la plage
+     * @param exclureId ID de l'événement à ignorer, celui qu'on vient d'enregistrer, ou null
+     * @return IDs des événements en chevauchement, sans doublon, dans l'ordre de leur début
+     */
+    List<Long> getChevauchements(Long userId, LocalDateTime debut, LocalDateTime fin, Long exclureId);
+
+    /**
+     * Résume l'occupation de l'agenda d'un utilisateur par jour ou par heure, sans détailler les événements
+     * @param userId ID de l'utilisateur
+     * @param debut Date de début, arrondie au début de son créneau
+     * @param fin Date de fin, arrondie à la fin de son créneau
+     * @param granularite Taille des créneaux
+     * @return Un résumé par créneau, créneaux vides compris
+     */
+    List<ResumeCreneauDTO> getResumeParUtilisateur(Long userId, LocalDateTime debut, LocalDateTime fin, Granularite granularite);
     
     /**
-     * Recherche d'événements d'un utilisateur par mot clé
+     * Recherche d'événements d'un utilisateur par mot clé, classés par pertinence
      * @param userId ID de l'utilisateur
      * @param motCle Mot clé à rechercher
+     * @param page Numéro de page, à partir de 0
+     * @param taille Nombre maximal de résultats dans la page
      * @return Liste des événements correspondants
      */
-    List<EvenementDTO> rechercherEvenementsParUtilisateur(Long userId, String motCle);
-} 
\ No newline at end of file
+    List<EvenementDTO> rechercherEvenementsParUtilisateur(Long userId, String motCle, int page, int taille);
+    
+    /**
+     * Calcule une version opaque de l'agenda d'un utilisateur, qui change à chaque création,
+     * modification ou suppression de l'un de ses événements, sans charger les événements
+     * @param userId ID de l'utilisateur
+     * @return La version de l'agenda
+     */
+    String getVersionAgenda(Long userId);
+    
+    /**
+     * Reconstruit l'index de recherche à partir de la base de données
+     * @return Le nombre d'événements indexés
+     */
+    int reconstruireIndexRecherche();
+    
+    /**
+     * Récupère une page des événements d'un utilisateur, triés par date de début
+     * @param userId ID de l'utilisateur
+     * @param curseur Curseur retourné par la page précédente, ou null pour la première page
+     * @param taille Nombre maximal d'événements dans la page
+     * @return La page d'événements et le curseur de la page suivante
+     */
+    PageEvenementsDTO getPageEvenementsParUtilisateur(Long userId, String curseur, int taille);
+    
+    /**
+     * Récupère une page de tous les événements, triés par date de début
+     * @param curseur Curseur retourné par la page précédente, ou null pour la première page
+     * @param taille Nombre maximal d'événements dans la page
+     * @return La page d'événements et le curseur de la page suivante
+     */
+    PageEvenementsDTO getPageTousLesEvenements(String curseur, int taille);
+    
+    /**
+     * Transmet un à un les événements d'un utilisateur, sans les charger tous en mémoire
+     * @param userId ID de l'utilisateur
+     * @param consommateur Reçoit chaque événement, trié par date de début
+     */
+    void parcourirEvenementsParUtilisateur(Long userId, Consumer<EvenementDTO> consommateur);
+    
+    /**
+     * Transmet un à un tous les événements, sans les charger tous en mémoire
+     * @param consommateur Reçoit chaque événement, trié par date de début
+     */
+    void parcourirTousLesEvenements(Consumer<EvenementDTO> consommateur);
+    
+    /**
+     * Importe en masse des événements pour un utilisateur. Chaque événement est validé,
+     * les événements valides sont insérés par lots et les invalides sont ignorés.
+     * @param userId ID de l'utilisateur propriétaire des événements importés
+     * @param evenements Événements à importer, lus au fil de l'eau
+     * @return Le résultat de chaque événement, dans l'ordre du flux
+     */
+    List<ResultatImportDTO> importerEvenements(Long userId, Iterator<EvenementDTO> evenements);
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SynchronisationDTO;
+
+/**
+ * Interface du service de synchronisation des clients hors ligne par le journal des modifications
+ */
+public interface SynchronisationService {
+
+    /**
+     * Lit les modifications des événements d'un utilisateur depuis un jeton de synchronisation.
+     * Sans jeton, renvoie une copie complète des événements et le jeton à partir duquel la poursuivre.
+     * Le coût d'une synchronisation dépend du nombre de modifications, pas de la taille de l'agenda.
+     * @param userId ID de l'utilisateur
+     * @param depuis Jeton obtenu lors de la synchronisation précédente, ou null
+     * @return Les événements modifiés, les identifiants supprimés et le jeton suivant
+     * @throws IllegalArgumentException si le jeton est mal formé
+     * @throws com.example.demo.exception.JetonExpireException si le journal ne remonte plus jusqu'au jeton
+     */
+    SynchronisationDTO synchroniser(Long userId, String depuis);
+
+    /**
+     * Supprime les entrées du journal plus anciennes que la durée de rétention.
+     * Les jetons antérieurs expirent : leurs clients repartent d'une copie complète.
+     * @return Le nombre d'entrées supprimées
+     */
+    int compacterJournal();
+}
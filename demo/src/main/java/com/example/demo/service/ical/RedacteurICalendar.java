@@ -0,0 +1,171 @@
+package com.example.demo.service.ical;
+
+import com.example.demo.dto.EvenementDTO;
+import com.example.demo.service.planning.Intervalle;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Écriture incrémentale d'un calendrier au format iCalendar (RFC 5545).
+ * Chaque événement est écrit dès qu'il est reçu : le document complet n'est jamais construit en mémoire.
+ * Les lignes se terminent par CRLF et sont repliées à 75 octets, les textes sont échappés.
+ */
+public class RedacteurICalendar {
+
+    private static final String FIN_LIGNE = "\r\n";
+    private static final int OCTETS_MAX_LIGNE = 75;
+    private static final DateTimeFormatter FORMAT_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter FORMAT_DATE_HEURE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final Writer sortie;
+    private final ZoneId fuseauServeur;
+    private final Instant generation;
+
+    /**
+     * @param sortie Destination du calendrier, non fermée par le rédacteur
+     * @param fuseauServeur Fuseau dans lequel sont exprimées les dates de modification
+     * @param generation Instant de génération, utilisé comme DTSTAMP des événements jamais modifiés
+     */
+    public RedacteurICalendar(Writer sortie, ZoneId fuseauServeur, Instant generation) {
+        this.sortie = sortie;
+        this.fuseauServeur = fuseauServeur;
+        this.generation = generation;
+    }
+
+    /**
+     * Écrit l'en-tête du calendrier
+     * @param nom Nom affiché par les clients de calendrier
+     */
+    public void ouvrir(String nom) throws IOException {
+        ligne("BEGIN:VCALENDAR");
+        ligne("VERSION:2.0");
+        ligne("PRODID:-//Ajenda//Agenda//FR");
+        ligne("CALSCALE:GREGORIAN");
+        ligne("METHOD:PUBLISH");
+        ligne("X-WR-CALNAME:" + echapper(nom));
+    }
+
+    /**
+     * Écrit un événement sous forme de VEVENT.
+     * Les dates sont écrites en heure flottante, comme elles sont saisies dans l'agenda ;
+     * une journée entière utilise des dates sans heure avec une fin exclusive.
+     */
+    public void ecrire(EvenementDTO evenement) throws IOException {
+        boolean occurrenceModifiee = evenement.getSerieId() != null && evenement.getOccurrenceOriginale() != null;
+        ligne("BEGIN:VEVENT");
+        // Une occurrence modifiée partage l'UID de sa série et désigne l'occurrence remplacée
+        ligne("UID:evenement-" + (occurrenceModifiee ? evenement.getSerieId() : evenement.getId()) + "@ajenda");
+        if (occurrenceModifiee) {
+            ligne("RECURRENCE-ID" + dateOuDateHeure(evenement.getOccurrenceOriginale(), evenement.isEstJourneeEntiere()));
+        }
+        if (evenement.getDateModification() != null) {
+            String modification = horodatageUtc(evenement.getDateModification().atZone(fuseauServeur).toInstant());
+            ligne("DTSTAMP:" + modification);
+            ligne("LAST-MODIFIED:" + modification);
+        } else {
+            ligne("DTSTAMP:" + horodatageUtc(generation));
+        }
+
+        if (evenement.isEstJourneeEntiere()) {
+            LocalDate debut = evenement.getDateDebut().toLocalDate();
+            ligne("DTSTART;VALUE=DATE:" + FORMAT_DATE.format(debut));
+            ligne("DTEND;VALUE=DATE:" + FORMAT_DATE.format(Intervalle.finExclusive(debut, evenement.getDateFin())));
+        } else {
+            ligne("DTSTART:" + FORMAT_DATE_HEURE.format(evenement.getDateDebut()));
+            ligne("DTEND:" + FORMAT_DATE_HEURE.format(evenement.getDateFin()));
+        }
+        if (evenement.getRegleRecurrence() != null) {
+            // UNTIL doit avoir le même type de valeur que DTSTART
+            ligne("RRULE:" + (evenement.isEstJourneeEntiere()
+                    ? evenement.getRegleRecurrence().replaceAll("UNTIL=(\\d{8})T\\d{6}", "UNTIL=$1")
+                    : evenement.getRegleRecurrence()));
+            if (evenement.getExceptionsRecurrence() != null) {
+                for (LocalDateTime exception : evenement.getExceptionsRecurrence()) {
+                    ligne("EXDATE" + dateOuDateHeure(exception, evenement.isEstJourneeEntiere()));
+                }
+            }
+        }
+
+        ligne("SUMMARY:" + echapper(evenement.getTitre()));
+        if (evenement.getDescription() != null && !evenement.getDescription().isBlank()) {
+            ligne("DESCRIPTION:" + echapper(evenement.getDescription()));
+        }
+        if (evenement.getLieu() != null && !evenement.getLieu().isBlank()) {
+            ligne("LOCATION:" + echapper(evenement.getLieu()));
+        }
+        ligne("END:VEVENT");
+    }
+
+    /**
+     * Écrit la fin du calendrier et vide le tampon de sortie
+     */
+    public void fermer() throws IOException {
+        ligne("END:VCALENDAR");
+        sortie.flush();
+    }
+
+    private static String dateOuDateHeure(LocalDateTime date, boolean journeeEntiere) {
+        return journeeEntiere
+                ? ";VALUE=DATE:" + FORMAT_DATE.format(date)
+                : ":" + FORMAT_DATE_HEURE.format(date);
+    }
+
+    private static String horodatageUtc(Instant instant) {
+        return FORMAT_DATE_HEURE.format(instant.atOffset(ZoneOffset.UTC)) + "Z";
+    }
+
+    /**
+     * Échappe une valeur de type TEXT : antislash, point-virgule, virgule et retours à la ligne
+     */
+    static String echapper(String texte) {
+        if (texte == null) {
+            return "";
+        }
+        StringBuilder resultat = new StringBuilder(texte.length() + 16);
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            switch (c) {
+                case '\\' -> resultat.append("\\\\");
+                case ';' -> resultat.append("\\;");
+                case ',' -> resultat.append("\\,");
+                case '\n' -> resultat.append("\\n");
+                case '\r' -> {
+                    if (i + 1 >= texte.length() || texte.charAt(i + 1) != '\n') {
+                        resultat.append("\\n");
+                    }
+                }
+                default -> resultat.append(c);
+            }
+        }
+        return resultat.toString();
+    }
+
+    /**
+     * Écrit une ligne de contenu, repliée en lignes d'au plus 75 octets UTF-8
+     * sans jamais couper un caractère
+     */
+    private void ligne(String contenu) throws IOException {
+        int octets = 0;
+        int i = 0;
+        while (i < contenu.length()) {
+            int pointCode = contenu.codePointAt(i);
+            int taille = pointCode < 0x80 ? 1 : pointCode < 0x800 ? 2 : pointCode < 0x10000 ? 3 : 4;
+            if (octets + taille > OCTETS_MAX_LIGNE) {
+                sortie.write(FIN_LIGNE);
+                sortie.write(' ');
+                octets = 1;
+            }
+            sortie.write(Character.toChars(pointCode));
+            octets += taille;
+            i += Character.charCount(pointCode);
+        }
+        sortie.write(FIN_LIGNE);
+    }
+}
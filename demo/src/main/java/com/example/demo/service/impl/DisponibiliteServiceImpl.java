@@ -0,0 +1,117 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.config.RoutageLectureEcriture;
+import com.example.demo.config.SansPermisBase;
+import com.example.demo.dto.DemandeDisponibilitesDTO;
+import com.example.demo.dto.DisponibilitesDTO;
+import com.example.demo.dto.EvenementDTO;
+import com.example.demo.exception.RequeteInvalideException;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.DisponibiliteService;
+import com.example.demo.service.EvenementService;
+import com.example.demo.service.planning.FusionAgendas;
+import com.example.demo.service.planning.Intervalle;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implémentation du service de recherche de disponibilités communes.
+ * Les agendas des utilisateurs sont lus en parallèle, puis fusionnés en un seul balayage.
+ * Sans transaction propre, il ne prend pas de permis d'accès à la base : chaque lecture parallèle prend le sien.
+ */
+@Service
+@SansPermisBase
+public class DisponibiliteServiceImpl implements DisponibiliteService {
+
+    private final EvenementService evenementService;
+    private final UserRepository userRepository;
+    private final ExecutorService lecture;
+
+    @Value("${ajenda.app.disponibilites.maxUtilisateurs:50}")
+    private int maxUtilisateurs;
+
+    @Value("${ajenda.app.disponibilites.maxJours:92}")
+    private int maxJours;
+
+    @Autowired
+    public DisponibiliteServiceImpl(EvenementService evenementService, UserRepository userRepository,
+                                    @Value("${ajenda.app.disponibilites.threads:4}") int threads) {
+        this.evenementService = evenementService;
+        this.userRepository = userRepository;
+        AtomicInteger numero = new AtomicInteger();
+        this.lecture = Executors.newFixedThreadPool(threads, tache -> {
+            Thread thread = new Thread(tache, "lecture-agendas-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void arreter() {
+        lecture.shutdownNow();
+    }
+
+    @Override
+    public DisponibilitesDTO calculerDisponibilites(DemandeDisponibilitesDTO demande) {
+        LocalDateTime debut = demande.getDebut();
+        LocalDateTime fin = demande.getFin();
+        if (!fin.isAfter(debut)) {
+            throw new RequeteInvalideException("La fin de la plage doit suivre son début");
+        }
+        if (debut.plusDays(maxJours).isBefore(fin)) {
+            throw new RequeteInvalideException("Plage trop longue: au plus " + maxJours + " jours");
+        }
+        List<Long> userIds = List.copyOf(new LinkedHashSet<>(demande.getUserIds()));
+        if (userIds.size() > maxUtilisateurs) {
+            throw new RequeteInvalideException("Trop d'utilisateurs: au plus " + maxUtilisateurs);
+        }
+        // Les lectures par utilisateur ne vérifient pas son existence : un inconnu paraîtrait toujours libre
+        List<Long> existants = userRepository.findIdsExistants(userIds);
+        if (existants.size() < userIds.size()) {
+            Long inconnu = userIds.stream().filter(id -> !existants.contains(id)).findFirst().orElseThrow();
+            throw new EntityNotFoundException("Utilisateur non trouvé avec l'ID: " + inconnu);
+        }
+
+        Map<Long, CompletableFuture<List<Intervalle>>> lectures = new LinkedHashMap<>();
+        for (Long userId : userIds) {
+            lectures.put(userId, CompletableFuture.supplyAsync(() -> intervalles(userId, debut, fin), lecture));
+        }
+        Map<Long, List<Intervalle>> agendas = new LinkedHashMap<>();
+        try {
+            lectures.forEach((userId, future) -> agendas.put(userId, future.join()));
+        } catch (CompletionException e) {
+            lectures.values().forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return FusionAgendas.calculer(agendas, debut, fin, Duration.ofMinutes(demande.getDureeMinutes()));
+    }
+
+    private List<Intervalle> intervalles(Long userId, LocalDateTime debut, LocalDateTime fin) {
+        // Hors du contexte de sécurité : la base principale est relue si le propriétaire vient d'écrire
+        List<EvenementDTO> evenements = RoutageLectureEcriture.lectureDe(userId,
+                () -> evenementService.getEvenementsParUtilisateurEtPlageDeDates(userId, debut, fin));
+        return evenements.stream()
+                .map(Intervalle::de)
+                .sorted(Comparator.comparing(Intervalle::debut))
+                .toList();
+    }
+}
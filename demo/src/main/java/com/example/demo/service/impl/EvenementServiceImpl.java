@@ -1,18 +1,63 @@
 package com.example.demo.service.impl;
 
+import com.example.demo.config.RoutageLectureEcriture;
+import com.example.demo.dto.ChangementEvenementDTO;
 import com.example.demo.dto.EvenementDTO;
+import com.example.demo.dto.PageEvenementsDTO;
+import com.example.demo.dto.ResultatImportDTO;
+import com.example.demo.dto.ResumeCreneauDTO;
+import com.example.demo.exception.AccesRefuseException;
+import com.example.demo.exception.ConflitVersionException;
+import com.example.demo.exception.RequeteInvalideException;
 import com.example.demo.model.Evenement;
-import com.example.demo.model.User;
+import com.example.demo.model.JournalModification;
+import com.example.demo.repository.EvenementLotRepository;
 import com.example.demo.repository.EvenementRepository;
+import com.example.demo.repository.EvenementRepository.VersionAgenda;
+import com.example.demo.repository.JournalModificationRepository;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.service.EvenementService;
+import com.example.demo.service.index.IndexPlagesEvenements;
+import com.example.demo.service.notification.BusChangements;
+import com.example.demo.service.notification.VersionsAgendas;
+import com.example.demo.service.planning.Granularite;
+import com.example.demo.service.planning.Intervalle;
+import com.example.demo.service.planning.ResumePlanning;
+import com.example.demo.service.recurrence.DeveloppementRecurrences;
+import com.example.demo.service.recurrence.RegleRecurrence;
+import com.example.demo.service.recherche.MoteurRecherche;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implémentation du service pour la gestion des événements
@@ -20,39 +65,66 @@ import java.util.stream.Collectors;
 @Service
 public class EvenementServiceImpl implements EvenementService {
 
+    private static final int TAILLE_PAGE_MAX = 500;
+    // Six semaines par heure, ou plus de cinq ans par jour
+    private static final int CRENEAUX_RESUME_MAX = 2000;
+    // Jusqu'à 30 caractères par exception ISO séparateur compris : tient dans la colonne exceptions_recurrence (4000)
+    private static final int MAX_EXCEPTIONS = 100;
+
     private final EvenementRepository evenementRepository;
+    private final EvenementLotRepository evenementLotRepository;
     private final UserRepository userRepository;
+    private final IndexPlagesEvenements indexPlages;
+    private final MoteurRecherche moteurRecherche;
+    private final Validator validator;
+    private final BusChangements busChangements;
+    private final VersionsAgendas versionsAgendas;
+    private final JournalModificationRepository journalModificationRepository;
+
+    @Value("${ajenda.app.import.tailleLot:500}")
+    private int tailleLot;
+
+    // Durée maximale des nouveaux événements
+    @Value("${ajenda.app.evenements.dureeMaxJours:92}")
+    private int dureeMaxJours;
+
+    // Borne les requêtes par plage : un événement commencé plus tôt ne peut pas atteindre la plage.
+    // Calculée à la première requête par plage ; les écritures, vérifiées par verifierDuree, ne la dépassent jamais
+    private final AtomicLong retrospectiveSecondes = new AtomicLong(-1);
 
     @Autowired
-    public EvenementServiceImpl(EvenementRepository evenementRepository, UserRepository userRepository) {
+    public EvenementServiceImpl(EvenementRepository evenementRepository, EvenementLotRepository evenementLotRepository,
+                                UserRepository userRepository, IndexPlagesEvenements indexPlages,
+                                MoteurRecherche moteurRecherche, Validator validator, BusChangements busChangements,
+                                VersionsAgendas versionsAgendas,
+                                JournalModificationRepository journalModificationRepository) {
         this.evenementRepository = evenementRepository;
+        this.evenementLotRepository = evenementLotRepository;
         this.userRepository = userRepository;
+        this.indexPlages = indexPlages;
+        this.moteurRecherche = moteurRecherche;
+        this.validator = validator;
+        this.busChangements = busChangements;
+        this.versionsAgendas = versionsAgendas;
+        this.journalModificationRepository = journalModificationRepository;
     }
 
     /**
      * Convertit un objet Evenement en EvenementDTO
      */
-    private EvenementDTO convertToDTO(Evenement evenement) {
-        EvenementDTO dto = new EvenementDTO();
-        dto.setId(evenement.getId());
-        dto.setTitre(evenement.getTitre());
-        dto.setDescription(evenement.getDescription());
-        dto.setDateDebut(evenement.getDateDebut());
-        dto.setDateFin(evenement.getDateFin());
-        dto.setCouleurFond(evenement.getCouleurFond());
-        dto.setCouleurTexte(evenement.getCouleurTexte());
-        dto.setLieu(evenement.getLieu());
-        dto.setEstJourneeEntiere(evenement.isEstJourneeEntiere());
-        if (evenement.getUser() != null) {
-            dto.setUserId(evenement.getUser().getId());
-        }
-        return dto;
+    EvenementDTO convertToDTO(Evenement evenement) {
+        return new EvenementDTO(evenement.getId(), evenement.getTitre(), evenement.getDescription(),
+                evenement.getDateDebut(), evenement.getDateFin(), evenement.getCouleurFond(), evenement.getCouleurTexte(),
+                evenement.getLieu(), evenement.isEstJourneeEntiere(), evenement.getRegleRecurrence(),
+                evenement.getExceptionsRecurrence(), evenement.getFinRecurrence(), evenement.getSerieId(),
+                evenement.getOccurrenceOriginale(), evenement.getDateModification(),
+                evenement.getUser() != null ? evenement.getUser().getId() : null, evenement.getVersion());
     }
 
     /**
      * Convertit un objet EvenementDTO en Evenement
      */
-    private Evenement convertToEntity(EvenementDTO dto) {
+    Evenement convertToEntity(EvenementDTO dto) {
         Evenement evenement = new Evenement();
         evenement.setId(dto.getId());
         evenement.setTitre(dto.getTitre());
@@ -63,97 +135,541 @@ public class EvenementServiceImpl implements EvenementService {
         evenement.setCouleurTexte(dto.getCouleurTexte());
         evenement.setLieu(dto.getLieu());
         evenement.setEstJourneeEntiere(dto.isEstJourneeEntiere());
+        evenement.setRegleRecurrence(dto.getRegleRecurrence());
+        if (dto.getExceptionsRecurrence() != null && !dto.getExceptionsRecurrence().isEmpty()) {
+            evenement.setExceptionsRecurrence(formaterExceptions(dto.getExceptionsRecurrence()));
+        }
+        evenement.setSerieId(dto.getSerieId());
+        evenement.setOccurrenceOriginale(dto.getOccurrenceOriginale());
         
         if (dto.getUserId() != null) {
-            User user = userRepository.findById(dto.getUserId())
-                .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé avec l'ID: " + dto.getUserId()));
-            evenement.setUser(user);
+            // Référence sans SELECT : seule la clé étrangère est nécessaire pour écrire l'événement
+            evenement.setUser(userRepository.getReferenceById(dto.getUserId()));
         }
         
         return evenement;
     }
 
     @Override
+    @Transactional
     public EvenementDTO creerEvenement(EvenementDTO evenementDTO) {
         Evenement evenement = convertToEntity(evenementDTO);
+        // L'id est attribué par la base : un id fourni, par exemple celui d'une série, ne doit rien écraser
+        evenement.setId(null);
+        verifierDuree(evenement);
+        preparerRecurrence(evenement);
+        evenement.setDateModification(LocalDateTime.now());
+        if (evenement.getSerieId() != null) {
+            exclureOccurrence(evenement.getSerieId(), evenementDTO.getUserId(), evenement.getOccurrenceOriginale(),
+                    evenement.getDateModification());
+        }
         Evenement saved = evenementRepository.save(evenement);
-        return convertToDTO(saved);
+        journaliser(evenementDTO.getUserId(), saved.getId(), JournalModification.Type.MODIFICATION);
+        EvenementDTO cree = convertToDTO(saved);
+        notifierEnregistrement(cree);
+        publier(cree.getUserId(), ChangementEvenementDTO.Type.CREATION, cree.getId(), cree);
+        return cree;
+    }
+
+    /**
+     * Vérifie qu'un événement (ou chaque occurrence d'une série) ne dure pas plus que la durée maximale,
+     * sur laquelle reposent les bornes des requêtes par plage
+     * @throws RequeteInvalideException si l'événement est trop long
+     */
+    private void verifierDuree(Evenement evenement) {
+        if (evenement.getDateDebut().plusDays(dureeMaxJours).isBefore(evenement.getDateFin())) {
+            throw new RequeteInvalideException("Un événement dure au plus " + dureeMaxJours + " jours");
+        }
+    }
+
+    /**
+     * Valide la règle de récurrence, l'enregistre sous sa forme canonique et calcule la fin de la série.
+     * Un événement qui remplace une occurrence doit indiquer l'occurrence d'origine et n'est pas lui-même une série.
+     * @throws RequeteInvalideException si la règle ou le rattachement à une série est invalide
+     */
+    private void preparerRecurrence(Evenement evenement) {
+        if (evenement.getSerieId() != null) {
+            if (evenement.getOccurrenceOriginale() == null) {
+                throw new RequeteInvalideException("L'occurrence d'origine est obligatoire pour modifier une occurrence de série");
+            }
+            // Une occurrence modifiée n'est jamais elle-même récurrente, même copiée depuis une occurrence développée
+            evenement.setRegleRecurrence(null);
+        }
+        if (evenement.getRegleRecurrence() == null || evenement.getRegleRecurrence().isBlank()) {
+            evenement.setRegleRecurrence(null);
+            evenement.setExceptionsRecurrence(null);
+            evenement.setFinRecurrence(null);
+            return;
+        }
+        if (evenement.getDateFin().isBefore(evenement.getDateDebut())) {
+            throw new RequeteInvalideException("La date de fin d'une série doit suivre sa date de début");
+        }
+        RegleRecurrence regle = RegleRecurrence.analyser(evenement.getRegleRecurrence());
+        evenement.setRegleRecurrence(regle.toString());
+        evenement.setFinRecurrence(regle.finDerniereOccurrence(evenement.getDateDebut(),
+                Duration.between(evenement.getDateDebut(), evenement.getDateFin())));
+    }
+
+    /**
+     * Ajoute une occurrence aux exceptions de sa série, lorsqu'un événement la remplace
+     */
+    private void exclureOccurrence(Long serieId, Long userId, LocalDateTime occurrence, LocalDateTime maintenant) {
+        Evenement serie = evenementRepository.findByIdAndUserId(serieId, userId)
+                .orElseThrow(() -> introuvableOuRefuse(serieId));
+        if (serie.getRegleRecurrence() == null) {
+            throw new RequeteInvalideException("L'événement n'est pas une série récurrente: " + serieId);
+        }
+        List<LocalDateTime> exceptions = new ArrayList<>();
+        if (serie.getExceptionsRecurrence() != null && !serie.getExceptionsRecurrence().isEmpty()) {
+            Arrays.stream(serie.getExceptionsRecurrence().split(",")).map(LocalDateTime::parse).forEach(exceptions::add);
+        }
+        exceptions.add(occurrence);
+        serie.setExceptionsRecurrence(formaterExceptions(exceptions));
+        serie.setDateModification(maintenant);
+        // Écrite tout de suite pour que le changement publié porte la nouvelle version de la série
+        evenementRepository.saveAndFlush(serie);
+        journaliser(userId, serieId, JournalModification.Type.MODIFICATION);
+        EvenementDTO serieModifiee = convertToDTO(serie);
+        notifierEnregistrement(serieModifiee);
+        publier(userId, ChangementEvenementDTO.Type.MODIFICATION, serieId, serieModifiee);
+    }
+
+    /**
+     * Met les exceptions d'une série sous leur forme stockée : sans doublon, triées, au format ISO
+     * @throws RequeteInvalideException au-delà de MAX_EXCEPTIONS occurrences exclues
+     */
+    private static String formaterExceptions(Collection<LocalDateTime> exceptions) {
+        Set<LocalDateTime> distinctes = new TreeSet<>(exceptions);
+        if (distinctes.size() > MAX_EXCEPTIONS) {
+            throw new RequeteInvalideException("Une série compte au plus " + MAX_EXCEPTIONS
+                    + " occurrences exclues ou modifiées");
+        }
+        return distinctes.stream().map(LocalDateTime::toString).collect(Collectors.joining(","));
     }
 
     @Override
+    @Transactional
+    public List<ResultatImportDTO> importerEvenements(Long userId, Iterator<EvenementDTO> evenements) {
+        List<ResultatImportDTO> resultats = new ArrayList<>();
+        List<Evenement> lot = new ArrayList<>(tailleLot);
+        List<ResultatImportDTO> resultatsLot = new ArrayList<>(tailleLot);
+        List<EvenementDTO> importes = new ArrayList<>();
+        LocalDateTime maintenant = LocalDateTime.now();
+        int index = 0;
+        while (evenements.hasNext()) {
+            EvenementDTO dto = evenements.next();
+            Set<ConstraintViolation<EvenementDTO>> violations = validator.validate(dto);
+            Map<String, String> erreurs = new LinkedHashMap<>();
+            violations.forEach(violation ->
+                    erreurs.put(violation.getPropertyPath().toString(), violation.getMessage()));
+            Evenement evenement = null;
+            if (erreurs.isEmpty()) {
+                // Un événement importé est autonome : les occurrences déjà exclues restent dans les exceptions de la série
+                dto.setId(null);
+                dto.setUserId(userId);
+                dto.setSerieId(null);
+                dto.setOccurrenceOriginale(null);
+                evenement = convertToEntity(dto);
+                try {
+                    verifierDuree(evenement);
+                } catch (IllegalArgumentException e) {
+                    erreurs.put("dateFin", e.getMessage());
+                }
+                try {
+                    preparerRecurrence(evenement);
+                } catch (IllegalArgumentException e) {
+                    erreurs.put("regleRecurrence", e.getMessage());
+                }
+            }
+            if (erreurs.isEmpty()) {
+                ResultatImportDTO resultat = new ResultatImportDTO(index, null, true, null);
+                evenement.setDateModification(maintenant);
+                lot.add(evenement);
+                resultatsLot.add(resultat);
+                resultats.add(resultat);
+            } else {
+                resultats.add(new ResultatImportDTO(index, null, false, erreurs));
+            }
+            if (lot.size() == tailleLot) {
+                insererLot(lot, resultatsLot, importes);
+            }
+            index++;
+        }
+        if (!lot.isEmpty()) {
+            insererLot(lot, resultatsLot, importes);
+        }
+        if (!importes.isEmpty()) {
+            // Journalisés en fin d'import, juste avant la validation, comme les écritures unitaires
+            evenementLotRepository.journaliserEnLot(userId, importes.stream().map(EvenementDTO::getId).toList(),
+                    JournalModification.Type.MODIFICATION, LocalDateTime.now());
+            // Une seule synchronisation pour tout l'import : l'index des plages de l'utilisateur est rechargé
+            // à sa prochaine lecture au lieu d'être recopié à chaque événement importé
+            apresCommit(() -> {
+                indexPlages.invalider(userId);
+                importes.forEach(moteurRecherche::indexer);
+            });
+            // Un import peut dépasser le tampon des abonnés : un seul RESYNC remplace un changement par événement
+            publier(userId, ChangementEvenementDTO.Type.RESYNC, null, null);
+        }
+        return resultats;
+    }
+
+    /**
+     * Insère un lot d'événements valides en un seul aller-retour JDBC, ajoute les événements créés aux importés
+     * puis vide le lot
+     */
+    private void insererLot(List<Evenement> lot, List<ResultatImportDTO> resultatsLot, List<EvenementDTO> importes) {
+        evenementLotRepository.insererEnLot(lot);
+        for (int i = 0; i < lot.size(); i++) {
+            EvenementDTO cree = convertToDTO(lot.get(i));
+            resultatsLot.get(i).setId(cree.getId());
+            importes.add(cree);
+        }
+        lot.clear();
+        resultatsLot.clear();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public EvenementDTO getEvenementById(Long id) {
-        return evenementRepository.findById(id)
-                .map(this::convertToDTO)
+        return evenementRepository.findDTOById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Événement non trouvé avec l'ID: " + id));
     }
 
     @Override
+    @Transactional
     public EvenementDTO mettreAJourEvenement(Long id, EvenementDTO evenementDTO) {
-        if (!evenementRepository.existsById(id)) {
-            throw new EntityNotFoundException("Événement non trouvé avec l'ID: " + id);
+        if (id.equals(evenementDTO.getSerieId())) {
+            // Les dates d'une occurrence développée déplaceraient le début de toute la série
+            throw new RequeteInvalideException("Une occurrence ne peut pas être modifiée seule par cette opération : "
+                    + "créer un événement rattaché à la série, ou modifier la série avec ses propres dates");
         }
         evenementDTO.setId(id);
         Evenement evenement = convertToEntity(evenementDTO);
-        Evenement updated = evenementRepository.save(evenement);
-        return convertToDTO(updated);
+        verifierDuree(evenement);
+        preparerRecurrence(evenement);
+        evenement.setDateModification(LocalDateTime.now());
+        Long versionAttendue = evenementDTO.getVersion();
+        if (evenementRepository.mettreAJourParUtilisateur(evenement, evenementDTO.getUserId(), versionAttendue) == 0) {
+            throw versionAttendue == null ? introuvableOuRefuse(id) : conflitOuIntrouvable(id, evenementDTO.getUserId());
+        }
+        // Sans version attendue, la nouvelle version est relue pour que le client puisse la renvoyer
+        evenement.setVersion(versionAttendue != null
+                ? versionAttendue + 1
+                : evenementRepository.findVersionParUtilisateur(id, evenementDTO.getUserId()).orElseThrow());
+        journaliser(evenementDTO.getUserId(), id, JournalModification.Type.MODIFICATION);
+        EvenementDTO misAJour = convertToDTO(evenement);
+        notifierEnregistrement(misAJour);
+        publier(misAJour.getUserId(), ChangementEvenementDTO.Type.MODIFICATION, id, misAJour);
+        return misAJour;
     }
 
     @Override
-    public void supprimerEvenement(Long id) {
-        if (!evenementRepository.existsById(id)) {
-            throw new EntityNotFoundException("Événement non trouvé avec l'ID: " + id);
+    @Transactional
+    public void supprimerEvenement(Long id, Long userId) {
+        // Les occurrences modifiées emportées avec une série ont aussi besoin de leur entrée au journal
+        List<Long> ids = evenementRepository.findIdsSupprimables(id, userId);
+        if (ids.isEmpty()) {
+            throw introuvableOuRefuse(id);
+        }
+        int supprimes = evenementRepository.supprimerParUtilisateur(id, userId);
+        evenementLotRepository.journaliserEnLot(userId, ids, JournalModification.Type.SUPPRESSION, LocalDateTime.now());
+        apresCommit(() -> {
+            if (supprimes > 1) {
+                // Une série a emporté ses occurrences modifiées, dont les ids ne sont pas connus ici :
+                // l'index des plages est rechargé, et la recherche ignore les ids disparus jusqu'à sa reconstruction
+                indexPlages.invalider(userId);
+            } else {
+                indexPlages.retirer(userId, id);
+            }
+            moteurRecherche.retirer(id);
+        });
+        // Les clients ne peuvent pas retrouver seuls les occurrences modifiées supprimées avec leur série
+        if (supprimes > 1) {
+            publier(userId, ChangementEvenementDTO.Type.RESYNC, null, null);
+        } else {
+            publier(userId, ChangementEvenementDTO.Type.SUPPRESSION, id, null);
+        }
+    }
+
+    /**
+     * Inscrit une modification au journal de synchronisation, dans la transaction de l'écriture.
+     * L'entrée est datée de son inscription, faite en fin d'écriture : la synchronisation suppose
+     * que la transaction est validée peu après (ajenda.app.sync.delaiStabilisationMs).
+     */
+    private void journaliser(Long userId, Long evenementId, JournalModification.Type type) {
+        journalModificationRepository.save(new JournalModification(userId, evenementId, type, LocalDateTime.now()));
+    }
+
+    /**
+     * Reporte un événement créé ou modifié dans les index en mémoire une fois la transaction validée
+     */
+    private void notifierEnregistrement(EvenementDTO evenement) {
+        apresCommit(() -> {
+            indexPlages.enregistrer(evenement);
+            moteurRecherche.indexer(evenement);
+        });
+    }
+
+    /**
+     * Change la version de l'agenda de l'utilisateur et pousse le changement aux abonnés de son flux
+     * une fois la transaction validée. Ses lectures suivantes ne passent pas par une réplique en retard.
+     */
+    private void publier(Long userId, ChangementEvenementDTO.Type type, Long id, EvenementDTO evenement) {
+        RoutageLectureEcriture.signalerEcriture(userId);
+        apresCommit(() -> {
+            versionsAgendas.signalerChangement(userId);
+            busChangements.publier(userId, new ChangementEvenementDTO(type, id, evenement));
+        });
+    }
+
+    /**
+     * Exécute l'action après la validation de la transaction courante, ou immédiatement hors transaction.
+     * Un index mis à jour avant le commit pourrait exposer une écriture finalement annulée,
+     * ou être rechargé depuis la base avant que l'écriture n'y soit visible.
+     */
+    private void apresCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Distingue, après une écriture qui n'a touché aucune ligne, un événement inexistant
+     * d'un événement appartenant à un autre utilisateur. Ce chemin d'erreur est le seul
+     * à coûter une requête supplémentaire.
+     */
+    private RuntimeException introuvableOuRefuse(Long id) {
+        if (evenementRepository.existsById(id)) {
+            return new AccesRefuseException("Cet événement appartient à un autre utilisateur: " + id);
         }
-        evenementRepository.deleteById(id);
+        return new EntityNotFoundException("Événement non trouvé avec l'ID: " + id);
+    }
+
+    /**
+     * Distingue, après une modification refusée, un événement modifié depuis la version attendue
+     * d'un événement inexistant ou appartenant à un autre utilisateur
+     */
+    private RuntimeException conflitOuIntrouvable(Long id, Long userId) {
+        if (evenementRepository.findVersionParUtilisateur(id, userId).isPresent()) {
+            return new ConflitVersionException("L'événement a été modifié depuis sa lecture, le relire avant de réessayer: " + id);
+        }
+        return introuvableOuRefuse(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<EvenementDTO> getTousLesEvenements() {
-        return evenementRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return evenementRepository.findAllDTO();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<EvenementDTO> getEvenementsParPlageDeDates(LocalDateTime debut, LocalDateTime fin) {
-        return evenementRepository.findByDateDebutAndDateFin(debut, fin).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<EvenementDTO> candidats = new ArrayList<>(evenementRepository.findPonctuelsParPlage(debut, fin, debutMin(debut)));
+        candidats.addAll(evenementRepository.findSeriesParPlage(debut, fin));
+        return DeveloppementRecurrences.developper(candidats, debut, fin);
     }
 
     @Override
-    public List<EvenementDTO> rechercherEvenements(String motCle) {
-        return evenementRepository.findByTitreContainingOrDescriptionContaining(motCle, motCle).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<EvenementDTO> rechercherEvenements(String motCle, int page, int taille) {
+        return chargerDansLOrdre(moteurRecherche.rechercher(null, motCle, Math.max(page, 0),
+                Math.min(Math.max(taille, 1), TAILLE_PAGE_MAX)));
     }
     
     @Override
+    @Transactional(readOnly = true)
     public List<EvenementDTO> getEvenementsParUtilisateur(Long userId) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé avec l'ID: " + userId));
-        
-        return evenementRepository.findByUser(user).stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+        return evenementRepository.findDTOParUtilisateur(userId);
     }
     
     @Override
+    @Transactional(readOnly = true)
     public List<EvenementDTO> getEvenementsParUtilisateurEtPlageDeDates(Long userId, LocalDateTime debut, LocalDateTime fin) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé avec l'ID: " + userId));
-        
-        return evenementRepository.findByUserAndDateDebutAndDateFin(user, debut, fin).stream()
-            .map(this::convertToDTO)
+        // Les séries sont stockées une seule fois et développées uniquement dans la plage demandée.
+        // L'index est chargé depuis la base principale : une réplique en retard y figerait un état périmé.
+        List<EvenementDTO> candidats = indexPlages.chercher(userId, debut, fin,
+                () -> RoutageLectureEcriture.surPrimaire(() -> getEvenementsParUtilisateur(userId)))
+            .orElseGet(() -> {
+                List<EvenementDTO> evenements = new ArrayList<>(
+                    evenementRepository.findPonctuelsParUtilisateurEtPlage(userId, debut, fin, debutMin(debut)));
+                evenements.addAll(evenementRepository.findSeriesParUtilisateurEtPlage(userId, debut, fin));
+                return evenements;
+            });
+        return DeveloppementRecurrences.developper(candidats, debut, fin);
+    }
+    
+    /**
+     * Début au plus tôt d'un événement non récurrent pouvant chevaucher une plage commençant à debut.
+     * La durée maximale ne s'applique qu'aux écritures : la borne est aussi la durée du plus long événement
+     * déjà enregistré, lue une fois en base, pour que les événements plus longs écrits avant restent trouvés.
+     */
+    private LocalDateTime debutMin(LocalDateTime debut) {
+        long retrospective = retrospectiveSecondes.get();
+        if (retrospective < 0) {
+            Long plusLong = evenementRepository.findDureeMaxPonctuelsSecondes();
+            long lue = Math.max(plusLong != null ? plusLong : 0, Duration.ofDays(dureeMaxJours).toSeconds());
+            retrospective = retrospectiveSecondes.accumulateAndGet(lue, Math::max);
+        }
+        return debut.minusSeconds(retrospective);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> getChevauchements(Long userId, LocalDateTime debut, LocalDateTime fin, Long exclureId) {
+        if (debut == null || fin == null || !fin.isAfter(debut)) {
+            return List.of();
+        }
+        // La lecture par plage passe par l'index quand il est actif : O(log n + k) au lieu d'un parcours de l'agenda
+        return getEvenementsParUtilisateurEtPlageDeDates(userId, debut, fin).stream()
+            .filter(evenement -> !evenement.isEstJourneeEntiere())
+            .filter(evenement -> !Objects.equals(evenement.getId(), exclureId))
+            .filter(evenement -> evenement.getDateDebut().isBefore(fin) && evenement.getDateFin().isAfter(debut))
+            // Une occurrence développée porte l'ID de sa série
+            .map(EvenementDTO::getId)
+            .distinct()
             .collect(Collectors.toList());
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ResumeCreneauDTO> getResumeParUtilisateur(Long userId, LocalDateTime debut, LocalDateTime fin,
+                                                          Granularite granularite) {
+        // Vérifiées avant la lecture : une plage trop longue est refusée sans lire les événements
+        List<LocalDateTime> bornes = ResumePlanning.bornes(debut, fin, granularite, CRENEAUX_RESUME_MAX);
+        // Les créneaux débordent la plage demandée : les événements sont lus sur les créneaux entiers
+        List<Intervalle> intervalles = getEvenementsParUtilisateurEtPlageDeDates(userId, bornes.get(0),
+                bornes.get(bornes.size() - 1))
+                .stream()
+                .map(Intervalle::de)
+                .collect(Collectors.toList());
+        return ResumePlanning.resumer(intervalles, bornes);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EvenementDTO> rechercherEvenementsParUtilisateur(Long userId, String motCle, int page, int taille) {
+        return chargerDansLOrdre(moteurRecherche.rechercher(userId, motCle, Math.max(page, 0),
+            Math.min(Math.max(taille, 1), TAILLE_PAGE_MAX)));
+    }
     
     @Override
-    public List<EvenementDTO> rechercherEvenementsParUtilisateur(Long userId, String motCle) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé avec l'ID: " + userId));
-        
-        return evenementRepository.findByUserAndTitreContainingOrUserAndDescriptionContaining(user, motCle, user, motCle).stream()
-            .map(this::convertToDTO)
+    @Transactional(readOnly = true)
+    public String getVersionAgenda(Long userId) {
+        VersionAgenda version = evenementRepository.findVersionAgenda(userId);
+        LocalDateTime derniere = version.getDerniereModification();
+        long micros = derniere == null ? 0
+            : derniere.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + derniere.getNano() / 1_000;
+        return Long.toString(version.getNombre(), 36) + "-" + Long.toString(micros, 36);
+    }
+    
+    @Override
+    public int reconstruireIndexRecherche() {
+        return moteurRecherche.reconstruire();
+    }
+    
+    /**
+     * Charge les événements d'identifiants donnés en conservant l'ordre de pertinence du moteur
+     */
+    private List<EvenementDTO> chargerDansLOrdre(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, EvenementDTO> parId = evenementRepository.findDTOParIds(ids).stream()
+            .collect(Collectors.toMap(EvenementDTO::getId, Function.identity()));
+        return ids.stream()
+            .map(parId::get)
+            .filter(Objects::nonNull)
             .collect(Collectors.toList());
     }
-} 
\ No newline at end of file
+    
+    @Override
+    @Transactional(readOnly = true)
+    public PageEvenementsDTO getPageEvenementsParUtilisateur(Long userId, String curseur, int taille) {
+        int limite = Math.min(Math.max(taille, 1), TAILLE_PAGE_MAX);
+        List<EvenementDTO> evenements;
+        if (curseur == null || curseur.isBlank()) {
+            evenements = evenementRepository.findByUserIdOrderByDateDebutAscIdAsc(userId, Limit.of(limite + 1));
+        } else {
+            Curseur position = Curseur.decoder(curseur);
+            evenements = evenementRepository.findPageSuivanteParUtilisateur(
+                userId, position.dateDebut(), position.id(), Limit.of(limite + 1));
+        }
+        return construirePage(evenements, limite);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public PageEvenementsDTO getPageTousLesEvenements(String curseur, int taille) {
+        int limite = Math.min(Math.max(taille, 1), TAILLE_PAGE_MAX);
+        List<EvenementDTO> evenements;
+        if (curseur == null || curseur.isBlank()) {
+            evenements = evenementRepository.findAllByOrderByDateDebutAscIdAsc(Limit.of(limite + 1));
+        } else {
+            Curseur position = Curseur.decoder(curseur);
+            evenements = evenementRepository.findPageSuivante(position.dateDebut(), position.id(), Limit.of(limite + 1));
+        }
+        return construirePage(evenements, limite);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public void parcourirEvenementsParUtilisateur(Long userId, Consumer<EvenementDTO> consommateur) {
+        try (Stream<EvenementDTO> flux = evenementRepository.streamByUserId(userId)) {
+            flux.forEach(consommateur);
+        }
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public void parcourirTousLesEvenements(Consumer<EvenementDTO> consommateur) {
+        try (Stream<EvenementDTO> flux = evenementRepository.streamAll()) {
+            flux.forEach(consommateur);
+        }
+    }
+    
+    /**
+     * Construit une page à partir d'un résultat contenant au plus un élément de plus que la limite,
+     * cet élément supplémentaire indiquant l'existence d'une page suivante
+     */
+    private PageEvenementsDTO construirePage(List<EvenementDTO> evenements, int limite) {
+        boolean pageSuivante = evenements.size() > limite;
+        List<EvenementDTO> page = pageSuivante ? evenements.subList(0, limite) : evenements;
+        String curseurSuivant = null;
+        if (pageSuivante) {
+            EvenementDTO dernier = page.get(page.size() - 1);
+            curseurSuivant = new Curseur(dernier.getDateDebut(), dernier.getId()).encoder();
+        }
+        return new PageEvenementsDTO(page, curseurSuivant);
+    }
+    
+    /**
+     * Position opaque dans la liste des événements triés par (dateDebut, id)
+     */
+    private record Curseur(LocalDateTime dateDebut, Long id) {
+        
+        String encoder() {
+            String brut = dateDebut + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(brut.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static Curseur decoder(String curseur) {
+            try {
+                String brut = new String(Base64.getUrlDecoder().decode(curseur), StandardCharsets.UTF_8);
+                int separateur = brut.indexOf('|');
+                return new Curseur(LocalDateTime.parse(brut.substring(0, separateur)),
+                    Long.valueOf(brut.substring(separateur + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new RequeteInvalideException("Curseur de pagination invalide: " + curseur);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.EvenementDTO;
+import com.example.demo.dto.SynchronisationDTO;
+import com.example.demo.exception.JetonExpireException;
+import com.example.demo.exception.RequeteInvalideException;
+import com.example.demo.model.JournalModification;
+import com.example.demo.repository.EvenementRepository;
+import com.example.demo.repository.JournalModificationRepository;
+import com.example.demo.service.SynchronisationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Implémentation de la synchronisation par le journal des modifications.
+ * Le journal est écrit par EvenementServiceImpl dans la transaction de chaque écriture. Un identifiant
+ * attribué n'est pas forcément encore visible : une transaction plus ancienne peut valider après une plus récente.
+ * Les jetons ne dépassent donc jamais les entrées écrites depuis moins de delaiStabilisationMs, qui sont lues
+ * à la synchronisation suivante.
+ */
+@Service
+public class SynchronisationServiceImpl implements SynchronisationService {
+    private static final Logger logger = LoggerFactory.getLogger(SynchronisationServiceImpl.class);
+
+    private final JournalModificationRepository journalModificationRepository;
+    private final EvenementRepository evenementRepository;
+
+    @Value("${ajenda.app.sync.maxModifications:1000}")
+    private int maxModifications;
+
+    @Value("${ajenda.app.sync.delaiStabilisationMs:5000}")
+    private long delaiStabilisationMs;
+
+    @Value("${ajenda.app.sync.retentionJours:30}")
+    private int retentionJours;
+
+    @Value("${ajenda.app.sync.compaction.tailleLot:10000}")
+    private int tailleLotCompaction;
+
+    @Autowired
+    public SynchronisationServiceImpl(JournalModificationRepository journalModificationRepository,
+                                      EvenementRepository evenementRepository) {
+        this.journalModificationRepository = journalModificationRepository;
+        this.evenementRepository = evenementRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SynchronisationDTO synchroniser(Long userId, String depuis) {
+        // Lu avant les événements : ce qui est modifié ensuite sera relu, jamais perdu
+        long stable = dernierIdAvant(LocalDateTime.now().minus(delaiStabilisationMs, ChronoUnit.MILLIS));
+        if (depuis == null || depuis.isBlank()) {
+            return new SynchronisationDTO(evenementRepository.findDTOParUtilisateur(userId), List.of(),
+                    Long.toString(stable), true, true);
+        }
+
+        long jeton = analyserJeton(depuis);
+        Optional<Long> premier = journalModificationRepository.findPremierId();
+        if (premier.isPresent() && jeton < premier.get() - 1) {
+            throw new JetonExpireException("Jeton de synchronisation expiré, une copie complète est nécessaire: " + depuis);
+        }
+        if (stable <= jeton) {
+            return new SynchronisationDTO(List.of(), List.of(), Long.toString(jeton), true, false);
+        }
+
+        List<JournalModification> entrees = journalModificationRepository.findParUtilisateurEntre(
+                userId, jeton, stable, Limit.of(maxModifications + 1));
+        boolean complet = entrees.size() <= maxModifications;
+        if (!complet) {
+            entrees = entrees.subList(0, maxModifications);
+        }
+
+        // Seule la dernière modification de chaque événement compte
+        Map<Long, JournalModification.Type> dernieres = new LinkedHashMap<>();
+        for (JournalModification entree : entrees) {
+            dernieres.put(entree.getEvenementId(), entree.getType());
+        }
+        List<Long> modifies = new ArrayList<>();
+        List<Long> supprimes = new ArrayList<>();
+        dernieres.forEach((id, type) -> (type == JournalModification.Type.SUPPRESSION ? supprimes : modifies).add(id));
+        // Un événement supprimé depuis la lecture du journal manque ici : sa suppression suit dans le journal
+        List<EvenementDTO> evenements = modifies.isEmpty() ? List.of() : evenementRepository.findDTOParIds(modifies);
+
+        long suivant = complet ? stable : entrees.get(entrees.size() - 1).getId();
+        return new SynchronisationDTO(evenements, supprimes, Long.toString(suivant), complet, false);
+    }
+
+    @Override
+    @Scheduled(cron = "${ajenda.app.sync.compaction.cron:0 30 3 * * *}")
+    public int compacterJournal() {
+        Optional<Long> premier = journalModificationRepository.findPremierId();
+        // L'entrée à l'horizon est conservée : la plus ancienne entrée restante borne les jetons encore valides
+        long horizon = dernierIdAvant(LocalDateTime.now().minusDays(retentionJours));
+        if (premier.isEmpty() || horizon <= premier.get()) {
+            return 0;
+        }
+        // Par lots, chacun dans sa transaction, pour ne pas verrouiller tout le journal
+        int supprimees = 0;
+        for (long debut = premier.get(); debut < horizon; debut += tailleLotCompaction) {
+            supprimees += journalModificationRepository.supprimerEntre(debut, Math.min(debut + tailleLotCompaction, horizon));
+        }
+        logger.info("Journal des modifications compacté: {} entrées antérieures à {} supprimées", supprimees, horizon);
+        return supprimees;
+    }
+
+    /**
+     * Identifiant de la dernière entrée du journal écrite avant une date, 0 si aucune
+     */
+    private long dernierIdAvant(LocalDateTime date) {
+        List<Long> ids = journalModificationRepository.findDernierIdAvant(date, Limit.of(1));
+        return ids.isEmpty() ? 0 : ids.get(0);
+    }
+
+    private static long analyserJeton(String jeton) {
+        try {
+            long valeur = Long.parseLong(jeton.trim());
+            if (valeur < 0) {
+                throw new NumberFormatException();
+            }
+            return valeur;
+        } catch (NumberFormatException e) {
+            throw new RequeteInvalideException("Jeton de synchronisation invalide: " + jeton);
+        }
+    }
+}
@@ -25,13 +25,22 @@ public class UserDetailsImpl implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    @JsonIgnore
+    private long versionJeton;
+
     public UserDetailsImpl(Long id, String username, String email, String password,
                            Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, email, password, authorities, 0L);
+    }
+
+    public UserDetailsImpl(Long id, String username, String email, String password,
+                           Collection<? extends GrantedAuthority> authorities, long versionJeton) {
         this.id = id;
         this.username = username;
         this.email = email;
         this.password = password;
         this.authorities = authorities;
+        this.versionJeton = versionJeton;
     }
 
     public static UserDetailsImpl build(User user) {
@@ -44,7 +53,18 @@ public class UserDetailsImpl implements UserDetails {
                 user.getUsername(),
                 user.getEmail(),
                 user.getPassword(),
-                authorities);
+                authorities,
+                user.getVersionJeton());
+    }
+
+    /**
+     * Copie sans le hachage du mot de passe, pour un principal conservé au-delà de l'authentification
+     */
+    public UserDetailsImpl sansMotDePasse() {
+        if (password == null) {
+            return this;
+        }
+        return new UserDetailsImpl(id, username, email, null, authorities, versionJeton);
     }
 
     @Override
@@ -60,6 +80,13 @@ public class UserDetailsImpl implements UserDetails {
         return email;
     }
 
+    /**
+     * Version des tokens JWT de l'utilisateur au moment où ce principal a été construit
+     */
+    public long getVersionJeton() {
+        return versionJeton;
+    }
+
     @Override
     public String getPassword() {
         return password;
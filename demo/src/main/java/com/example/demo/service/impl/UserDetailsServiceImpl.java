@@ -1,25 +1,45 @@
 package com.example.demo.service.impl;
 
+import com.example.demo.config.RoutageLectureEcriture;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     @Autowired
     UserRepository userRepository;
 
+    /**
+     * Lu sur la base principale : à la connexion qui suit une inscription, l'utilisateur n'est connu que par son nom,
+     * aucune écriture récente ne peut lui être rattachée et la réplique ne l'a peut-être pas encore reçu
+     */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        User user = RoutageLectureEcriture.surPrimaire(() -> userRepository.findByUsername(username))
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé avec le nom d'utilisateur: " + username));
 
         return UserDetailsImpl.build(user);
     }
+
+    /**
+     * Enregistre le mot de passe réencodé par Spring Security après une connexion réussie,
+     * quand l'encodage ou la force du hachage précédent a changé.
+     * Passe par l'entité pour que le cache de second niveau soit mis à jour.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé avec le nom d'utilisateur: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        return UserDetailsImpl.build(user);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.example.demo.service.index;
+
+import com.example.demo.dto.EvenementDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Index en mémoire des événements par utilisateur, placé devant les requêtes par plage de dates.
+ * Chaque utilisateur est chargé à la première requête, puis l'index est tenu à jour
+ * par les écritures du service. L'index est local à l'instance : il ne doit être activé
+ * que si toutes les écritures passent par cette même instance.
+ */
+@Component
+public class IndexPlagesEvenements {
+    private static final Logger logger = LoggerFactory.getLogger(IndexPlagesEvenements.class);
+
+    @Value("${ajenda.app.indexPlages.actif:false}")
+    private boolean actif;
+
+    @Value("${ajenda.app.indexPlages.maxUtilisateurs:10000}")
+    private int maxUtilisateurs;
+
+    private final ConcurrentHashMap<Long, Entree> parUtilisateur = new ConcurrentHashMap<>();
+
+    public boolean estActif() {
+        return actif;
+    }
+
+    /**
+     * Cherche les événements d'un utilisateur qui chevauchent une plage de dates.
+     * Si l'utilisateur n'est pas encore indexé, ses événements sont chargés une fois via le chargeur.
+     * @return Les événements trouvés, ou vide si l'index ne peut pas répondre (désactivé, plein
+     *         ou chargement concurrent en cours) et que l'appelant doit interroger la base
+     */
+    public Optional<List<EvenementDTO>> chercher(Long userId, LocalDateTime debut, LocalDateTime fin,
+                                                 Supplier<List<EvenementDTO>> chargeur) {
+        if (!actif) {
+            return Optional.empty();
+        }
+
+        Entree existante = parUtilisateur.get(userId);
+        if (existante != null) {
+            return existante.intervalles == null
+                    ? Optional.empty()
+                    : Optional.of(existante.intervalles.chevauchant(debut, fin));
+        }
+
+        if (parUtilisateur.size() >= maxUtilisateurs) {
+            return Optional.empty();
+        }
+
+        Entree jeton = new Entree(null);
+        if (parUtilisateur.putIfAbsent(userId, jeton) != null) {
+            return Optional.empty();
+        }
+
+        IntervallesTries intervalles;
+        try {
+            intervalles = IntervallesTries.de(chargeur.get());
+        } catch (RuntimeException e) {
+            parUtilisateur.remove(userId, jeton);
+            throw e;
+        }
+
+        // Une écriture survenue pendant le chargement rend l'instantané potentiellement périmé :
+        // on l'abandonne et le prochain appel rechargera depuis la base.
+        parUtilisateur.computeIfPresent(userId, (id, courante) -> {
+            if (courante != jeton) {
+                return courante;
+            }
+            return jeton.perime ? null : new Entree(intervalles);
+        });
+        logger.debug("Index des plages chargé pour l'utilisateur {}: {} événements", userId, intervalles.taille());
+
+        return Optional.of(intervalles.chevauchant(debut, fin));
+    }
+
+    /**
+     * Ajoute ou remplace un événement dans l'index de son propriétaire
+     */
+    public void enregistrer(EvenementDTO evenement) {
+        if (!actif || evenement.getUserId() == null) {
+            return;
+        }
+        parUtilisateur.computeIfPresent(evenement.getUserId(), (id, entree) -> entree.apres(e -> e.avec(evenement)));
+    }
+
+    /**
+     * Retire un événement de l'index de son propriétaire
+     */
+    public void retirer(Long userId, Long evenementId) {
+        if (!actif || userId == null) {
+            return;
+        }
+        parUtilisateur.computeIfPresent(userId, (id, entree) -> entree.apres(e -> e.sans(evenementId)));
+    }
+
+    /**
+     * Oublie l'index d'un utilisateur, qui sera rechargé à la prochaine requête
+     */
+    public void invalider(Long userId) {
+        parUtilisateur.remove(userId);
+    }
+
+    /**
+     * Entrée de l'index d'un utilisateur. Une entrée sans intervalles représente un chargement en cours.
+     */
+    private static final class Entree {
+        private final IntervallesTries intervalles;
+        private volatile boolean perime;
+
+        private Entree(IntervallesTries intervalles) {
+            this.intervalles = intervalles;
+        }
+
+        private Entree apres(UnaryOperator<IntervallesTries> modification) {
+            if (intervalles == null) {
+                perime = true;
+                return this;
+            }
+            return new Entree(modification.apply(intervalles));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.demo.service.index;
+
+import com.example.demo.dto.EvenementDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Instantané immuable des événements d'un utilisateur, triés par date de début.
+ * Pour les événements ponctuels, le tableau des maxima cumulés des dates de fin permet de trouver
+ * par dichotomie le premier événement susceptible de chevaucher une plage donnée.
+ * Les séries, peu nombreuses et souvent sans fin, sont tenues à part et parcourues entièrement :
+ * une seule série illimitée porterait sinon le maximum cumulé à l'infini pour tous les événements suivants.
+ */
+final class IntervallesTries {
+
+    private static final Comparator<EvenementDTO> ORDRE = Comparator
+            .comparing(EvenementDTO::getDateDebut)
+            .thenComparing(EvenementDTO::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final EvenementDTO[] ponctuels;
+    private final LocalDateTime[] finsMax;
+    private final EvenementDTO[] series;
+
+    private IntervallesTries(EvenementDTO[] ponctuelsTries, EvenementDTO[] seriesTriees) {
+        this.ponctuels = ponctuelsTries;
+        this.series = seriesTriees;
+        this.finsMax = new LocalDateTime[ponctuelsTries.length];
+        LocalDateTime max = null;
+        for (int i = 0; i < ponctuelsTries.length; i++) {
+            LocalDateTime fin = ponctuelsTries[i].getDateFin();
+            if (max == null || fin.isAfter(max)) {
+                max = fin;
+            }
+            finsMax[i] = max;
+        }
+    }
+
+    /**
+     * Construit l'index à partir d'une collection quelconque d'événements
+     */
+    static IntervallesTries de(Collection<EvenementDTO> source) {
+        List<EvenementDTO> ponctuels = new ArrayList<>(source.size());
+        List<EvenementDTO> series = new ArrayList<>();
+        for (EvenementDTO evenement : source) {
+            (estSerie(evenement) ? series : ponctuels).add(evenement);
+        }
+        EvenementDTO[] ponctuelsTries = ponctuels.toArray(new EvenementDTO[0]);
+        EvenementDTO[] seriesTriees = series.toArray(new EvenementDTO[0]);
+        Arrays.sort(ponctuelsTries, ORDRE);
+        Arrays.sort(seriesTriees, ORDRE);
+        return new IntervallesTries(ponctuelsTries, seriesTriees);
+    }
+
+    /**
+     * Retourne les événements qui chevauchent la plage [debut, fin], bornes incluses,
+     * avec la même sémantique que les requêtes par plage d'EvenementRepository :
+     * une série est retenue dès que sa période de récurrence chevauche la plage
+     */
+    List<EvenementDTO> chevauchant(LocalDateTime debut, LocalDateTime fin) {
+        int premier = premierAvecFinMaxApres(debut);
+        int limite = premierAvecDebutApres(fin);
+        List<EvenementDTO> trouves = new ArrayList<>(Math.max(0, limite - premier));
+        for (int i = premier; i < limite; i++) {
+            if (!ponctuels[i].getDateFin().isBefore(debut)) {
+                trouves.add(ponctuels[i]);
+            }
+        }
+
+        List<EvenementDTO> seriesTrouvees = new ArrayList<>();
+        for (EvenementDTO serie : series) {
+            if (serie.getDateDebut().isAfter(fin)) {
+                break;
+            }
+            if (serie.getFinRecurrence() == null || !serie.getFinRecurrence().isBefore(debut)) {
+                seriesTrouvees.add(serie);
+            }
+        }
+        return seriesTrouvees.isEmpty() ? trouves : fusionner(trouves, seriesTrouvees);
+    }
+
+    /**
+     * Retourne un nouvel index contenant l'événement, en remplaçant une éventuelle version précédente
+     */
+    IntervallesTries avec(EvenementDTO evenement) {
+        EvenementDTO[] ponctuelsRestants = copieSans(ponctuels, evenement.getId());
+        EvenementDTO[] seriesRestantes = copieSans(series, evenement.getId());
+        return estSerie(evenement)
+                ? new IntervallesTries(ponctuelsRestants, insere(seriesRestantes, evenement))
+                : new IntervallesTries(insere(ponctuelsRestants, evenement), seriesRestantes);
+    }
+
+    /**
+     * Retourne un nouvel index sans l'événement d'id donné
+     */
+    IntervallesTries sans(Long id) {
+        EvenementDTO[] ponctuelsRestants = copieSans(ponctuels, id);
+        EvenementDTO[] seriesRestantes = copieSans(series, id);
+        return ponctuelsRestants == ponctuels && seriesRestantes == series
+                ? this
+                : new IntervallesTries(ponctuelsRestants, seriesRestantes);
+    }
+
+    int taille() {
+        return ponctuels.length + series.length;
+    }
+
+    private static boolean estSerie(EvenementDTO evenement) {
+        return evenement.getRegleRecurrence() != null;
+    }
+
+    /**
+     * Fusionne deux listes triées selon l'ordre de l'index
+     */
+    private static List<EvenementDTO> fusionner(List<EvenementDTO> a, List<EvenementDTO> b) {
+        List<EvenementDTO> resultat = new ArrayList<>(a.size() + b.size());
+        int i = 0;
+        int j = 0;
+        while (i < a.size() && j < b.size()) {
+            resultat.add(ORDRE.compare(a.get(i), b.get(j)) <= 0 ? a.get(i++) : b.get(j++));
+        }
+        resultat.addAll(a.subList(i, a.size()));
+        resultat.addAll(b.subList(j, b.size()));
+        return resultat;
+    }
+
+    private static EvenementDTO[] insere(EvenementDTO[] tries, EvenementDTO evenement) {
+        int position = Arrays.binarySearch(tries, evenement, ORDRE);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        EvenementDTO[] nouveaux = new EvenementDTO[tries.length + 1];
+        System.arraycopy(tries, 0, nouveaux, 0, position);
+        nouveaux[position] = evenement;
+        System.arraycopy(tries, position, nouveaux, position + 1, tries.length - position);
+        return nouveaux;
+    }
+
+    private static EvenementDTO[] copieSans(EvenementDTO[] tries, Long id) {
+        if (id == null) {
+            return tries;
+        }
+        for (int i = 0; i < tries.length; i++) {
+            if (id.equals(tries[i].getId())) {
+                EvenementDTO[] copie = new EvenementDTO[tries.length - 1];
+                System.arraycopy(tries, 0, copie, 0, i);
+                System.arraycopy(tries, i + 1, copie, i, tries.length - i - 1);
+                return copie;
+            }
+        }
+        return tries;
+    }
+
+    private int premierAvecFinMaxApres(LocalDateTime debut) {
+        int bas = 0;
+        int haut = finsMax.length;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (finsMax[milieu].isBefore(debut)) {
+                bas = milieu + 1;
+            } else {
+                haut = milieu;
+            }
+        }
+        return bas;
+    }
+
+    private int premierAvecDebutApres(LocalDateTime fin) {
+        int bas = 0;
+        int haut = ponctuels.length;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (ponctuels[milieu].getDateDebut().isAfter(fin)) {
+                haut = milieu;
+            } else {
+                bas = milieu + 1;
+            }
+        }
+        return bas;
+    }
+}
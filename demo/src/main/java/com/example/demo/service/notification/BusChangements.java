@@ -0,0 +1,227 @@
+package com.example.demo.service.notification;
+
+import com.example.demo.dto.ChangementEvenementDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Diffusion en mémoire des changements d'événements vers les abonnés SSE de chaque utilisateur.
+ * Chaque abonné dispose d'un tampon borné vidé par un pool d'envoi : un abonné trop lent
+ * ne ralentit ni les écritures ni les autres abonnés. Quand son tampon déborde, les changements
+ * en attente sont abandonnés et remplacés par un unique RESYNC.
+ * Le bus est local à l'instance, comme les index en mémoire.
+ */
+@Component
+public class BusChangements {
+    private static final Logger logger = LoggerFactory.getLogger(BusChangements.class);
+
+    @Value("${ajenda.app.sse.tailleTampon:256}")
+    private int tailleTampon;
+
+    @Value("${ajenda.app.sse.maxAbonnementsParUtilisateur:5}")
+    private int maxAbonnementsParUtilisateur;
+
+    @Value("${ajenda.app.sse.delaiPingMs:25000}")
+    private long delaiPingMs;
+
+    @Value("${ajenda.app.sse.threadsEnvoi:4}")
+    private int threadsEnvoi;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, Queue<Abonnement>> parUtilisateur = new ConcurrentHashMap<>();
+    private final AtomicInteger nombreAbonnements = new AtomicInteger();
+
+    private ExecutorService envoi;
+    private ScheduledExecutorService ping;
+    private Counter resynchronisations;
+
+    public BusChangements(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger numero = new AtomicInteger();
+        envoi = Executors.newFixedThreadPool(threadsEnvoi, tache -> {
+            Thread thread = new Thread(tache, "sse-envoi-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ping = Executors.newSingleThreadScheduledExecutor(tache -> {
+            Thread thread = new Thread(tache, "sse-ping");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ping.scheduleAtFixedRate(this::demanderPings, delaiPingMs, delaiPingMs, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("ajenda.sse.abonnements", nombreAbonnements, AtomicInteger::get)
+                .description("Abonnés connectés au flux des changements")
+                .register(meterRegistry);
+        resynchronisations = Counter.builder("ajenda.sse.resynchronisations")
+                .description("Tampons d'abonnés débordés, remplacés par un RESYNC")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void arreter() {
+        ping.shutdownNow();
+        envoi.shutdownNow();
+        parUtilisateur.values().forEach(abonnements -> abonnements.forEach(abonnement -> abonnement.emetteur.complete()));
+        parUtilisateur.clear();
+    }
+
+    /**
+     * Abonne un client aux changements des événements d'un utilisateur.
+     * Au-delà du nombre maximal d'abonnements de l'utilisateur, le plus ancien est fermé.
+     */
+    public SseEmitter abonner(Long userId, long delaiExpirationMs) {
+        SseEmitter emetteur = new SseEmitter(delaiExpirationMs);
+        Abonnement abonnement = new Abonnement(userId, emetteur, tailleTampon);
+        Queue<Abonnement> abonnements = parUtilisateur.computeIfAbsent(userId, id -> new ConcurrentLinkedQueue<>());
+        abonnements.add(abonnement);
+        nombreAbonnements.incrementAndGet();
+        emetteur.onCompletion(() -> desabonner(abonnement));
+        emetteur.onTimeout(() -> desabonner(abonnement));
+        emetteur.onError(erreur -> desabonner(abonnement));
+
+        while (abonnements.size() > maxAbonnementsParUtilisateur) {
+            Abonnement ancien = abonnements.poll();
+            if (ancien == null) {
+                break;
+            }
+            desabonner(ancien);
+            ancien.emetteur.complete();
+        }
+        logger.debug("Nouvel abonné au flux des changements pour l'utilisateur {}", userId);
+        return emetteur;
+    }
+
+    /**
+     * Publie un changement à tous les abonnés de l'utilisateur, sans jamais bloquer l'appelant
+     */
+    public void publier(Long userId, ChangementEvenementDTO changement) {
+        if (userId == null) {
+            return;
+        }
+        Queue<Abonnement> abonnements = parUtilisateur.get(userId);
+        if (abonnements == null) {
+            return;
+        }
+        for (Abonnement abonnement : abonnements) {
+            if (abonnement.tampon.deposer(changement)) {
+                resynchronisations.increment();
+            }
+            planifier(abonnement);
+        }
+    }
+
+    private void demanderPings() {
+        for (Queue<Abonnement> abonnements : parUtilisateur.values()) {
+            for (Abonnement abonnement : abonnements) {
+                abonnement.pingDemande = true;
+                planifier(abonnement);
+            }
+        }
+    }
+
+    private void planifier(Abonnement abonnement) {
+        if (abonnement.enCours.compareAndSet(false, true)) {
+            try {
+                envoi.execute(() -> vider(abonnement));
+            } catch (RuntimeException e) {
+                abonnement.enCours.set(false);
+                logger.warn("Envoi SSE impossible: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Envoie le contenu du tampon d'un abonné, puis un ping s'il est dû. Un seul envoi est actif par abonné à la fois,
+     * ce qui préserve l'ordre des changements.
+     */
+    private void vider(Abonnement abonnement) {
+        try {
+            ChangementEvenementDTO changement;
+            while (!abonnement.ferme && (changement = abonnement.tampon.prelever()) != null) {
+                envoyer(abonnement, changement);
+            }
+            if (abonnement.pingDemande) {
+                abonnement.pingDemande = false;
+                abonnement.emetteur.send(SseEmitter.event().comment("ping"));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client déconnecté : l'émetteur est terminé et l'abonnement retiré
+            logger.debug("Abonné SSE déconnecté pour l'utilisateur {}: {}", abonnement.userId, e.getMessage());
+            desabonner(abonnement);
+            abonnement.emetteur.completeWithError(e);
+        } finally {
+            abonnement.enCours.set(false);
+        }
+        if (!abonnement.ferme && (!abonnement.tampon.estVide() || abonnement.pingDemande)) {
+            planifier(abonnement);
+        }
+    }
+
+    private void envoyer(Abonnement abonnement, ChangementEvenementDTO changement) throws IOException {
+        abonnement.emetteur.send(SseEmitter.event()
+                .name(changement.getType().name().toLowerCase(Locale.ROOT))
+                .data(changement, MediaType.APPLICATION_JSON));
+    }
+
+    private void desabonner(Abonnement abonnement) {
+        if (abonnement.ferme) {
+            return;
+        }
+        abonnement.ferme = true;
+        nombreAbonnements.decrementAndGet();
+        parUtilisateur.computeIfPresent(abonnement.userId, (id, abonnements) -> {
+            for (Iterator<Abonnement> it = abonnements.iterator(); it.hasNext(); ) {
+                if (it.next() == abonnement) {
+                    it.remove();
+                }
+            }
+            return abonnements.isEmpty() ? null : abonnements;
+        });
+    }
+
+    /**
+     * Client abonné : émetteur SSE, tampon borné des changements en attente et état de l'envoi
+     */
+    private static final class Abonnement {
+        private final Long userId;
+        private final SseEmitter emetteur;
+        private final TamponChangements tampon;
+        private final AtomicBoolean enCours = new AtomicBoolean();
+        private volatile boolean pingDemande;
+        private volatile boolean ferme;
+
+        private Abonnement(Long userId, SseEmitter emetteur, int tailleTampon) {
+            this.userId = userId;
+            this.emetteur = emetteur;
+            this.tampon = new TamponChangements(tailleTampon);
+        }
+    }
+}
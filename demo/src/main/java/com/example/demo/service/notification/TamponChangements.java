@@ -0,0 +1,53 @@
+package com.example.demo.service.notification;
+
+import com.example.demo.dto.ChangementEvenementDTO;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tampon borné des changements en attente d'envoi à un abonné.
+ * Le dépôt ne bloque jamais : quand le tampon est plein, le changement est refusé et le prochain prélèvement
+ * abandonne les changements en attente pour renvoyer un unique RESYNC. Les changements déposés avant ce prélèvement
+ * sont eux aussi couverts par le rechargement du client ; seuls ceux déposés ensuite sont envoyés.
+ * Seul le prélèvement vide le tampon : un dépôt qui le viderait pourrait effacer un changement accepté
+ * juste après qu'un autre thread a prélevé le RESYNC, sans qu'aucun RESYNC ne le couvre.
+ */
+final class TamponChangements {
+
+    private static final ChangementEvenementDTO RESYNC =
+            new ChangementEvenementDTO(ChangementEvenementDTO.Type.RESYNC, null, null);
+
+    private final ArrayBlockingQueue<ChangementEvenementDTO> file;
+    private final AtomicBoolean aResynchroniser = new AtomicBoolean();
+
+    TamponChangements(int capacite) {
+        this.file = new ArrayBlockingQueue<>(capacite);
+    }
+
+    /**
+     * Dépose un changement
+     * @return true si ce dépôt a fait déborder le tampon, false s'il a été accepté ou si un RESYNC était déjà dû
+     */
+    boolean deposer(ChangementEvenementDTO changement) {
+        if (file.offer(changement)) {
+            return false;
+        }
+        return !aResynchroniser.getAndSet(true);
+    }
+
+    /**
+     * Prélève le prochain changement à envoyer, ou null si le tampon est vide
+     */
+    ChangementEvenementDTO prelever() {
+        if (aResynchroniser.getAndSet(false)) {
+            file.clear();
+            return RESYNC;
+        }
+        return file.poll();
+    }
+
+    boolean estVide() {
+        return !aResynchroniser.get() && file.isEmpty();
+    }
+}
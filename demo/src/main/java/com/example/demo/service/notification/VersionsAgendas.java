@@ -0,0 +1,69 @@
+package com.example.demo.service.notification;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions en mémoire des agendas, servant d'ETag aux lectures des événements d'un utilisateur
+ * sans interroger la base. Chaque écriture validée donne à l'agenda de son utilisateur une nouvelle valeur
+ * d'une séquence croissante ; un utilisateur absent (jamais vu, évincé ou expiré) en reçoit aussi une nouvelle,
+ * de sorte qu'une version déjà distribuée ne peut jamais désigner un autre état de l'agenda.
+ * Les versions sont locales à l'instance, comme le bus des changements, et préfixées par un identifiant
+ * d'instance : les écritures reçues par une autre instance ne sont vues ici qu'au plus tard après ttlMs.
+ */
+@Component
+public class VersionsAgendas {
+
+    @Value("${ajenda.app.versionsAgendas.taille:100000}")
+    private long taille;
+
+    @Value("${ajenda.app.versionsAgendas.ttlMs:60000}")
+    private long ttlMs;
+
+    private final MeterRegistry meterRegistry;
+    private final String instance = Long.toString(UUID.randomUUID().getMostSignificantBits() >>> 1, 36);
+    private final AtomicLong sequence = new AtomicLong();
+
+    private Cache<Long, Long> versions;
+
+    public VersionsAgendas(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(taille)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "ajenda.agendas.versions");
+    }
+
+    /**
+     * Version courante de l'agenda d'un utilisateur, opaque et sans guillemets.
+     * À lire avant les événements : une écriture validée pendant la lecture change la version suivante.
+     */
+    public String version(Long userId) {
+        long valeur = versions.get(userId, id -> sequence.incrementAndGet());
+        return instance + "-" + Long.toString(valeur, 36);
+    }
+
+    /**
+     * Change la version de l'agenda d'un utilisateur après une écriture validée
+     */
+    public void signalerChangement(Long userId) {
+        if (userId != null) {
+            versions.put(userId, sequence.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo.service.planning;
+
+import com.example.demo.dto.ConflitDTO;
+import com.example.demo.dto.DisponibilitesDTO;
+import com.example.demo.dto.PlageDTO;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Fusion des agendas de plusieurs utilisateurs pour trouver leurs plages libres communes et leurs conflits.
+ * Les intervalles de chaque utilisateur, déjà triés, sont fusionnés en k voies par une file de priorité
+ * sur leurs têtes ; un tas des intervalles en cours, ordonné par fin, donne les instants où l'ensemble
+ * des utilisateurs occupés change. Entre deux instants consécutifs, la période est libre si personne
+ * n'est occupé, et en conflit si au moins deux utilisateurs le sont.
+ * Comme dans le résumé, les journées entières n'occupent pas d'horaire.
+ */
+public final class FusionAgendas {
+
+    private FusionAgendas() {
+    }
+
+    /**
+     * @param agendas Intervalles de chaque utilisateur, triés par début
+     * @param dureeMin Durée minimale d'une plage libre retenue
+     */
+    public static DisponibilitesDTO calculer(Map<Long, List<Intervalle>> agendas, LocalDateTime debut,
+                                             LocalDateTime fin, Duration dureeMin) {
+        PriorityQueue<Tete> tetes = new PriorityQueue<>(Comparator.comparing(Tete::debutCourant));
+        agendas.forEach((userId, intervalles) -> {
+            Tete tete = new Tete(userId, intervalles);
+            if (tete.avancer()) {
+                tetes.add(tete);
+            }
+        });
+        PriorityQueue<Actif> actifs = new PriorityQueue<>(Comparator.comparing(Actif::fin));
+        // Utilisateurs occupés, avec le nombre de leurs intervalles en cours
+        TreeMap<Long, Integer> occupes = new TreeMap<>();
+        Balayage balayage = new Balayage();
+
+        LocalDateTime curseur = debut;
+        while (!tetes.isEmpty() || !actifs.isEmpty()) {
+            LocalDateTime prochainDebut = tetes.isEmpty() ? null : tetes.peek().debutCourant();
+            LocalDateTime prochaineFin = actifs.isEmpty() ? null : actifs.peek().fin();
+            // À instant égal, une fin passe avant un début : deux réunions qui se suivent ne sont pas en conflit
+            boolean finDAbord = prochaineFin != null && (prochainDebut == null || !prochaineFin.isAfter(prochainDebut));
+            LocalDateTime instant = finDAbord ? prochaineFin : prochainDebut;
+
+            LocalDateTime borne = instant.isAfter(fin) ? fin : instant;
+            if (borne.isAfter(curseur)) {
+                balayage.periode(curseur, borne, occupes);
+                curseur = borne;
+            }
+
+            if (finDAbord) {
+                Long userId = actifs.poll().userId();
+                occupes.computeIfPresent(userId, (id, nombre) -> nombre == 1 ? null : nombre - 1);
+            } else {
+                Tete tete = tetes.poll();
+                actifs.add(new Actif(tete.userId, tete.courant.fin()));
+                occupes.merge(tete.userId, 1, Integer::sum);
+                if (tete.avancer()) {
+                    tetes.add(tete);
+                }
+            }
+        }
+        if (fin.isAfter(curseur)) {
+            balayage.periode(curseur, fin, occupes);
+        }
+
+        List<PlageDTO> plagesLibres = balayage.libres.stream()
+                .filter(plage -> Duration.between(plage.getDebut(), plage.getFin()).compareTo(dureeMin) >= 0)
+                .toList();
+        return new DisponibilitesDTO(plagesLibres, balayage.conflits);
+    }
+
+    /**
+     * Plages libres et conflits accumulés au fil du balayage, les périodes contiguës identiques étant fusionnées
+     */
+    private static final class Balayage {
+        private final List<PlageDTO> libres = new ArrayList<>();
+        private final List<ConflitDTO> conflits = new ArrayList<>();
+
+        void periode(LocalDateTime debut, LocalDateTime fin, TreeMap<Long, Integer> occupes) {
+            if (occupes.isEmpty()) {
+                PlageDTO derniere = libres.isEmpty() ? null : libres.get(libres.size() - 1);
+                if (derniere != null && derniere.getFin().equals(debut)) {
+                    derniere.setFin(fin);
+                } else {
+                    libres.add(new PlageDTO(debut, fin));
+                }
+            } else if (occupes.size() > 1) {
+                List<Long> userIds = new ArrayList<>(occupes.keySet());
+                ConflitDTO dernier = conflits.isEmpty() ? null : conflits.get(conflits.size() - 1);
+                if (dernier != null && dernier.getFin().equals(debut) && dernier.getUserIds().equals(userIds)) {
+                    dernier.setFin(fin);
+                } else {
+                    conflits.add(new ConflitDTO(debut, fin, userIds));
+                }
+            }
+        }
+    }
+
+    /**
+     * Prochain intervalle avec heure d'un utilisateur
+     */
+    private static final class Tete {
+        private final Long userId;
+        private final List<Intervalle> intervalles;
+        private int position;
+        private Intervalle courant;
+
+        Tete(Long userId, List<Intervalle> intervalles) {
+            this.userId = userId;
+            this.intervalles = intervalles;
+        }
+
+        LocalDateTime debutCourant() {
+            return courant.debut();
+        }
+
+        boolean avancer() {
+            while (position < intervalles.size()) {
+                Intervalle intervalle = intervalles.get(position++);
+                if (!intervalle.journeeEntiere() && !intervalle.estInstantane()) {
+                    courant = intervalle;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private record Actif(Long userId, LocalDateTime fin) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.service.planning;
+
+import com.example.demo.exception.RequeteInvalideException;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Taille des créneaux d'un résumé de l'agenda
+ */
+public enum Granularite {
+    JOUR(ChronoUnit.DAYS),
+    HEURE(ChronoUnit.HOURS);
+
+    private final ChronoUnit unite;
+
+    Granularite(ChronoUnit unite) {
+        this.unite = unite;
+    }
+
+    /**
+     * @throws RequeteInvalideException si la valeur n'est ni jour ni heure
+     */
+    public static Granularite analyser(String valeur) {
+        try {
+            return valueOf(valeur.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new RequeteInvalideException("Granularité invalide: " + valeur + " (jour ou heure attendu)");
+        }
+    }
+
+    /**
+     * Début du créneau qui contient la date
+     */
+    public LocalDateTime debutCreneau(LocalDateTime date) {
+        return date.truncatedTo(unite);
+    }
+
+    public LocalDateTime creneauSuivant(LocalDateTime debutCreneau) {
+        return debutCreneau.plus(1, unite);
+    }
+}
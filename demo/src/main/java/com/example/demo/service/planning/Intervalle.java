@@ -0,0 +1,46 @@
+package com.example.demo.service.planning;
+
+import com.example.demo.dto.EvenementDTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Intervalle [debut, fin[ occupé par un événement, tel qu'il apparaît dans l'agenda
+ * @param journeeEntiere Événement sur des journées entières, de minuit à minuit
+ */
+public record Intervalle(LocalDateTime debut, LocalDateTime fin, boolean journeeEntiere) {
+
+    /**
+     * Normalise un événement : une journée entière couvre ses jours de minuit à minuit,
+     * une fin absente ou antérieure au début donne un événement instantané
+     */
+    public static Intervalle de(EvenementDTO evenement) {
+        LocalDateTime debut = evenement.getDateDebut();
+        LocalDateTime fin = evenement.getDateFin() == null || evenement.getDateFin().isBefore(debut)
+                ? debut
+                : evenement.getDateFin();
+        if (evenement.isEstJourneeEntiere()) {
+            LocalDate jourDebut = debut.toLocalDate();
+            return new Intervalle(jourDebut.atStartOfDay(), finExclusive(jourDebut, fin).atStartOfDay(), true);
+        }
+        return new Intervalle(debut, fin, false);
+    }
+
+    /**
+     * Le calendrier web enregistre une journée entière avec une fin exclusive à minuit,
+     * mais une fin saisie dans la journée même désigne le dernier jour inclus
+     */
+    public static LocalDate finExclusive(LocalDate debut, LocalDateTime fin) {
+        LocalDate jourFin = fin.toLocalDate();
+        if (fin.toLocalTime().equals(LocalTime.MIDNIGHT) && jourFin.isAfter(debut)) {
+            return jourFin;
+        }
+        return (jourFin.isBefore(debut) ? debut : jourFin).plusDays(1);
+    }
+
+    public boolean estInstantane() {
+        return !fin.isAfter(debut);
+    }
+}
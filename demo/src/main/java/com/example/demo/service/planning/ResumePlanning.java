@@ -0,0 +1,144 @@
+package com.example.demo.service.planning;
+
+import com.example.demo.dto.PlageDTO;
+import com.example.demo.dto.ResumeCreneauDTO;
+import com.example.demo.exception.RequeteInvalideException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Résumé de l'occupation de l'agenda par créneaux, calculé en un seul balayage des intervalles triés.
+ * Les créneaux sont parcourus dans l'ordre : chaque intervalle entre une fois dans le tas des
+ * intervalles actifs (ordonné par fin) et en sort une fois, et les plages occupées fusionnées
+ * sont parcourues avec un curseur qui ne recule jamais.
+ * Les journées entières sont comptées mais ne produisent pas de plage occupée : elles marquent
+ * souvent un jour (congé, anniversaire) sans bloquer d'horaire.
+ */
+public final class ResumePlanning {
+
+    private static final Comparator<Intervalle> PAR_DEBUT = Comparator.comparing(Intervalle::debut);
+    private static final Comparator<Intervalle> PAR_FIN = Comparator.comparing(Intervalle::fin);
+
+    private ResumePlanning() {
+    }
+
+    /**
+     * Résume les intervalles sur les créneaux de granularité donnée qui couvrent [debut, fin[
+     * @param intervalles Intervalles à résumer, dans un ordre quelconque
+     * @param maxCreneaux Nombre maximal de créneaux produits
+     * @throws RequeteInvalideException si la plage est vide ou demande trop de créneaux
+     */
+    public static List<ResumeCreneauDTO> resumer(List<Intervalle> intervalles, LocalDateTime debut, LocalDateTime fin,
+                                                 Granularite granularite, int maxCreneaux) {
+        return resumer(intervalles, bornes(debut, fin, granularite, maxCreneaux));
+    }
+
+    /**
+     * Résume les intervalles sur des créneaux déjà calculés par {@link #bornes}
+     * @param bornes Bornes successives des créneaux, la dernière exclue
+     */
+    public static List<ResumeCreneauDTO> resumer(List<Intervalle> intervalles, List<LocalDateTime> bornes) {
+        List<Intervalle> tries = new ArrayList<>(intervalles);
+        tries.sort(PAR_DEBUT);
+        List<Intervalle> occupes = fusionner(tries);
+
+        List<ResumeCreneauDTO> resume = new ArrayList<>(bornes.size() - 1);
+        PriorityQueue<Intervalle> actifs = new PriorityQueue<>(PAR_FIN);
+        int journeesEntieresActives = 0;
+        int suivant = 0;
+        int premierOccupe = 0;
+        for (int c = 0; c + 1 < bornes.size(); c++) {
+            LocalDateTime debutCreneau = bornes.get(c);
+            LocalDateTime finCreneau = bornes.get(c + 1);
+
+            int nombre = 0;
+            while (suivant < tries.size() && tries.get(suivant).debut().isBefore(finCreneau)) {
+                Intervalle intervalle = tries.get(suivant++);
+                if (!intervalle.estInstantane()) {
+                    actifs.add(intervalle);
+                    journeesEntieresActives += intervalle.journeeEntiere() ? 1 : 0;
+                } else if (!intervalle.debut().isBefore(debutCreneau)) {
+                    // Un événement instantané n'occupe que le créneau qui contient son début
+                    nombre++;
+                }
+            }
+            while (!actifs.isEmpty() && !actifs.peek().fin().isAfter(debutCreneau)) {
+                journeesEntieresActives -= actifs.poll().journeeEntiere() ? 1 : 0;
+            }
+            nombre += actifs.size();
+
+            while (premierOccupe < occupes.size() && !occupes.get(premierOccupe).fin().isAfter(debutCreneau)) {
+                premierOccupe++;
+            }
+            List<PlageDTO> plages = new ArrayList<>();
+            long minutes = 0;
+            for (int o = premierOccupe; o < occupes.size() && occupes.get(o).debut().isBefore(finCreneau); o++) {
+                Intervalle occupe = occupes.get(o);
+                LocalDateTime debutPlage = occupe.debut().isBefore(debutCreneau) ? debutCreneau : occupe.debut();
+                LocalDateTime finPlage = occupe.fin().isAfter(finCreneau) ? finCreneau : occupe.fin();
+                plages.add(new PlageDTO(debutPlage, finPlage));
+                minutes += Duration.between(debutPlage, finPlage).toMinutes();
+            }
+
+            resume.add(new ResumeCreneauDTO(debutCreneau, finCreneau, nombre, journeesEntieresActives, minutes, plages));
+        }
+        return resume;
+    }
+
+    /**
+     * Bornes des créneaux : du début du créneau qui contient debut jusqu'à la fin de celui qui contient fin.
+     * À calculer avant de lire les événements, pour refuser une plage trop longue sans toucher à la base.
+     * @throws RequeteInvalideException si la plage est vide ou demande trop de créneaux
+     */
+    public static List<LocalDateTime> bornes(LocalDateTime debut, LocalDateTime fin, Granularite granularite, int maxCreneaux) {
+        if (!fin.isAfter(debut)) {
+            throw new RequeteInvalideException("La fin de la plage doit suivre son début");
+        }
+        List<LocalDateTime> bornes = new ArrayList<>();
+        LocalDateTime borne = granularite.debutCreneau(debut);
+        bornes.add(borne);
+        while (borne.isBefore(fin)) {
+            if (bornes.size() > maxCreneaux) {
+                throw new RequeteInvalideException("Plage trop longue: au plus " + maxCreneaux
+                        + " créneaux par résumé, choisir une granularité plus large");
+            }
+            borne = granularite.creneauSuivant(borne);
+            bornes.add(borne);
+        }
+        return bornes;
+    }
+
+    /**
+     * Fusionne les intervalles avec heure qui se chevauchent ou se touchent, en un passage sur la liste triée
+     */
+    static List<Intervalle> fusionner(List<Intervalle> triesParDebut) {
+        List<Intervalle> fusion = new ArrayList<>();
+        LocalDateTime debut = null;
+        LocalDateTime fin = null;
+        for (Intervalle intervalle : triesParDebut) {
+            if (intervalle.journeeEntiere() || intervalle.estInstantane()) {
+                continue;
+            }
+            if (fin != null && !intervalle.debut().isAfter(fin)) {
+                if (intervalle.fin().isAfter(fin)) {
+                    fin = intervalle.fin();
+                }
+            } else {
+                if (fin != null) {
+                    fusion.add(new Intervalle(debut, fin, false));
+                }
+                debut = intervalle.debut();
+                fin = intervalle.fin();
+            }
+        }
+        if (fin != null) {
+            fusion.add(new Intervalle(debut, fin, false));
+        }
+        return fusion;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.service.recherche;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Découpe un texte français en termes d'index : suppression des accents,
+ * passage en minuscules, découpage sur tout ce qui n'est ni lettre ni chiffre
+ * et élimination des mots vides les plus courants.
+ */
+final class AnalyseurTexte {
+
+    private static final Pattern MARQUES_DIACRITIQUES = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARATEURS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Set<String> MOTS_VIDES = Set.of(
+            "au", "aux", "avec", "ce", "ces", "dans", "de", "des", "du", "elle", "en", "et", "est",
+            "il", "ils", "la", "le", "les", "leur", "ne", "nous", "on", "ou", "par", "pas", "pour",
+            "qu", "que", "qui", "sa", "se", "ses", "son", "sur", "ta", "te", "tes", "ton", "un",
+            "une", "vos", "votre", "vous");
+
+    private AnalyseurTexte() {
+    }
+
+    /**
+     * Retourne les termes du texte, dans leur ordre d'apparition et avec répétitions
+     */
+    static List<String> termes(String texte) {
+        List<String> termes = new ArrayList<>();
+        if (texte == null || texte.isBlank()) {
+            return termes;
+        }
+        for (String mot : SEPARATEURS.split(normaliser(texte))) {
+            if (mot.length() >= 2 && !MOTS_VIDES.contains(mot)) {
+                termes.add(mot);
+            }
+        }
+        return termes;
+    }
+
+    /**
+     * Replie les accents et ligatures et passe le texte en minuscules
+     */
+    static String normaliser(String texte) {
+        String sansAccents = MARQUES_DIACRITIQUES.matcher(Normalizer.normalize(texte, Normalizer.Form.NFD)).replaceAll("");
+        return sansAccents.toLowerCase(Locale.ROOT)
+                .replace("œ", "oe")
+                .replace("æ", "ae");
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.service.recherche;
+
+import com.example.demo.dto.EvenementDTO;
+
+import java.util.List;
+
+/**
+ * Moteur de recherche plein texte sur le titre et la description des événements.
+ * Le moteur retourne des identifiants classés par pertinence ; le chargement des
+ * événements reste à la charge du service.
+ */
+public interface MoteurRecherche {
+
+    /**
+     * Recherche les événements correspondant à un mot clé
+     * @param userId ID du propriétaire des événements, ou null pour chercher parmi tous les événements
+     * @param motCle Texte recherché
+     * @param page Numéro de page, à partir de 0
+     * @param taille Nombre maximal de résultats dans la page
+     * @return Les identifiants des événements de la page, du plus pertinent au moins pertinent
+     */
+    List<Long> rechercher(Long userId, String motCle, int page, int taille);
+
+    /**
+     * Ajoute ou remplace un événement dans l'index
+     * @param evenement L'événement créé ou modifié
+     */
+    void indexer(EvenementDTO evenement);
+
+    /**
+     * Retire un événement de l'index
+     * @param evenementId L'id de l'événement supprimé
+     */
+    void retirer(Long evenementId);
+
+    /**
+     * Reconstruit entièrement l'index à partir de la base de données
+     * @return Le nombre d'événements indexés
+     */
+    int reconstruire();
+}
@@ -0,0 +1,365 @@
+package com.example.demo.service.recherche;
+
+import com.example.demo.dto.EvenementDTO;
+import com.example.demo.repository.EvenementRepository;
+import com.example.demo.repository.EvenementRepository.TexteEvenement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Moteur de recherche fondé sur un index inversé en mémoire, un index par utilisateur.
+ * Les termes du titre pèsent plus que ceux de la description, le score d'un événement
+ * est la somme des poids TF-IDF des termes recherchés, et le dernier terme est traité
+ * comme un préfixe pour permettre la recherche au fil de la saisie.
+ * L'index est construit au démarrage puis tenu à jour par les écritures du service ;
+ * tant qu'il n'est pas prêt, les recherches sont déléguées au moteur SQL.
+ * La mémoire est bornée par le nombre d'entrées (terme, événement) : au-delà de maxEntrees,
+ * l'index est abandonné et les recherches repassent par le moteur SQL jusqu'à la prochaine reconstruction.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "ajenda.app.recherche.moteur", havingValue = "index")
+public class MoteurRechercheIndexInverse implements MoteurRecherche {
+    private static final Logger logger = LoggerFactory.getLogger(MoteurRechercheIndexInverse.class);
+
+    private static final int POIDS_TITRE = 3;
+    private static final int POIDS_DESCRIPTION = 1;
+    private static final Long SANS_PROPRIETAIRE = 0L;
+
+    private final EvenementRepository evenementRepository;
+    private final MoteurRechercheSql moteurSql;
+    private final TransactionTemplate transactionLecture;
+
+    @Value("${ajenda.app.recherche.maxEntrees:2000000}")
+    private long maxEntrees;
+
+    private final Object verrouEcriture = new Object();
+    private volatile Index index = new Index();
+    private volatile boolean pret;
+    private List<Consumer<Index>> modificationsEnAttente;
+
+    public MoteurRechercheIndexInverse(EvenementRepository evenementRepository, MoteurRechercheSql moteurSql,
+                                       PlatformTransactionManager transactionManager) {
+        this.evenementRepository = evenementRepository;
+        this.moteurSql = moteurSql;
+        this.transactionLecture = new TransactionTemplate(transactionManager);
+        this.transactionLecture.setReadOnly(true);
+    }
+
+    /**
+     * Construit l'index en arrière-plan une fois l'application démarrée
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruireAuDemarrage() {
+        Thread thread = new Thread(() -> {
+            try {
+                reconstruire();
+            } catch (RuntimeException e) {
+                logger.error("Échec de la construction de l'index de recherche: {}", e.getMessage(), e);
+            }
+        }, "construction-index-recherche");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public List<Long> rechercher(Long userId, String motCle, int page, int taille) {
+        if (!pret) {
+            return moteurSql.rechercher(userId, motCle, page, taille);
+        }
+
+        List<String> termes = AnalyseurTexte.termes(motCle);
+        if (termes.isEmpty()) {
+            return List.of();
+        }
+
+        Index courant = index;
+        Map<Long, Double> scores;
+        if (userId != null) {
+            IndexUtilisateur indexUtilisateur = courant.parUtilisateur.get(userId);
+            scores = indexUtilisateur == null ? Map.of() : indexUtilisateur.scorer(termes, null);
+        } else {
+            // L'IDF est calculé sur l'ensemble des utilisateurs pour que les scores restent comparables
+            Map<String, Integer> frequences = new HashMap<>();
+            long nombreDocuments = 0;
+            for (IndexUtilisateur indexUtilisateur : courant.parUtilisateur.values()) {
+                nombreDocuments += indexUtilisateur.compterFrequences(termes, frequences);
+            }
+            long total = nombreDocuments;
+            ToDoubleFunction<String> idf = terme -> idf(total, frequences.getOrDefault(terme, 1));
+            scores = new HashMap<>();
+            for (IndexUtilisateur indexUtilisateur : courant.parUtilisateur.values()) {
+                scores.putAll(indexUtilisateur.scorer(termes, idf));
+            }
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                .skip((long) page * taille)
+                .limit(taille)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void indexer(EvenementDTO evenement) {
+        appliquer(i -> i.indexer(evenement.getId(), evenement.getUserId(), evenement.getTitre(), evenement.getDescription()));
+    }
+
+    @Override
+    public void retirer(Long evenementId) {
+        appliquer(i -> i.retirer(evenementId));
+    }
+
+    @Override
+    public int reconstruire() {
+        synchronized (verrouEcriture) {
+            if (modificationsEnAttente != null) {
+                throw new IllegalStateException("Une reconstruction de l'index de recherche est déjà en cours");
+            }
+            modificationsEnAttente = new ArrayList<>();
+        }
+
+        try {
+            long debut = System.currentTimeMillis();
+            Index nouvelIndex = new Index();
+            Integer total = transactionLecture.execute(status -> {
+                try (Stream<TexteEvenement> textes = evenementRepository.streamTextes()) {
+                    int[] compteur = {0};
+                    textes.takeWhile(texte -> nouvelIndex.entrees <= maxEntrees).forEach(texte -> {
+                        nouvelIndex.indexer(texte.getId(), texte.getUserId(), texte.getTitre(), texte.getDescription());
+                        compteur[0]++;
+                    });
+                    return compteur[0];
+                }
+            });
+
+            // Les écritures survenues pendant la lecture sont rejouées avant la bascule
+            synchronized (verrouEcriture) {
+                modificationsEnAttente.forEach(modification -> modification.accept(nouvelIndex));
+                if (nouvelIndex.entrees > maxEntrees) {
+                    abandonner();
+                    throw new IllegalStateException("L'index de recherche dépasse " + maxEntrees
+                            + " entrées, les recherches sont déléguées au moteur SQL");
+                }
+                index = nouvelIndex;
+                pret = true;
+            }
+            logger.info("Index de recherche reconstruit: {} événements en {} ms", total, System.currentTimeMillis() - debut);
+            return total == null ? 0 : total;
+        } finally {
+            synchronized (verrouEcriture) {
+                modificationsEnAttente = null;
+            }
+        }
+    }
+
+    private void appliquer(Consumer<Index> modification) {
+        synchronized (verrouEcriture) {
+            modification.accept(index);
+            if (modificationsEnAttente != null) {
+                modificationsEnAttente.add(modification);
+            }
+            if (index.entrees > maxEntrees) {
+                if (pret) {
+                    logger.warn("L'index de recherche dépasse {} entrées, abandon au profit du moteur SQL", maxEntrees);
+                }
+                abandonner();
+            }
+        }
+    }
+
+    /**
+     * Libère l'index, les recherches repassent par le moteur SQL
+     */
+    private void abandonner() {
+        pret = false;
+        index = new Index();
+    }
+
+    private static double idf(long nombreDocuments, int frequence) {
+        return Math.log(1 + (double) nombreDocuments / frequence);
+    }
+
+    private static Map<String, Integer> ponderer(String titre, String description) {
+        Map<String, Integer> poids = new HashMap<>();
+        for (String terme : AnalyseurTexte.termes(titre)) {
+            poids.merge(terme, POIDS_TITRE, Integer::sum);
+        }
+        for (String terme : AnalyseurTexte.termes(description)) {
+            poids.merge(terme, POIDS_DESCRIPTION, Integer::sum);
+        }
+        return poids;
+    }
+
+    /**
+     * Ensemble des index par utilisateur, avec le propriétaire de chaque événement indexé.
+     * Les modifications sont faites sous verrouEcriture, ou par le seul thread de reconstruction.
+     */
+    private static final class Index {
+        private final ConcurrentHashMap<Long, IndexUtilisateur> parUtilisateur = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Long, Long> proprietaires = new ConcurrentHashMap<>();
+        private long entrees;
+
+        void indexer(Long evenementId, Long userId, String titre, String description) {
+            Long proprietaire = userId == null ? SANS_PROPRIETAIRE : userId;
+            Long ancienProprietaire = proprietaires.put(evenementId, proprietaire);
+            if (ancienProprietaire != null && !ancienProprietaire.equals(proprietaire)) {
+                IndexUtilisateur ancien = parUtilisateur.get(ancienProprietaire);
+                if (ancien != null) {
+                    entrees -= ancien.retirer(evenementId);
+                }
+            }
+            entrees += parUtilisateur.computeIfAbsent(proprietaire, id -> new IndexUtilisateur())
+                    .indexer(evenementId, ponderer(titre, description));
+        }
+
+        void retirer(Long evenementId) {
+            Long proprietaire = proprietaires.remove(evenementId);
+            if (proprietaire != null) {
+                IndexUtilisateur indexUtilisateur = parUtilisateur.get(proprietaire);
+                if (indexUtilisateur != null) {
+                    entrees -= indexUtilisateur.retirer(evenementId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Index inversé des événements d'un utilisateur : terme vers poids par événement
+     */
+    private static final class IndexUtilisateur {
+        private final ReadWriteLock verrou = new ReentrantReadWriteLock();
+        private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+
+        /**
+         * @return La variation du nombre d'entrées (terme, événement) de l'index
+         */
+        int indexer(Long evenementId, Map<String, Integer> poids) {
+            verrou.writeLock().lock();
+            try {
+                int retirees = retirerSansVerrou(evenementId);
+                documents.put(evenementId, poids);
+                poids.forEach((terme, p) -> postings.computeIfAbsent(terme, t -> new HashMap<>()).put(evenementId, p));
+                return poids.size() - retirees;
+            } finally {
+                verrou.writeLock().unlock();
+            }
+        }
+
+        /**
+         * @return Le nombre d'entrées (terme, événement) retirées
+         */
+        int retirer(Long evenementId) {
+            verrou.writeLock().lock();
+            try {
+                return retirerSansVerrou(evenementId);
+            } finally {
+                verrou.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Ajoute aux fréquences le nombre d'événements de cet index contenant chaque terme correspondant
+         * @return Le nombre d'événements de l'index
+         */
+        int compterFrequences(List<String> termes, Map<String, Integer> frequences) {
+            verrou.readLock().lock();
+            try {
+                for (int i = 0; i < termes.size(); i++) {
+                    correspondances(termes, i).forEach((terme, posting) -> frequences.merge(terme, posting.size(), Integer::sum));
+                }
+                return documents.size();
+            } finally {
+                verrou.readLock().unlock();
+            }
+        }
+
+        /**
+         * Calcule le score des événements contenant tous les termes, le dernier étant un préfixe
+         * @param idf IDF de chaque terme de l'index, ou null pour le calculer sur les seuls événements de cet index
+         */
+        Map<Long, Double> scorer(List<String> termes, ToDoubleFunction<String> idf) {
+            verrou.readLock().lock();
+            try {
+                int nombreDocuments = documents.size();
+                Map<Long, Double> scores = null;
+                for (int i = 0; i < termes.size(); i++) {
+                    Map<Long, Double> scoresTerme = new HashMap<>();
+                    correspondances(termes, i).forEach((terme, posting) -> {
+                        double poidsTerme = idf == null
+                                ? MoteurRechercheIndexInverse.idf(nombreDocuments, posting.size())
+                                : idf.applyAsDouble(terme);
+                        posting.forEach((evenementId, p) -> scoresTerme.merge(evenementId, p * poidsTerme, Math::max));
+                    });
+
+                    if (scores == null) {
+                        scores = scoresTerme;
+                    } else {
+                        scores.keySet().retainAll(scoresTerme.keySet());
+                        scores.replaceAll((evenementId, score) -> score + scoresTerme.get(evenementId));
+                    }
+                    if (scores.isEmpty()) {
+                        break;
+                    }
+                }
+                return scores == null ? Map.of() : scores;
+            } finally {
+                verrou.readLock().unlock();
+            }
+        }
+
+        /**
+         * Postings du i-ème terme recherché, par terme de l'index : le dernier terme correspond par préfixe
+         */
+        private Map<String, Map<Long, Integer>> correspondances(List<String> termes, int i) {
+            String terme = termes.get(i);
+            if (i == termes.size() - 1) {
+                return postings.subMap(terme, true, terme + Character.MAX_VALUE, false);
+            }
+            Map<Long, Integer> exacte = postings.get(terme);
+            return exacte == null ? Map.of() : Map.of(terme, exacte);
+        }
+
+        private int retirerSansVerrou(Long evenementId) {
+            Map<String, Integer> anciens = documents.remove(evenementId);
+            if (anciens == null) {
+                return 0;
+            }
+            for (String terme : anciens.keySet()) {
+                Map<Long, Integer> posting = postings.get(terme);
+                if (posting != null) {
+                    posting.remove(evenementId);
+                    if (posting.isEmpty()) {
+                        postings.remove(terme);
+                    }
+                }
+            }
+            return anciens.size();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.service.recherche;
+
+import com.example.demo.dto.EvenementDTO;
+import com.example.demo.repository.EvenementRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moteur de recherche par LIKE sur la base de données.
+ * Sans index à maintenir, mais chaque recherche parcourt la table.
+ */
+@Component
+public class MoteurRechercheSql implements MoteurRecherche {
+
+    private final EvenementRepository evenementRepository;
+
+    public MoteurRechercheSql(EvenementRepository evenementRepository) {
+        this.evenementRepository = evenementRepository;
+    }
+
+    @Override
+    public List<Long> rechercher(Long userId, String motCle, int page, int taille) {
+        PageRequest pageRequest = PageRequest.of(page, taille);
+        return userId == null
+                ? evenementRepository.findIdsParMotCle(motCle, pageRequest)
+                : evenementRepository.findIdsParUtilisateurEtMotCle(userId, motCle, pageRequest);
+    }
+
+    @Override
+    public void indexer(EvenementDTO evenement) {
+        // Rien à maintenir : la base de données est interrogée directement
+    }
+
+    @Override
+    public void retirer(Long evenementId) {
+        // Rien à maintenir : la base de données est interrogée directement
+    }
+
+    @Override
+    public int reconstruire() {
+        return 0;
+    }
+}
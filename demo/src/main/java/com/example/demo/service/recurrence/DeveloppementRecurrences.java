@@ -0,0 +1,82 @@
+package com.example.demo.service.recurrence;
+
+import com.example.demo.dto.EvenementDTO;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Développe les séries récurrentes en occurrences, uniquement dans la plage demandée.
+ * Une occurrence garde l'id de sa série : la modifier ou la supprimer porte sur la série entière,
+ * tandis qu'une occurrence modifiée isolément est un événement à part entière rattaché à la série.
+ */
+public final class DeveloppementRecurrences {
+
+    private static final Comparator<EvenementDTO> ORDRE = Comparator
+            .comparing(EvenementDTO::getDateDebut)
+            .thenComparing(EvenementDTO::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private DeveloppementRecurrences() {
+    }
+
+    /**
+     * Remplace chaque série par ses occurrences qui chevauchent la plage [debut, fin]
+     * et trie le résultat par date de début
+     * @param evenements Événements candidats : événements simples de la plage et séries susceptibles d'y avoir une occurrence
+     */
+    public static List<EvenementDTO> developper(List<EvenementDTO> evenements, LocalDateTime debut, LocalDateTime fin) {
+        List<EvenementDTO> resultat = new ArrayList<>(evenements.size());
+        boolean serie = false;
+        for (EvenementDTO evenement : evenements) {
+            if (evenement.getRegleRecurrence() == null) {
+                resultat.add(evenement);
+            } else {
+                serie = true;
+                ajouterOccurrences(evenement, debut, fin, resultat);
+            }
+        }
+        if (serie) {
+            resultat.sort(ORDRE);
+        }
+        return resultat;
+    }
+
+    private static void ajouterOccurrences(EvenementDTO serie, LocalDateTime debut, LocalDateTime fin,
+                                           List<EvenementDTO> resultat) {
+        Duration duree = Duration.between(serie.getDateDebut(), serie.getDateFin());
+        List<LocalDateTime> exceptions = serie.getExceptionsRecurrence();
+        Set<LocalDateTime> exclusions = exceptions == null || exceptions.isEmpty() ? Set.of() : new HashSet<>(exceptions);
+        Iterator<LocalDateTime> occurrences = RegleRecurrence.analyser(serie.getRegleRecurrence())
+                .occurrences(serie.getDateDebut(), duree, debut, fin, exclusions);
+        while (occurrences.hasNext()) {
+            LocalDateTime occurrence = occurrences.next();
+            resultat.add(occurrence(serie, occurrence, occurrence.plus(duree)));
+        }
+    }
+
+    private static EvenementDTO occurrence(EvenementDTO serie, LocalDateTime debut, LocalDateTime fin) {
+        EvenementDTO occurrence = new EvenementDTO();
+        occurrence.setId(serie.getId());
+        occurrence.setTitre(serie.getTitre());
+        occurrence.setDescription(serie.getDescription());
+        occurrence.setDateDebut(debut);
+        occurrence.setDateFin(fin);
+        occurrence.setCouleurFond(serie.getCouleurFond());
+        occurrence.setCouleurTexte(serie.getCouleurTexte());
+        occurrence.setLieu(serie.getLieu());
+        occurrence.setEstJourneeEntiere(serie.isEstJourneeEntiere());
+        occurrence.setRegleRecurrence(serie.getRegleRecurrence());
+        occurrence.setFinRecurrence(serie.getFinRecurrence());
+        occurrence.setSerieId(serie.getId());
+        occurrence.setOccurrenceOriginale(debut);
+        occurrence.setDateModification(serie.getDateModification());
+        occurrence.setUserId(serie.getUserId());
+        return occurrence;
+    }
+}
@@ -0,0 +1,419 @@
+package com.example.demo.service.recurrence;
+
+import com.example.demo.exception.RequeteInvalideException;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Règle de récurrence au format RRULE (RFC 5545), limitée au sous-ensemble utilisé par l'agenda :
+ * FREQ (DAILY, WEEKLY, MONTHLY, YEARLY), INTERVAL, COUNT, UNTIL et BYDAY pour les règles hebdomadaires.
+ * Les semaines commencent le lundi et UNTIL est interprété dans l'heure flottante des événements.
+ * Une règle mensuelle ou annuelle ignore les périodes sans le jour du premier événement
+ * (31 du mois, 29 février), comme le prévoit la RFC.
+ * Une série finie compte au plus NOMBRE_MAX occurrences et se termine au plus HORIZON_MAX_ANNEES après son début.
+ */
+public final class RegleRecurrence {
+
+    public enum Frequence { DAILY, WEEKLY, MONTHLY, YEARLY }
+
+    public static final int NOMBRE_MAX = 10_000;
+    public static final int HORIZON_MAX_ANNEES = 100;
+
+    private static final String[] CODES_JOURS = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+    private static final DateTimeFormatter FORMAT_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter FORMAT_DATE_HEURE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final Frequence frequence;
+    private final int intervalle;
+    private final int nombre;
+    private final LocalDateTime jusqua;
+    private final int joursSemaine;
+
+    private RegleRecurrence(Frequence frequence, int intervalle, int nombre, LocalDateTime jusqua, int joursSemaine) {
+        this.frequence = frequence;
+        this.intervalle = intervalle;
+        this.nombre = nombre;
+        this.jusqua = jusqua;
+        this.joursSemaine = joursSemaine;
+    }
+
+    /**
+     * Analyse une règle, avec ou sans le préfixe "RRULE:"
+     * @throws RequeteInvalideException si la règle est invalide ou hors du sous-ensemble pris en charge
+     */
+    public static RegleRecurrence analyser(String regle) {
+        if (regle == null || regle.isBlank()) {
+            throw new RequeteInvalideException("Règle de récurrence vide");
+        }
+        String texte = regle.trim().toUpperCase(Locale.ROOT);
+        if (texte.startsWith("RRULE:")) {
+            texte = texte.substring(6);
+        }
+
+        Frequence frequence = null;
+        int intervalle = 1;
+        int nombre = 0;
+        LocalDateTime jusqua = null;
+        int joursSemaine = 0;
+        for (String partie : texte.split(";")) {
+            int egal = partie.indexOf('=');
+            if (egal <= 0) {
+                throw invalide(regle, "élément mal formé '" + partie + "'");
+            }
+            String nom = partie.substring(0, egal);
+            String valeur = partie.substring(egal + 1);
+            switch (nom) {
+                case "FREQ" -> {
+                    try {
+                        frequence = Frequence.valueOf(valeur);
+                    } catch (IllegalArgumentException e) {
+                        throw invalide(regle, "fréquence non prise en charge '" + valeur + "'");
+                    }
+                }
+                case "INTERVAL" -> intervalle = entierPositif(regle, nom, valeur);
+                case "COUNT" -> {
+                    nombre = entierPositif(regle, nom, valeur);
+                    if (nombre > NOMBRE_MAX) {
+                        throw invalide(regle, "COUNT ne peut dépasser " + NOMBRE_MAX);
+                    }
+                }
+                case "UNTIL" -> jusqua = date(regle, valeur);
+                case "BYDAY" -> joursSemaine = jours(regle, valeur);
+                case "WKST" -> {
+                    if (!"MO".equals(valeur)) {
+                        throw invalide(regle, "seul WKST=MO est pris en charge");
+                    }
+                }
+                default -> throw invalide(regle, "élément non pris en charge '" + nom + "'");
+            }
+        }
+
+        if (frequence == null) {
+            throw invalide(regle, "FREQ est obligatoire");
+        }
+        if (nombre > 0 && jusqua != null) {
+            throw invalide(regle, "COUNT et UNTIL sont exclusifs");
+        }
+        if (joursSemaine != 0 && frequence != Frequence.WEEKLY) {
+            throw invalide(regle, "BYDAY n'est pris en charge qu'avec FREQ=WEEKLY");
+        }
+        return new RegleRecurrence(frequence, intervalle, nombre, jusqua, joursSemaine);
+    }
+
+    /**
+     * Forme canonique de la règle, sans préfixe, telle qu'elle est enregistrée
+     */
+    @Override
+    public String toString() {
+        StringBuilder texte = new StringBuilder("FREQ=").append(frequence);
+        if (intervalle > 1) {
+            texte.append(";INTERVAL=").append(intervalle);
+        }
+        if (nombre > 0) {
+            texte.append(";COUNT=").append(nombre);
+        }
+        if (jusqua != null) {
+            texte.append(";UNTIL=").append(FORMAT_DATE_HEURE.format(jusqua));
+        }
+        if (joursSemaine != 0) {
+            texte.append(";BYDAY=");
+            boolean premier = true;
+            for (int jour = 0; jour < 7; jour++) {
+                if ((joursSemaine & (1 << jour)) != 0) {
+                    texte.append(premier ? "" : ",").append(CODES_JOURS[jour]);
+                    premier = false;
+                }
+            }
+        }
+        return texte.toString();
+    }
+
+    /**
+     * Parcourt, dans l'ordre chronologique, les débuts des occurrences qui chevauchent la plage [debut, fin],
+     * bornes incluses. Les périodes entièrement antérieures à la plage sont sautées par calcul,
+     * sans être énumérées, dès que le nombre d'occurrences par période est constant.
+     * @param premierDebut Début de la première occurrence (DTSTART)
+     * @param duree Durée de chaque occurrence
+     * @param exclusions Débuts d'occurrences exclues (EXDATE), qui comptent tout de même pour COUNT
+     */
+    public Iterator<LocalDateTime> occurrences(LocalDateTime premierDebut, Duration duree,
+                                               LocalDateTime debut, LocalDateTime fin, Set<LocalDateTime> exclusions) {
+        return new Occurrences(premierDebut, duree, debut, fin, exclusions);
+    }
+
+    /**
+     * Calcule la fin de la dernière occurrence, qui borne la série dans les requêtes par plage.
+     * Quand chaque période compte une seule occurrence, la dernière est calculée directement depuis COUNT ;
+     * sinon les occurrences sont énumérées, au plus jusqu'à la première au-delà de l'horizon.
+     * @return La fin de la dernière occurrence, ou null si la série est infinie
+     * @throws RequeteInvalideException si la série se termine plus de HORIZON_MAX_ANNEES après son début
+     */
+    public LocalDateTime finDerniereOccurrence(LocalDateTime premierDebut, Duration duree) {
+        if (nombre == 0 && jusqua == null) {
+            return null;
+        }
+        LocalDateTime horizon = premierDebut.plusYears(HORIZON_MAX_ANNEES);
+        if (jusqua != null && jusqua.isAfter(horizon)) {
+            throw invalide(toString(), "UNTIL ne peut dépasser " + HORIZON_MAX_ANNEES + " ans après le début");
+        }
+        LocalDateTime dernier = premierDebut;
+        if (nombre > 0 && joursSemaine == 0 && periodesRegulieres(premierDebut)) {
+            long pas = (nombre - 1L) * intervalle;
+            try {
+                dernier = switch (frequence) {
+                    case DAILY -> premierDebut.plusDays(pas);
+                    case WEEKLY -> premierDebut.plusWeeks(pas);
+                    case MONTHLY -> premierDebut.plusMonths(pas);
+                    case YEARLY -> premierDebut.plusYears(pas);
+                };
+            } catch (DateTimeException | ArithmeticException e) {
+                dernier = LocalDateTime.MAX;
+            }
+        } else {
+            Iterator<LocalDateTime> occurrences = occurrences(premierDebut, duree, premierDebut, LocalDateTime.MAX, Set.of());
+            while (occurrences.hasNext() && !dernier.isAfter(horizon)) {
+                dernier = occurrences.next();
+            }
+        }
+        if (dernier.isAfter(horizon)) {
+            throw invalide(toString(), "la série ne peut dépasser " + HORIZON_MAX_ANNEES + " ans après le début");
+        }
+        return dernier.plus(duree);
+    }
+
+    /**
+     * Vrai si chaque période produit le même nombre d'occurrences
+     */
+    private boolean periodesRegulieres(LocalDateTime premierDebut) {
+        return switch (frequence) {
+            case DAILY, WEEKLY -> true;
+            case MONTHLY -> premierDebut.getDayOfMonth() <= 28;
+            case YEARLY -> !(premierDebut.getMonthValue() == 2 && premierDebut.getDayOfMonth() == 29);
+        };
+    }
+
+    private static RequeteInvalideException invalide(String regle, String raison) {
+        return new RequeteInvalideException("Règle de récurrence invalide '" + regle + "': " + raison);
+    }
+
+    private static int entierPositif(String regle, String nom, String valeur) {
+        try {
+            int entier = Integer.parseInt(valeur);
+            if (entier > 0) {
+                return entier;
+            }
+        } catch (NumberFormatException e) {
+            // signalé ci-dessous
+        }
+        throw invalide(regle, nom + " doit être un entier positif");
+    }
+
+    private static LocalDateTime date(String regle, String valeur) {
+        String texte = valeur.endsWith("Z") ? valeur.substring(0, valeur.length() - 1) : valeur;
+        try {
+            if (texte.length() == 8) {
+                return LocalDate.parse(texte, FORMAT_DATE).atTime(LocalTime.MAX);
+            }
+            return LocalDateTime.parse(texte, FORMAT_DATE_HEURE);
+        } catch (DateTimeParseException e) {
+            throw invalide(regle, "UNTIL mal formé '" + valeur + "'");
+        }
+    }
+
+    private static int jours(String regle, String valeur) {
+        int masque = 0;
+        for (String code : valeur.split(",")) {
+            int jour = -1;
+            for (int i = 0; i < CODES_JOURS.length; i++) {
+                if (CODES_JOURS[i].equals(code)) {
+                    jour = i;
+                }
+            }
+            if (jour < 0) {
+                throw invalide(regle, "jour non pris en charge '" + code + "'");
+            }
+            masque |= 1 << jour;
+        }
+        return masque;
+    }
+
+    /**
+     * Itérateur paresseux des occurrences : une période est une unité de FREQ multipliée par INTERVAL,
+     * et chaque période contient au plus sept candidats (un par jour de BYDAY).
+     */
+    private final class Occurrences implements Iterator<LocalDateTime> {
+        private final LocalDateTime premierDebut;
+        private final Duration duree;
+        private final LocalDateTime debut;
+        private final LocalDateTime fin;
+        private final Set<LocalDateTime> exclusions;
+        private final int jours;
+        private final LocalDateTime debutSemaine;
+
+        private long periode;
+        private int jour;
+        private long rang;
+        private LocalDateTime suivante;
+        private boolean termine;
+
+        private Occurrences(LocalDateTime premierDebut, Duration duree, LocalDateTime debut, LocalDateTime fin,
+                            Set<LocalDateTime> exclusions) {
+            this.premierDebut = premierDebut;
+            this.duree = duree;
+            this.debut = debut;
+            this.fin = fin;
+            this.exclusions = exclusions;
+            this.jours = joursSemaine != 0 ? joursSemaine : 1 << (premierDebut.getDayOfWeek().getValue() - 1);
+            this.debutSemaine = premierDebut.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            sauterPeriodesAnterieures();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (suivante == null && !termine) {
+                suivante = calculerSuivante();
+            }
+            return suivante != null;
+        }
+
+        @Override
+        public LocalDateTime next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            LocalDateTime occurrence = suivante;
+            suivante = null;
+            return occurrence;
+        }
+
+        /**
+         * Positionne l'itérateur sur la dernière période qui précède entièrement le début de la plage,
+         * en déduisant le nombre d'occurrences sautées quand COUNT l'exige
+         */
+        private void sauterPeriodesAnterieures() {
+            LocalDateTime seuil = debut.minus(duree);
+            if (!seuil.isAfter(premierDebut)) {
+                return;
+            }
+            long unites = switch (frequence) {
+                case DAILY -> ChronoUnit.DAYS.between(premierDebut.toLocalDate(), seuil.toLocalDate());
+                case WEEKLY -> ChronoUnit.WEEKS.between(debutSemaine.toLocalDate(), seuil.toLocalDate());
+                case MONTHLY -> ChronoUnit.MONTHS.between(YearMonth.from(premierDebut), YearMonth.from(seuil));
+                case YEARLY -> (long) seuil.getYear() - premierDebut.getYear();
+            };
+            long saut = Math.max(0, unites / intervalle - 1);
+            if (saut == 0) {
+                return;
+            }
+            if (nombre > 0) {
+                if (!periodesRegulieres(premierDebut)) {
+                    return;
+                }
+                long parPeriode = Integer.bitCount(jours);
+                long premierePeriode = frequence == Frequence.WEEKLY
+                        ? Integer.bitCount(jours >>> (premierDebut.getDayOfWeek().getValue() - 1))
+                        : 1;
+                rang = premierePeriode + (saut - 1) * parPeriode;
+                if (rang >= nombre) {
+                    termine = true;
+                    return;
+                }
+            }
+            periode = saut;
+        }
+
+        private LocalDateTime calculerSuivante() {
+            while (true) {
+                if (jour >= 7) {
+                    periode++;
+                    jour = 0;
+                }
+                LocalDateTime debutPeriode = debutPeriode();
+                if (debutPeriode == null || debutPeriode.isAfter(fin)) {
+                    termine = true;
+                    return null;
+                }
+
+                LocalDateTime candidat = candidat();
+                if (candidat == null || candidat.isBefore(premierDebut)) {
+                    continue;
+                }
+                rang++;
+                if ((nombre > 0 && rang > nombre) || (jusqua != null && candidat.isAfter(jusqua))
+                        || candidat.isAfter(fin)) {
+                    termine = true;
+                    return null;
+                }
+                if (candidat.plus(duree).isBefore(debut) || exclusions.contains(candidat)) {
+                    continue;
+                }
+                return candidat;
+            }
+        }
+
+        /**
+         * Début de la période courante, ou null au-delà des dates représentables
+         */
+        private LocalDateTime debutPeriode() {
+            long pas = periode * intervalle;
+            try {
+                return switch (frequence) {
+                    case DAILY -> premierDebut.plusDays(pas);
+                    case WEEKLY -> debutSemaine.plusWeeks(pas);
+                    case MONTHLY -> premierDebut.withDayOfMonth(1).plusMonths(pas);
+                    case YEARLY -> premierDebut.withDayOfYear(1).plusYears(pas);
+                };
+            } catch (DateTimeException | ArithmeticException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Candidat suivant de la période courante, ou null si la période n'en a plus (ou pas de valide)
+         */
+        private LocalDateTime candidat() {
+            if (frequence == Frequence.WEEKLY) {
+                while (jour < 7 && (jours & (1 << jour)) == 0) {
+                    jour++;
+                }
+                if (jour >= 7) {
+                    return null;
+                }
+                return debutSemaine.plusWeeks(periode * intervalle).plusDays(jour++);
+            }
+
+            jour = 7;
+            long pas = periode * intervalle;
+            return switch (frequence) {
+                case DAILY -> premierDebut.plusDays(pas);
+                case MONTHLY -> {
+                    YearMonth mois = YearMonth.from(premierDebut).plusMonths(pas);
+                    yield mois.isValidDay(premierDebut.getDayOfMonth())
+                            ? premierDebut.with(mois.atDay(premierDebut.getDayOfMonth()))
+                            : null;
+                }
+                case YEARLY -> {
+                    int annee = Math.toIntExact(premierDebut.getYear() + pas);
+                    yield YearMonth.of(annee, premierDebut.getMonth()).isValidDay(premierDebut.getDayOfMonth())
+                            ? premierDebut.withYear(annee)
+                            : null;
+                }
+                default -> throw new IllegalStateException();
+            };
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AccesBaseConfigTest {
+
+    @Test
+    void lesThreadsVirtuelsExigentUnJdk21() {
+        assertThatThrownBy(() -> AccesBaseConfig.verifierJdkThreadsVirtuels(17))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("JDK 21");
+        assertThatCode(() -> AccesBaseConfig.verifierJdkThreadsVirtuels(21)).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EchantillonnageTracesTest {
+
+    private final LoggerContext contexte = new LoggerContext();
+    private final EchantillonnageTraces filtre = new EchantillonnageTraces();
+
+    EchantillonnageTracesTest() {
+        filtre.setLoggers(" com.example.demo.security , org.springframework.security");
+    }
+
+    @AfterEach
+    void nettoyer() {
+        MDC.clear();
+    }
+
+    @Test
+    void ecarteLesTracesDeboguageDesRequetesNonRetenues() {
+        Logger logger = contexte.getLogger("com.example.demo.security.jwt.AuthTokenFilter");
+
+        assertThat(filtre.decide(null, logger, Level.DEBUG, "{}", null, null)).isEqualTo(FilterReply.DENY);
+        assertThat(filtre.decide(null, logger, Level.TRACE, "{}", null, null)).isEqualTo(FilterReply.DENY);
+        assertThat(filtre.decide(null, logger, Level.WARN, "{}", null, null)).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void laisseLeNiveauDecidePourUneRequeteRetenue() {
+        Logger logger = contexte.getLogger("org.springframework.security.web.FilterChainProxy");
+        MDC.put(EchantillonnageTraces.CLE_MDC, "1");
+
+        assertThat(filtre.decide(null, logger, Level.DEBUG, "{}", null, null)).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void neConcernePasLesAutresLoggers() {
+        Logger logger = contexte.getLogger("com.example.demo.controller.EvenementController");
+
+        assertThat(filtre.decide(null, logger, Level.DEBUG, "{}", null, null)).isEqualTo(FilterReply.NEUTRAL);
+    }
+}
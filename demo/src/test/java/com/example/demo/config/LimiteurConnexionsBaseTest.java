@@ -0,0 +1,122 @@
+package com.example.demo.config;
+
+import com.example.demo.dto.DemandeDisponibilitesDTO;
+import com.example.demo.dto.DisponibilitesDTO;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.DisponibiliteService;
+import com.example.demo.service.EvenementService;
+import com.example.demo.service.impl.DisponibiliteServiceImpl;
+import com.example.demo.service.impl.EvenementServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LimiteurConnexionsBaseTest {
+
+    @Test
+    void laRechercheDeDisponibilitesNeBloquePasLeLimiteurSature() throws Exception {
+        @SuppressWarnings("unchecked")
+        LimiteurConnexionsBase limiteur = new LimiteurConnexionsBase(2, 500, mock(ObjectProvider.class));
+
+        EvenementService evenements = mock(EvenementServiceImpl.class);
+        when(evenements.getEvenementsParUtilisateurEtPlageDeDates(any(), any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return List.of();
+        });
+        UserRepository users = mock(UserRepository.class);
+        when(users.findIdsExistants(anyCollection())).thenReturn(List.of(1L, 2L, 3L));
+        DisponibiliteServiceImpl cible = new DisponibiliteServiceImpl(
+                (EvenementService) limiteur.postProcessAfterInitialization(evenements, "evenementServiceImpl"),
+                users, 4);
+        ReflectionTestUtils.setField(cible, "maxUtilisateurs", 50);
+        ReflectionTestUtils.setField(cible, "maxJours", 92);
+        DisponibiliteService service =
+                (DisponibiliteService) limiteur.postProcessAfterInitialization(cible, "disponibiliteServiceImpl");
+
+        LocalDateTime debut = LocalDateTime.of(2026, 1, 5, 8, 0);
+        DemandeDisponibilitesDTO demande = new DemandeDisponibilitesDTO(List.of(1L, 2L, 3L), debut, debut.plusHours(10), 30);
+        // Plus de recherches simultanées que de permis : chacune attend des lectures qui doivent en obtenir un
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<DisponibilitesDTO>> recherches = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                recherches.add(clients.submit(() -> service.calculerDisponibilites(demande)));
+            }
+            for (Future<DisponibilitesDTO> recherche : recherches) {
+                assertThat(recherche.get(10, TimeUnit.SECONDS)).isNotNull();
+            }
+        } finally {
+            clients.shutdownNow();
+            cible.arreter();
+        }
+    }
+
+    @Test
+    void chaquePermisEstRenduMemeQuandLAppelEchoue() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        @SuppressWarnings("unchecked")
+        ObjectProvider<MeterRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(registry);
+        LimiteurConnexionsBase limiteur = new LimiteurConnexionsBase(2, 5000, provider);
+
+        AtomicInteger enCours = new AtomicInteger();
+        AtomicInteger maximum = new AtomicInteger();
+        AtomicInteger appels = new AtomicInteger();
+        EvenementService evenements = mock(EvenementServiceImpl.class);
+        when(evenements.getEvenementsParUtilisateurEtPlageDeDates(any(), any(), any())).thenAnswer(invocation -> {
+            maximum.accumulateAndGet(enCours.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(1);
+                if (appels.incrementAndGet() % 10 == 0) {
+                    throw new IllegalStateException("échec simulé");
+                }
+                return List.of();
+            } finally {
+                enCours.decrementAndGet();
+            }
+        });
+        EvenementService service =
+                (EvenementService) limiteur.postProcessAfterInitialization(evenements, "evenementServiceImpl");
+
+        LocalDateTime debut = LocalDateTime.of(2026, 1, 5, 8, 0);
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> requetes = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                requetes.add(clients.submit(() -> {
+                    try {
+                        service.getEvenementsParUtilisateurEtPlageDeDates(1L, debut, debut.plusHours(1));
+                    } catch (IllegalStateException attendue) {
+                        // un appel sur dix échoue
+                    }
+                }));
+            }
+            for (Future<?> requete : requetes) {
+                requete.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+
+        assertThat(appels.get()).isEqualTo(200);
+        assertThat(maximum.get()).isLessThanOrEqualTo(2);
+        assertThat(registry.get("ajenda.base.permis.disponibles").gauge().value()).isEqualTo(2.0);
+    }
+}
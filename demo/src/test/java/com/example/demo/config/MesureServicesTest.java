@@ -0,0 +1,32 @@
+package com.example.demo.config;
+
+import com.example.demo.dto.EvenementDTO;
+import com.example.demo.dto.PageEvenementsDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MesureServicesTest {
+
+    @Test
+    void mesureLaTailleDesCollectionsEtDesPages() {
+        assertThat(MesureServices.taille(List.of(1, 2, 3))).isEqualTo(3);
+        assertThat(MesureServices.taille(Map.of("a", 1))).isEqualTo(1);
+        assertThat(MesureServices.taille(new PageEvenementsDTO(List.of(new EvenementDTO()), null))).isEqualTo(1);
+        assertThat(MesureServices.taille("version")).isEqualTo(-1);
+        assertThat(MesureServices.taille(null)).isEqualTo(-1);
+    }
+
+    @Test
+    void regroupeLesTaillesEnTranches() {
+        assertThat(MesureServices.tranche(-1)).isEqualTo(MesureServices.SANS_TAILLE);
+        assertThat(MesureServices.tranche(0)).isEqualTo("0");
+        assertThat(MesureServices.tranche(10)).isEqualTo("1-10");
+        assertThat(MesureServices.tranche(11)).isEqualTo("11-100");
+        assertThat(MesureServices.tranche(1000)).isEqualTo("101-1000");
+        assertThat(MesureServices.tranche(1001)).isEqualTo("plus-de-1000");
+    }
+}
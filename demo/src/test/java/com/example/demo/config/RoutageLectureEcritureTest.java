@@ -0,0 +1,191 @@
+package com.example.demo.config;
+
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.impl.UserDetailsImpl;
+import com.example.demo.service.impl.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Routage entre deux bases H2 en mémoire, l'une jouant la base principale et l'autre la réplique
+ */
+class RoutageLectureEcritureTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DataSource primaire = base("primaire");
+    private final DataSource replique = base("replique");
+
+    @AfterEach
+    void nettoyer() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void envoieLesLecturesSurLaRepliqueEtLeResteSurLaBasePrincipale() throws SQLException {
+        RoutageLectureEcriture routage = routage(sonde("SELECT 0"));
+
+        assertThat(baseAtteinte(routage)).isEqualTo("primaire");
+        lectureSeule();
+        assertThat(baseAtteinte(routage)).isEqualTo("replique");
+    }
+
+    @Test
+    void revientSurLaBasePrincipaleQuandLaRepliqueEstEnRetardOuInjoignable() throws SQLException {
+        lectureSeule();
+
+        assertThat(baseAtteinte(routage(sonde("SELECT 30")))).isEqualTo("primaire");
+        assertThat(baseAtteinte(routage(sonde("SELECT * FROM table_absente")))).isEqualTo("primaire");
+    }
+
+    @Test
+    void relitSurLaBasePrincipaleApresLaValidationDUneEcritureDeLUtilisateur() throws SQLException {
+        RoutageLectureEcriture routage = routage(sonde("SELECT 0"));
+        connecter(1L);
+
+        ecrire(routage, TransactionSynchronization.STATUS_ROLLED_BACK);
+        lectureSeule();
+        assertThat(baseAtteinte(routage)).isEqualTo("replique");
+
+        ecrire(routage, TransactionSynchronization.STATUS_COMMITTED);
+        lectureSeule();
+        assertThat(baseAtteinte(routage)).isEqualTo("primaire");
+
+        connecter(2L);
+        assertThat(baseAtteinte(routage)).isEqualTo("replique");
+    }
+
+    @Test
+    void laRechercheParNomDUtilisateurLitLaBasePrincipale() {
+        RoutageLectureEcriture routage = routage(sonde("SELECT 0"));
+        UserRepository users = mock(UserRepository.class);
+        List<RoutageLectureEcriture.Cible> cibles = new ArrayList<>();
+        when(users.findByUsername("nouveau")).thenAnswer(invocation -> {
+            cibles.add(routage.cible());
+            User user = new User("nouveau", "nouveau@x.fr", "motdepasse");
+            user.setId(3L);
+            user.setRoles(Set.of("ROLE_USER"));
+            return Optional.of(user);
+        });
+        UserDetailsServiceImpl service = new UserDetailsServiceImpl();
+        ReflectionTestUtils.setField(service, "userRepository", users);
+
+        // Connexion juste après l'inscription : aucun utilisateur connecté ni écriture signalée
+        lectureSeule();
+        service.loadUserByUsername("nouveau");
+
+        assertThat(cibles).containsExactly(RoutageLectureEcriture.Cible.PRIMAIRE);
+        assertThat(routage.cible()).isEqualTo(RoutageLectureEcriture.Cible.REPLIQUE);
+    }
+
+    @Test
+    void lesLecturesPourUnAutreUtilisateurSuiventSesEcritures() throws SQLException {
+        RoutageLectureEcriture routage = routage(sonde("SELECT 0"));
+
+        // Écriture sans utilisateur connecté, signalée pour le propriétaire des données
+        ecrire(routage, TransactionSynchronization.STATUS_COMMITTED, () -> RoutageLectureEcriture.signalerEcriture(3L));
+        lectureSeule();
+        assertThat(baseAtteinte(routage)).isEqualTo("replique");
+        assertThat(RoutageLectureEcriture.lectureDe(3L, () -> baseAtteinteSansErreur(routage))).isEqualTo("primaire");
+        assertThat(RoutageLectureEcriture.lectureDe(4L, () -> baseAtteinteSansErreur(routage))).isEqualTo("replique");
+        assertThat(RoutageLectureEcriture.surPrimaire(() -> baseAtteinteSansErreur(routage))).isEqualTo("primaire");
+    }
+
+    /**
+     * Transaction d'écriture qui obtient sa connexion puis se termine avec le statut donné
+     */
+    private static void ecrire(RoutageLectureEcriture routage, int statut, Runnable... signalements) throws SQLException {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        for (Runnable signalement : signalements) {
+            signalement.run();
+        }
+        assertThat(baseAtteinte(routage)).isEqualTo("primaire");
+        List<TransactionSynchronization> synchronisations = TransactionSynchronizationManager.getSynchronizations();
+        if (statut == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronisations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronisations.forEach(synchronisation -> synchronisation.afterCompletion(statut));
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    private RoutageLectureEcriture routage(SondeReplique sonde) {
+        return new RoutageLectureEcriture(primaire, replique, sonde, Duration.ofMinutes(1), 100, meterRegistry);
+    }
+
+    private SondeReplique sonde(String requete) {
+        SondeReplique sonde = new SondeReplique(replique, requete, 2, meterRegistry);
+        sonde.sonder();
+        return sonde;
+    }
+
+    private static void lectureSeule() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    private static void connecter(Long userId) {
+        UserDetailsImpl utilisateur = new UserDetailsImpl(userId, "u" + userId, "u@x.fr", null, List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(utilisateur, null, List.of()));
+    }
+
+    private static String baseAtteinte(DataSource dataSource) throws SQLException {
+        try (Connection connexion = dataSource.getConnection();
+             Statement statement = connexion.createStatement();
+             ResultSet resultat = statement.executeQuery("SELECT nom FROM base")) {
+            resultat.next();
+            return resultat.getString(1);
+        }
+    }
+
+    private static String baseAtteinteSansErreur(DataSource dataSource) {
+        try {
+            return baseAtteinte(dataSource);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static DataSource base(String nom) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + nom + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Connection connexion = dataSource.getConnection(); Statement statement = connexion.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS base (nom VARCHAR(20))");
+            statement.execute("DELETE FROM base");
+            statement.execute("INSERT INTO base VALUES ('" + nom + "')");
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.EvenementService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Endpoints des événements sur une base H2, authentifiés par un JWT comme depuis le frontend.
+ * Chaque test inscrit son propre utilisateur depuis la même adresse : la limitation de débit est désactivée.
+ */
+@SpringBootTest(properties = {"ajenda.app.import.tailleLot=2", "ajenda.app.indexPlages.actif=true",
+        "ajenda.app.limiteur.actif=false"})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class EvenementControllerTest {
+
+    private static final AtomicInteger UTILISATEURS = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoSpyBean
+    private EvenementService evenementService;
+
+    private String jeton;
+
+    @BeforeEach
+    void connecter() throws Exception {
+        String nom = "utilisateur" + UTILISATEURS.incrementAndGet();
+        mockMvc.perform(post("/api/auth/signup").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + nom + "\",\"email\":\"" + nom + "@x.fr\",\"password\":\"motdepasse\"}"))
+                .andExpect(status().isOk());
+        String reponse = mockMvc.perform(post("/api/auth/signin").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + nom + "\",\"password\":\"motdepasse\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        jeton = "Bearer " + objectMapper.readTree(reponse).get("token").asText();
+    }
+
+    @Test
+    void leFluxNdjsonSeTermineParUneRedistributionAsynchroneAutorisee() throws Exception {
+        creer("reunion", "2026-01-05T09:00:00", "2026-01-05T10:00:00");
+
+        for (String url : new String[]{"/api/evenements/mes-evenements/flux", "/api/evenements/batch"}) {
+            MvcResult resultat = mockMvc.perform(get(url).header(HttpHeaders.AUTHORIZATION, jeton)
+                            .accept(MediaType.APPLICATION_NDJSON))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(resultat)).andExpect(status().isOk());
+
+            String[] lignes = resultat.getResponse().getContentAsString().split("\n");
+            assertThat(lignes).as(url).hasSize(1);
+            assertThat(objectMapper.readTree(lignes[0]).get("titre").asText()).isEqualTo("reunion");
+        }
+    }
+
+    @Test
+    void leFluxSseRecoitLesChangementsPuisSeFermeProprementAExpiration() throws Exception {
+        MvcResult resultat = mockMvc.perform(get("/api/evenements/stream").header(HttpHeaders.AUTHORIZATION, jeton)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        long id = creer("atelier", "2026-01-06T14:00:00", "2026-01-06T15:00:00").get("id").asLong();
+        // Envoyé par le pool d'envoi du bus, après la validation de la création
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!resultat.getResponse().getContentAsString().contains("\"atelier\"") && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertThat(resultat.getResponse().getContentAsString())
+                .contains("event:creation")
+                .contains("\"id\":" + id);
+
+        // Expiration du flux avant tout ping : la redistribution asynchrone ferme la réponse, sans 401
+        MockAsyncContext contexte = (MockAsyncContext) resultat.getRequest().getAsyncContext();
+        for (AsyncListener ecouteur : contexte.getListeners()) {
+            ecouteur.onTimeout(new AsyncEvent(contexte));
+        }
+        mockMvc.perform(asyncDispatch(resultat)).andExpect(status().isOk());
+    }
+
+    @Test
+    void lImportEnLotsRattacheChaqueIdEtSignaleChaqueErreurASaPosition() throws Exception {
+        // L'index des plages est chargé avant l'import, qui doit l'invalider une fois validé
+        mockMvc.perform(get("/api/evenements/mes-evenements/plage").header(HttpHeaders.AUTHORIZATION, jeton)
+                        .param("debut", "2026-02-01T00:00:00").param("fin", "2026-02-28T00:00:00"))
+                .andExpect(status().isOk());
+
+        String ndjson = String.join("\n",
+                "{\"titre\":\"import0\",\"dateDebut\":\"2026-02-02T09:00:00\",\"dateFin\":\"2026-02-02T10:00:00\"}",
+                "{\"titre\":\"\",\"dateDebut\":\"2026-02-03T09:00:00\",\"dateFin\":\"2026-02-03T10:00:00\"}",
+                "{\"titre\":\"import2\",\"dateDebut\":\"2026-02-04T09:00:00\",\"dateFin\":\"2026-02-04T10:00:00\"}",
+                "{\"titre\":\"import3\",\"dateDebut\":\"2026-02-05T09:00:00\",\"dateFin\":\"2026-02-05T10:00:00\","
+                        + "\"regleRecurrence\":\"FREQ=SOUVENT\"}",
+                "{\"titre\":\"import4\",\"dateDebut\":\"2026-02-06T09:00:00\",\"dateFin\":\"2026-02-06T10:00:00\"}",
+                "{\"titre\":\"import5\",\"dateDebut\":\"2026-02-07T09:00:00\",\"dateFin\":\"2026-02-07T10:00:00\"}");
+        String reponse = mockMvc.perform(post("/api/evenements/batch").header(HttpHeaders.AUTHORIZATION, jeton)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode resultats = objectMapper.readTree(reponse);
+
+        assertThat(resultats).hasSize(6);
+        assertThat(resultats.get(1).get("succes").asBoolean()).isFalse();
+        assertThat(resultats.get(1).get("erreurs").has("titre")).isTrue();
+        assertThat(resultats.get(3).get("succes").asBoolean()).isFalse();
+        assertThat(resultats.get(3).get("erreurs").has("regleRecurrence")).isTrue();
+        // Trois lots de deux : chaque id généré revient à l'événement de la même position
+        for (int i : new int[]{0, 2, 4, 5}) {
+            JsonNode resultat = resultats.get(i);
+            assertThat(resultat.get("index").asInt()).isEqualTo(i);
+            assertThat(resultat.get("succes").asBoolean()).isTrue();
+            String evenement = mockMvc.perform(get("/api/evenements/" + resultat.get("id").asLong())
+                            .header(HttpHeaders.AUTHORIZATION, jeton))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            assertThat(objectMapper.readTree(evenement).get("titre").asText()).isEqualTo("import" + i);
+        }
+
+        String plage = mockMvc.perform(get("/api/evenements/mes-evenements/plage").header(HttpHeaders.AUTHORIZATION, jeton)
+                        .param("debut", "2026-02-01T00:00:00").param("fin", "2026-02-28T00:00:00"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(objectMapper.readTree(plage).findValuesAsText("titre"))
+                .containsExactly("import0", "import2", "import4", "import5");
+    }
+
+    @Test
+    void lesExceptionsDUneSerieSontDedoublonneesEtBornees() throws Exception {
+        String reponse = mockMvc.perform(post("/api/evenements").header(HttpHeaders.AUTHORIZATION, jeton)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(serieQuotidienne("\"2026-01-07T09:00:00\",\"2026-01-06T09:00:00\",\"2026-01-07T09:00:00\"")))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(objectMapper.readTree(reponse).get("exceptionsRecurrence").toString())
+                .isEqualTo("[\"2026-01-06T09:00:00\",\"2026-01-07T09:00:00\"]");
+
+        StringBuilder exceptions = new StringBuilder();
+        for (int i = 0; i <= 100; i++) {
+            exceptions.append(i == 0 ? "" : ",").append('"').append(LocalDateTime.of(2026, 1, 6, 9, 0).plusDays(i)).append('"');
+        }
+        mockMvc.perform(post("/api/evenements").header(HttpHeaders.AUTHORIZATION, jeton)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(serieQuotidienne(exceptions.toString())))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void leParametreFieldsSelectionneLesChampsEtRefuseUnChampInconnu() throws Exception {
+        long id = creer("revue", "2026-03-02T09:00:00", "2026-03-02T10:00:00").get("id").asLong();
+
+        String selection = mockMvc.perform(get("/api/evenements/" + id).header(HttpHeaders.AUTHORIZATION, jeton)
+                        .param("fields", "id,titre"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(objectMapper.readTree(selection).fieldNames()).toIterable().containsExactlyInAnyOrder("id", "titre");
+
+        String complet = mockMvc.perform(get("/api/evenements/" + id).header(HttpHeaders.AUTHORIZATION, jeton)
+                        .param("fields", " "))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(objectMapper.readTree(complet).has("dateDebut")).isTrue();
+
+        mockMvc.perform(get("/api/evenements/" + id).header(HttpHeaders.AUTHORIZATION, jeton)
+                        .param("fields", "id,motDePasse"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void uneVersionDejaDetenueRepond304SansLireLesEvenements() throws Exception {
+        creer("revue", "2026-04-06T09:00:00", "2026-04-06T10:00:00");
+        String etag = mockMvc.perform(get("/api/evenements/mes-evenements").header(HttpHeaders.AUTHORIZATION, jeton))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+        clearInvocations(evenementService);
+
+        mockMvc.perform(get("/api/evenements/mes-evenements").header(HttpHeaders.AUTHORIZATION, jeton)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        verify(evenementService, never()).getEvenementsParUtilisateur(any());
+
+        // Une écriture change la version : l'ancien ETag ne suffit plus
+        creer("retro", "2026-04-07T09:00:00", "2026-04-07T10:00:00");
+        mockMvc.perform(get("/api/evenements/mes-evenements").header(HttpHeaders.AUTHORIZATION, jeton)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        verify(evenementService, times(1)).getEvenementsParUtilisateur(any());
+    }
+
+    @Test
+    void uneModificationAvecUneVersionPerimeeEstRefuseeEn409() throws Exception {
+        JsonNode cree = creer("revue", "2026-04-13T09:00:00", "2026-04-13T10:00:00");
+        long id = cree.get("id").asLong();
+        long version = cree.get("version").asLong();
+
+        String reponse = mockMvc.perform(put("/api/evenements/" + id).header(HttpHeaders.AUTHORIZATION, jeton)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(modification("revue avancée", version)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(objectMapper.readTree(reponse).get("version").asLong()).isGreaterThan(version);
+
+        // Second client qui a lu l'événement avant la première modification
+        mockMvc.perform(put("/api/evenements/" + id).header(HttpHeaders.AUTHORIZATION, jeton)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(modification("revue reportée", version)))
+                .andExpect(status().isConflict());
+
+        String relu = mockMvc.perform(get("/api/evenements/" + id).header(HttpHeaders.AUTHORIZATION, jeton))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(objectMapper.readTree(relu).get("titre").asText()).isEqualTo("revue avancée");
+    }
+
+    private static String modification(String titre, long version) {
+        return "{\"titre\":\"" + titre + "\",\"dateDebut\":\"2026-04-13T08:00:00\","
+                + "\"dateFin\":\"2026-04-13T09:00:00\",\"version\":" + version + "}";
+    }
+
+    private static String serieQuotidienne(String exceptions) {
+        return "{\"titre\":\"veille\",\"dateDebut\":\"2026-01-05T09:00:00\",\"dateFin\":\"2026-01-05T09:30:00\","
+                + "\"regleRecurrence\":\"FREQ=DAILY\",\"exceptionsRecurrence\":[" + exceptions + "]}";
+    }
+
+    private JsonNode creer(String titre, String debut, String fin) throws Exception {
+        String reponse = mockMvc.perform(post("/api/evenements").header(HttpHeaders.AUTHORIZATION, jeton)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"titre\":\"" + titre + "\",\"dateDebut\":\"" + debut + "\",\"dateFin\":\"" + fin + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(reponse);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.JacksonConfig;
+import com.example.demo.dto.EvenementDTO;
+import com.example.demo.exception.RequeteInvalideException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Filtres de sélection des champs appliqués avec un ObjectMapper construit hors de Spring Boot
+ */
+class SelectionChampsAdviceTest {
+
+    @Test
+    void unChampInconnuEstRefuse() {
+        assertThatThrownBy(() -> SelectionChampsAdvice.filtres("id,motDePasse"))
+                .isInstanceOf(RequeteInvalideException.class)
+                .hasMessageContaining("motDePasse");
+    }
+
+    @Test
+    void unParametreVideNeSelectionneRien() {
+        assertThat(SelectionChampsAdvice.filtres(null)).isNull();
+        assertThat(SelectionChampsAdvice.filtres("")).isNull();
+        assertThat(SelectionChampsAdvice.filtres("  ")).isNull();
+        assertThat(SelectionChampsAdvice.filtres(" , ")).isNull();
+    }
+
+    @Test
+    void laSelectionNEcritQueLesChampsDemandes() throws Exception {
+        JsonNode json = ecrire(SelectionChampsAdvice.filtres(" id , titre,"));
+
+        assertThat(json.fieldNames()).toIterable().containsExactlyInAnyOrder("id", "titre");
+    }
+
+    @Test
+    void leFiltreParDefautEcritTousLesChamps() throws Exception {
+        JsonNode json = ecrire(JacksonConfig.filtresParDefaut());
+
+        List<String> champs = Arrays.stream(EvenementDTO.class.getDeclaredFields())
+                .filter(champ -> !Modifier.isStatic(champ.getModifiers()))
+                .map(Field::getName)
+                .toList();
+        assertThat(json.fieldNames()).toIterable().containsExactlyInAnyOrderElementsOf(champs);
+        assertThat(json.get("exceptionsRecurrence")).hasSize(1);
+    }
+
+    @Test
+    void sansFiltreEnregistreLeDtoNePeutPasEtreEcrit() {
+        assertThatThrownBy(() -> ecrire(null)).isInstanceOf(InvalidDefinitionException.class);
+    }
+
+    private static JsonNode ecrire(FilterProvider filtres) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        if (filtres != null) {
+            objectMapper.setFilterProvider(filtres);
+        }
+        EvenementDTO evenement = new EvenementDTO();
+        evenement.setId(1L);
+        evenement.setTitre("revue");
+        evenement.setDateDebut(LocalDateTime.of(2026, 1, 5, 9, 0));
+        evenement.setDateFin(LocalDateTime.of(2026, 1, 5, 10, 0));
+        evenement.setExceptionsRecurrence(List.of(LocalDateTime.of(2026, 1, 12, 9, 0)));
+        return objectMapper.readTree(objectMapper.writeValueAsString(evenement));
+    }
+}
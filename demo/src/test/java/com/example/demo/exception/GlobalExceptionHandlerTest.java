@@ -0,0 +1,46 @@
+package com.example.demo.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GlobalExceptionHandlerTest {
+
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ControleurEchecs())
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @Test
+    void seuleUneRequeteInvalideRenvoieSonMessageEn400() throws Exception {
+        mockMvc.perform(get("/invalide"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Granularité invalide: mois (jour ou heure attendu)"));
+
+        mockMvc.perform(get("/interne"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().string(not(containsString("clé interne"))));
+    }
+
+    @RestController
+    static class ControleurEchecs {
+
+        @GetMapping("/invalide")
+        String invalide() {
+            throw new RequeteInvalideException("Granularité invalide: mois (jour ou heure attendu)");
+        }
+
+        @GetMapping("/interne")
+        String interne() {
+            throw new IllegalArgumentException("clé interne absente du cache");
+        }
+    }
+}
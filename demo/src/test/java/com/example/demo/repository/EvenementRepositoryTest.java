@@ -0,0 +1,97 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.EvenementDTO;
+import com.example.demo.model.Evenement;
+import com.example.demo.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Requêtes par plage sur une base H2 en mémoire
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class EvenementRepositoryTest {
+
+    private static final LocalDateTime ORIGINE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    // Prédicat d'origine, sans borne sur le début : parcourt tout l'agenda
+    private static final String ANCIEN_PREDICAT = "SELECT e.id FROM Evenement e WHERE e.user.id = ?1 "
+            + "AND e.regleRecurrence IS NULL AND ((e.dateDebut BETWEEN ?2 AND ?3) OR "
+            + "(e.dateFin BETWEEN ?2 AND ?3) OR (e.dateDebut <= ?2 AND e.dateFin >= ?3)) ORDER BY e.id";
+
+    @Autowired
+    private EvenementRepository evenementRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void creerUtilisateur() {
+        user = entityManager.merge(new User("alice", "alice@x.fr", "motdepasse"));
+    }
+
+    @Test
+    void laDureeMaxEstCelleDuPlusLongEvenementNonRecurrent() {
+        assertThat(evenementRepository.findDureeMaxPonctuelsSecondes()).isNull();
+
+        evenement(ORIGINE, ORIGINE.plusHours(2), null);
+        evenement(ORIGINE, ORIGINE.plusDays(200), null);
+        evenement(ORIGINE, ORIGINE.plusDays(300), "FREQ=DAILY");
+
+        assertThat(evenementRepository.findDureeMaxPonctuelsSecondes()).isEqualTo(200L * 24 * 3600);
+    }
+
+    @Test
+    void lePredicatBorneRenvoieLesMemesLignesQueLAncien() {
+        Random aleatoire = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime debut = ORIGINE.plusHours(aleatoire.nextInt(24 * 365));
+            // Quelques événements plus longs que la durée maximale des nouvelles écritures
+            long minutes = i % 25 == 0 ? 60L * 24 * (93 + aleatoire.nextInt(200)) : aleatoire.nextInt(60 * 24 * 3);
+            evenement(debut, debut.plusMinutes(minutes), null);
+        }
+        entityManager.flush();
+        LocalDateTime debutMin = ORIGINE.minusYears(1);
+        long retrospective = evenementRepository.findDureeMaxPonctuelsSecondes();
+
+        for (int essai = 0; essai < 200; essai++) {
+            LocalDateTime debut = ORIGINE.plusMinutes(aleatoire.nextInt(60 * 24 * 400));
+            LocalDateTime fin = debut.plusMinutes(aleatoire.nextInt(60 * 24 * 30));
+            List<Long> attendus = entityManager.createQuery(ANCIEN_PREDICAT, Long.class)
+                    .setParameter(1, user.getId()).setParameter(2, debut).setParameter(3, fin)
+                    .getResultList();
+
+            assertThat(ids(evenementRepository.findPonctuelsParUtilisateurEtPlage(user.getId(), debut, fin,
+                    debut.minusSeconds(retrospective)))).as("plage %s - %s", debut, fin).isEqualTo(attendus);
+            assertThat(ids(evenementRepository.findPonctuelsParPlage(debut, fin, debut.minusSeconds(retrospective))))
+                    .as("plage %s - %s", debut, fin).isEqualTo(attendus);
+            assertThat(ids(evenementRepository.findPonctuelsParUtilisateurEtPlage(user.getId(), debut, fin, debutMin)))
+                    .isEqualTo(attendus);
+        }
+    }
+
+    private void evenement(LocalDateTime debut, LocalDateTime fin, String regle) {
+        Evenement evenement = new Evenement();
+        evenement.setTitre("e");
+        evenement.setDateDebut(debut);
+        evenement.setDateFin(fin);
+        evenement.setRegleRecurrence(regle);
+        evenement.setUser(user);
+        entityManager.persist(evenement);
+    }
+
+    private static List<Long> ids(List<EvenementDTO> evenements) {
+        return evenements.stream().map(EvenementDTO::getId).sorted().toList();
+    }
+}
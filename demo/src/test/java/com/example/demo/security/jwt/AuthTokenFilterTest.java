@@ -0,0 +1,107 @@
+package com.example.demo.security.jwt;
+
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.impl.UserDetailsImpl;
+import com.example.demo.service.impl.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AuthTokenFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserDetailsServiceImpl userDetailsService = mock(UserDetailsServiceImpl.class);
+    private final CacheJetonsValides cacheJetons = cacheJetons();
+    private final RegistreVersionsJetons registreVersions = registreVersions();
+
+    @AfterEach
+    void nettoyer() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void uneRevocationRefuseAussiUnTokenDejaEnCache() throws Exception {
+        JwtUtils jwtUtils = JwtUtilsTest.jwtUtils(true);
+        AuthTokenFilter filtre = filtre(jwtUtils);
+        String token = jwtUtils.generateJwtToken(JwtUtilsTest.authentification(JwtUtilsTest.utilisateur(7L, 0L)));
+        when(userRepository.findVersionJetonById(7L)).thenReturn(Optional.of(0L), Optional.of(1L));
+        when(userRepository.incrementerVersionJeton(7L)).thenReturn(1);
+
+        assertThat(authentifier(filtre, token)).isNotNull();
+        assertThat(cacheJetons.obtenir(token)).isNotNull();
+
+        assertThat(registreVersions.revoquer(7L)).isTrue();
+
+        assertThat(cacheJetons.obtenir(token)).isNotNull();
+        assertThat(authentifier(filtre, token)).isNull();
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void sansLeModeClaimsLUtilisateurEstChargeEnBaseMemeSiLeTokenPorteLesClaims() throws Exception {
+        String token = JwtUtilsTest.jwtUtils(true)
+                .generateJwtToken(JwtUtilsTest.authentification(JwtUtilsTest.utilisateur(7L, 0L)));
+        AuthTokenFilter filtre = filtre(JwtUtilsTest.jwtUtils(false));
+        // Rôle retiré en base depuis l'émission du token
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(new UserDetailsImpl(
+                7L, "alice", "alice@x.fr", null, List.of(new SimpleGrantedAuthority("ROLE_USER")), 0L));
+        when(userRepository.findVersionJetonById(7L)).thenReturn(Optional.of(0L));
+
+        Authentication authentication = authentifier(filtre, token);
+
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER");
+        verify(userDetailsService).loadUserByUsername("alice");
+    }
+
+    private Authentication authentifier(AuthTokenFilter filtre, String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest requete = new MockHttpServletRequest("GET", "/api/evenements");
+        requete.addHeader("Authorization", "Bearer " + token);
+        filtre.doFilter(requete, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private AuthTokenFilter filtre(JwtUtils jwtUtils) {
+        AuthTokenFilter filtre = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filtre, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filtre, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filtre, "cacheJetons", cacheJetons);
+        ReflectionTestUtils.setField(filtre, "registreVersions", registreVersions);
+        return filtre;
+    }
+
+    private CacheJetonsValides cacheJetons() {
+        CacheJetonsValides cache = new CacheJetonsValides(meterRegistry);
+        ReflectionTestUtils.setField(cache, "taille", 100L);
+        ReflectionTestUtils.setField(cache, "ttlMaxMs", 300_000L);
+        cache.init();
+        return cache;
+    }
+
+    private RegistreVersionsJetons registreVersions() {
+        RegistreVersionsJetons registre = new RegistreVersionsJetons(userRepository, meterRegistry);
+        ReflectionTestUtils.setField(registre, "taille", 100L);
+        ReflectionTestUtils.setField(registre, "ttlMs", 60_000L);
+        registre.init();
+        return registre;
+    }
+}
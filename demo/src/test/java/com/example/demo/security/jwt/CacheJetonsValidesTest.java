@@ -0,0 +1,67 @@
+package com.example.demo.security.jwt;
+
+import com.example.demo.service.impl.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheJetonsValidesTest {
+
+    private final AtomicLong horloge = new AtomicLong(1_000_000_000L);
+    private final long debutMs = 1_800_000_000_000L;
+
+    @Test
+    void uneEntreeNeSurvitPasALExpirationDuToken() {
+        CacheJetonsValides cache = cache(300_000);
+        cache.enregistrer("jeton", JwtUtilsTest.utilisateur(7L, 0L), new Date(debutMs + 60_000));
+
+        avancer(59_999);
+        assertThat(cache.obtenir("jeton")).isNotNull();
+        avancer(1);
+        assertThat(cache.obtenir("jeton")).isNull();
+    }
+
+    @Test
+    void uneEntreeExpireApresLaDureeMaximaleMemeSiLeTokenEstPlusLong() {
+        CacheJetonsValides cache = cache(300_000);
+        cache.enregistrer("jeton", JwtUtilsTest.utilisateur(7L, 0L), new Date(debutMs + 3_600_000));
+
+        avancer(299_999);
+        assertThat(cache.obtenir("jeton")).isNotNull();
+        avancer(1);
+        assertThat(cache.obtenir("jeton")).isNull();
+    }
+
+    @Test
+    void leMotDePasseNEstPasConserve() {
+        CacheJetonsValides cache = cache(300_000);
+
+        UserDetailsImpl conserve = cache.enregistrer("jeton", JwtUtilsTest.utilisateur(7L, 3L), new Date(debutMs + 60_000));
+
+        assertThat(conserve.getPassword()).isNull();
+        assertThat(cache.obtenir("jeton")).isSameAs(conserve);
+        assertThat(conserve.getUsername()).isEqualTo("alice");
+        assertThat(conserve.getAuthorities()).hasSize(2);
+        assertThat(conserve.getVersionJeton()).isEqualTo(3L);
+    }
+
+    private void avancer(long ms) {
+        horloge.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+
+    private CacheJetonsValides cache(long ttlMaxMs) {
+        long origine = horloge.get();
+        CacheJetonsValides cache = new CacheJetonsValides(new SimpleMeterRegistry(), horloge::get,
+                () -> debutMs + TimeUnit.NANOSECONDS.toMillis(horloge.get() - origine));
+        ReflectionTestUtils.setField(cache, "taille", 100L);
+        ReflectionTestUtils.setField(cache, "ttlMaxMs", ttlMaxMs);
+        cache.init();
+        return cache;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.security.jwt;
+
+import com.example.demo.service.impl.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilsTest {
+
+    static final String SECRET = "5970337336763979244226452948404D635166546A576E5A7234753777217A25432A462D4A614E645267556B58703273357638792F423F4528482B4D6251655468";
+
+    @Test
+    void lUtilisateurReconstruitDepuisLesClaimsEstCeluiQuiAEteEmis() {
+        JwtUtils jwtUtils = jwtUtils(true);
+        UserDetailsImpl emis = utilisateur(7L, 3L);
+
+        Claims claims = jwtUtils.extraireClaims(jwtUtils.generateJwtToken(authentification(emis)));
+        UserDetailsImpl reconstruit = jwtUtils.construireUtilisateur(claims);
+
+        assertThat(reconstruit.getId()).isEqualTo(7L);
+        assertThat(reconstruit.getUsername()).isEqualTo("alice");
+        assertThat(reconstruit.getEmail()).isEqualTo("alice@x.fr");
+        assertThat(reconstruit.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "ROLE_ADMIN");
+        assertThat(reconstruit.getVersionJeton()).isEqualTo(3L);
+        assertThat(reconstruit.getPassword()).isNull();
+    }
+
+    @Test
+    void sansLeModeClaimsLeTokenNePorteQueLeSujetEtLaVersion() {
+        JwtUtils jwtUtils = jwtUtils(false);
+
+        Claims claims = jwtUtils.extraireClaims(jwtUtils.generateJwtToken(authentification(utilisateur(7L, 3L))));
+
+        assertThat(claims.getSubject()).isEqualTo("alice");
+        assertThat(jwtUtils.getVersion(claims)).isEqualTo(3L);
+        assertThat(claims).doesNotContainKeys(JwtUtils.CLAIM_ID, JwtUtils.CLAIM_EMAIL, JwtUtils.CLAIM_ROLES);
+        assertThat(jwtUtils.construireUtilisateur(claims)).isNull();
+    }
+
+    @Test
+    void unTokenEmisSansVersionEstEnVersionZero() {
+        JwtUtils jwtUtils = jwtUtils(true);
+        String token = Jwts.builder()
+                .setSubject("alice")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThat(jwtUtils.getVersion(jwtUtils.extraireClaims(token))).isZero();
+    }
+
+    static JwtUtils jwtUtils(boolean claimsUtilisateur) {
+        JwtUtils jwtUtils = new JwtUtils(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60_000);
+        ReflectionTestUtils.setField(jwtUtils, "claimsUtilisateur", claimsUtilisateur);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    static UserDetailsImpl utilisateur(Long id, long versionJeton) {
+        return new UserDetailsImpl(id, "alice", "alice@x.fr", "motdepasse",
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")), versionJeton);
+    }
+
+    static UsernamePasswordAuthenticationToken authentification(UserDetailsImpl utilisateur) {
+        return new UsernamePasswordAuthenticationToken(utilisateur, null, utilisateur.getAuthorities());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.security.limitation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LimiteurDebitTest {
+
+    private final AtomicLong horloge = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void accepteUneRafaleDeCapaciteRequetesPuisRefuse() {
+        LimiteurDebit limiteur = new LimiteurDebit("test", 5, Duration.ofSeconds(60), 100, horloge::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiteur.consommer("10.0.0.1")).isZero();
+        }
+        long attente = limiteur.consommer("10.0.0.1");
+
+        // Un jeton revient toutes les 12 secondes
+        assertThat(attente).isEqualTo(TimeUnit.SECONDS.toNanos(12));
+        assertThat(PolitiquesLimitation.secondesAvantNouvelEssai(attente)).isEqualTo(12);
+    }
+
+    @Test
+    void rechargeLeSeauAuRythmeDeLaPeriode() {
+        LimiteurDebit limiteur = new LimiteurDebit("test", 5, Duration.ofSeconds(60), 100, horloge::get);
+        for (int i = 0; i < 5; i++) {
+            limiteur.consommer("10.0.0.1");
+        }
+
+        horloge.addAndGet(TimeUnit.SECONDS.toNanos(12));
+        assertThat(limiteur.consommer("10.0.0.1")).isZero();
+        assertThat(limiteur.consommer("10.0.0.1")).isPositive();
+
+        // Après une période complète, la rafale entière est de nouveau disponible
+        horloge.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiteur.consommer("10.0.0.1")).isZero();
+        }
+    }
+
+    @Test
+    void limiteChaqueCleSeparement() {
+        LimiteurDebit limiteur = new LimiteurDebit("test", 1, Duration.ofSeconds(60), 100, horloge::get);
+
+        assertThat(limiteur.consommer("alice")).isZero();
+        assertThat(limiteur.consommer("alice")).isPositive();
+        assertThat(limiteur.consommer("bob")).isZero();
+    }
+
+    @Test
+    void nAccepteJamaisPlusQueLaCapaciteSousConcurrence() throws Exception {
+        LimiteurDebit limiteur = new LimiteurDebit("test", 100, Duration.ofHours(1), 100, horloge::get);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> taches = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                taches.add(() -> {
+                    int acceptees = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        if (limiteur.consommer("10.0.0.1") == 0) {
+                            acceptees++;
+                        }
+                    }
+                    return acceptees;
+                });
+            }
+            int total = 0;
+            for (Future<Integer> resultat : pool.invokeAll(taches)) {
+                total += resultat.get();
+            }
+            assertThat(total).isEqualTo(100);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.security.motdepasse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EncodeursMotDePasseTest {
+
+    @Test
+    void litLesAnciensHachagesSansPrefixeEtDemandeLeurReencodage() {
+        PasswordEncoder encodeur = EncodeursMotDePasse.creer(EncodeursMotDePasse.BCRYPT, 4);
+        String ancien = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertThat(encodeur.matches("secret", ancien)).isTrue();
+        assertThat(encodeur.upgradeEncoding(ancien)).isTrue();
+    }
+
+    @Test
+    void neReencodePasUnHachageAJour() {
+        PasswordEncoder encodeur = EncodeursMotDePasse.creer(EncodeursMotDePasse.BCRYPT, 4);
+        String hachage = encodeur.encode("secret");
+
+        assertThat(hachage).startsWith("{bcrypt}$2a$04$");
+        assertThat(encodeur.matches("secret", hachage)).isTrue();
+        assertThat(encodeur.upgradeEncoding(hachage)).isFalse();
+    }
+
+    @Test
+    void reencodeApresUnChangementDeForceOuDEncodage() {
+        String hachage = EncodeursMotDePasse.creer(EncodeursMotDePasse.BCRYPT, 4).encode("secret");
+
+        assertThat(EncodeursMotDePasse.creer(EncodeursMotDePasse.BCRYPT, 5).upgradeEncoding(hachage)).isTrue();
+        PasswordEncoder pbkdf2 = EncodeursMotDePasse.creer(EncodeursMotDePasse.PBKDF2, 4);
+        assertThat(pbkdf2.matches("secret", hachage)).isTrue();
+        assertThat(pbkdf2.upgradeEncoding(hachage)).isTrue();
+    }
+
+    @Test
+    void refuseUnEncodageInconnu() {
+        assertThatThrownBy(() -> EncodeursMotDePasse.creer("md5", 10))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.service.ical;
+
+import com.example.demo.dto.EvenementDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedacteurICalendarTest {
+
+    @Test
+    void ecritUnCalendrierAvecFinsDeLigneCrlf() throws IOException {
+        EvenementDTO evenement = evenement(LocalDateTime.of(2025, 6, 2, 9, 0), LocalDateTime.of(2025, 6, 2, 10, 30), false);
+        evenement.setDateModification(LocalDateTime.of(2025, 5, 1, 12, 0));
+
+        String ics = ecrire(evenement);
+
+        assertThat(ics).startsWith("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n").endsWith("END:VCALENDAR\r\n");
+        assertThat(ics.replace("\r\n", "")).doesNotContain("\n");
+        assertThat(ics).contains("UID:evenement-7@ajenda\r\n", "DTSTAMP:20250501T120000Z\r\n",
+                "DTSTART:20250602T090000\r\n", "DTEND:20250602T103000\r\n");
+    }
+
+    @Test
+    void echappeLesTextes() {
+        assertThat(RedacteurICalendar.echapper("Réunion; budget, 2025\\T3\r\nsuite"))
+                .isEqualTo("Réunion\\; budget\\, 2025\\\\T3\\nsuite");
+    }
+
+    @Test
+    void replieLesLignesA75OctetsSansCouperUnCaractere() throws IOException {
+        EvenementDTO evenement = evenement(LocalDateTime.of(2025, 6, 2, 9, 0), LocalDateTime.of(2025, 6, 2, 10, 0), false);
+        evenement.setTitre("é".repeat(100));
+
+        String ics = ecrire(evenement);
+
+        assertThat(ics.split("\r\n")).allSatisfy(ligne ->
+                assertThat(ligne.getBytes(StandardCharsets.UTF_8).length).isLessThanOrEqualTo(75));
+        String titre = Arrays.stream(ics.split("\r\n"))
+                .dropWhile(ligne -> !ligne.startsWith("SUMMARY:"))
+                .takeWhile(ligne -> ligne.startsWith("SUMMARY:") || ligne.startsWith(" "))
+                .map(ligne -> ligne.startsWith(" ") ? ligne.substring(1) : ligne)
+                .reduce("", String::concat);
+        assertThat(titre).isEqualTo("SUMMARY:" + "é".repeat(100));
+    }
+
+    @Test
+    void journeeEntiereUtiliseUneFinExclusive() throws IOException {
+        String finAMinuit = ecrire(evenement(LocalDateTime.of(2025, 6, 2, 0, 0), LocalDateTime.of(2025, 6, 4, 0, 0), true));
+        String finDansLaJournee = ecrire(evenement(LocalDateTime.of(2025, 6, 2, 0, 0), LocalDateTime.of(2025, 6, 2, 23, 59), true));
+
+        assertThat(finAMinuit).contains("DTSTART;VALUE=DATE:20250602\r\n", "DTEND;VALUE=DATE:20250604\r\n");
+        assertThat(finDansLaJournee).contains("DTEND;VALUE=DATE:20250603\r\n");
+    }
+
+    private static String ecrire(EvenementDTO evenement) throws IOException {
+        StringWriter sortie = new StringWriter();
+        RedacteurICalendar redacteur = new RedacteurICalendar(sortie, ZoneOffset.UTC, Instant.EPOCH);
+        redacteur.ouvrir("Agenda");
+        redacteur.ecrire(evenement);
+        redacteur.fermer();
+        return sortie.toString();
+    }
+
+    private static EvenementDTO evenement(LocalDateTime debut, LocalDateTime fin, boolean journeeEntiere) {
+        EvenementDTO evenement = new EvenementDTO();
+        evenement.setId(7L);
+        evenement.setTitre("Réunion");
+        evenement.setDateDebut(debut);
+        evenement.setDateFin(fin);
+        evenement.setEstJourneeEntiere(journeeEntiere);
+        return evenement;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.exception.RequeteInvalideException;
+import com.example.demo.repository.EvenementLotRepository;
+import com.example.demo.repository.EvenementRepository;
+import com.example.demo.repository.JournalModificationRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.index.IndexPlagesEvenements;
+import com.example.demo.service.notification.BusChangements;
+import com.example.demo.service.notification.VersionsAgendas;
+import com.example.demo.service.planning.Granularite;
+import com.example.demo.service.recherche.MoteurRecherche;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class EvenementServiceImplTest {
+
+    private final EvenementRepository evenementRepository = mock(EvenementRepository.class);
+    private final IndexPlagesEvenements indexPlages = mock(IndexPlagesEvenements.class);
+    private final EvenementServiceImpl service = new EvenementServiceImpl(evenementRepository,
+            mock(EvenementLotRepository.class), mock(UserRepository.class), indexPlages, mock(MoteurRecherche.class),
+            mock(Validator.class), mock(BusChangements.class), mock(VersionsAgendas.class),
+            mock(JournalModificationRepository.class));
+
+    @Test
+    void unResumeAuDelaDuNombreDeCreneauxEstRefuseSansLireLesEvenements() {
+        LocalDateTime debut = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        assertThatThrownBy(() -> service.getResumeParUtilisateur(1L, debut, debut.plusYears(3), Granularite.HEURE))
+                .isInstanceOf(RequeteInvalideException.class)
+                .hasMessageContaining("2000");
+        verifyNoInteractions(evenementRepository, indexPlages);
+    }
+}
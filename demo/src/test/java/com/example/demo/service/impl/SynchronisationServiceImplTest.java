@@ -0,0 +1,152 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.EvenementDTO;
+import com.example.demo.dto.SynchronisationDTO;
+import com.example.demo.exception.JetonExpireException;
+import com.example.demo.model.JournalModification;
+import com.example.demo.repository.EvenementRepository;
+import com.example.demo.repository.JournalModificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SynchronisationServiceImplTest {
+
+    private static final Long UTILISATEUR = 7L;
+
+    private final JournalModificationRepository journal = mock(JournalModificationRepository.class);
+    private final EvenementRepository evenements = mock(EvenementRepository.class);
+    private final SynchronisationServiceImpl service = new SynchronisationServiceImpl(journal, evenements);
+
+    @BeforeEach
+    void configurer() {
+        ReflectionTestUtils.setField(service, "maxModifications", 3);
+        ReflectionTestUtils.setField(service, "delaiStabilisationMs", 5000L);
+        ReflectionTestUtils.setField(service, "retentionJours", 30);
+        ReflectionTestUtils.setField(service, "tailleLotCompaction", 10);
+        when(journal.findPremierId()).thenReturn(Optional.of(1L));
+        when(evenements.findDTOParIds(any())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).stream()
+                .map(SynchronisationServiceImplTest::evenement)
+                .toList());
+    }
+
+    @Test
+    void leJetonNeDepassePasLesEntreesTropRecentes() {
+        stable(20L);
+        when(journal.findParUtilisateurEntre(UTILISATEUR, 10L, 20L, Limit.of(4)))
+                .thenReturn(List.of(entree(12L, 100L, JournalModification.Type.MODIFICATION)));
+
+        LocalDateTime avant = LocalDateTime.now();
+        SynchronisationDTO reponse = service.synchroniser(UTILISATEUR, "10");
+
+        ArgumentCaptor<LocalDateTime> borne = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(journal).findDernierIdAvant(borne.capture(), eq(Limit.of(1)));
+        assertThat(borne.getValue()).isBetween(avant.minusSeconds(5), LocalDateTime.now().minusSeconds(5));
+        assertThat(reponse.getJeton()).isEqualTo("20");
+        assertThat(reponse.isComplet()).isTrue();
+        assertThat(reponse.getEvenements()).extracting(EvenementDTO::getId).containsExactly(100L);
+
+        // Rien n'est encore stable au-delà du jeton : le même jeton est rendu sans lire le journal
+        SynchronisationDTO aJour = service.synchroniser(UTILISATEUR, "20");
+        assertThat(aJour.getJeton()).isEqualTo("20");
+        assertThat(aJour.getEvenements()).isEmpty();
+        verify(journal, never()).findParUtilisateurEntre(eq(UTILISATEUR), eq(20L), anyLong(), any());
+    }
+
+    @Test
+    void unJetonAnterieurAuJournalCompacteEstExpire() {
+        when(journal.findPremierId()).thenReturn(Optional.of(50L));
+        stable(80L);
+
+        assertThatThrownBy(() -> service.synchroniser(UTILISATEUR, "48")).isInstanceOf(JetonExpireException.class);
+        // Le jeton qui précède immédiatement la première entrée conservée reste valide
+        when(journal.findParUtilisateurEntre(eq(UTILISATEUR), eq(49L), eq(80L), any())).thenReturn(List.of());
+        assertThat(service.synchroniser(UTILISATEUR, "49").getJeton()).isEqualTo("80");
+    }
+
+    @Test
+    void auDelaDeMaxModificationsLaReponseEstPartielleEtLeJetonReprendApresLaDerniereEntreeLue() {
+        stable(100L);
+        when(journal.findParUtilisateurEntre(UTILISATEUR, 10L, 100L, Limit.of(4))).thenReturn(List.of(
+                entree(11L, 1L, JournalModification.Type.MODIFICATION),
+                entree(12L, 2L, JournalModification.Type.MODIFICATION),
+                entree(13L, 3L, JournalModification.Type.MODIFICATION),
+                entree(14L, 4L, JournalModification.Type.MODIFICATION)));
+
+        SynchronisationDTO premiere = service.synchroniser(UTILISATEUR, "10");
+
+        assertThat(premiere.isComplet()).isFalse();
+        assertThat(premiere.getJeton()).isEqualTo("13");
+        assertThat(premiere.getEvenements()).extracting(EvenementDTO::getId).containsExactly(1L, 2L, 3L);
+
+        when(journal.findParUtilisateurEntre(UTILISATEUR, 13L, 100L, Limit.of(4)))
+                .thenReturn(List.of(entree(14L, 4L, JournalModification.Type.MODIFICATION)));
+        SynchronisationDTO suite = service.synchroniser(UTILISATEUR, premiere.getJeton());
+
+        assertThat(suite.isComplet()).isTrue();
+        assertThat(suite.getJeton()).isEqualTo("100");
+        assertThat(suite.getEvenements()).extracting(EvenementDTO::getId).containsExactly(4L);
+    }
+
+    @Test
+    void seuleLaDerniereEntreeDeChaqueEvenementCompte() {
+        stable(100L);
+        when(journal.findParUtilisateurEntre(UTILISATEUR, 10L, 100L, Limit.of(4))).thenReturn(List.of(
+                entree(11L, 1L, JournalModification.Type.MODIFICATION),
+                entree(12L, 2L, JournalModification.Type.MODIFICATION),
+                entree(13L, 1L, JournalModification.Type.SUPPRESSION)));
+
+        SynchronisationDTO reponse = service.synchroniser(UTILISATEUR, "10");
+
+        assertThat(reponse.getSupprimes()).containsExactly(1L);
+        assertThat(reponse.getEvenements()).extracting(EvenementDTO::getId).containsExactly(2L);
+        verify(evenements).findDTOParIds(List.of(2L));
+    }
+
+    @Test
+    void laCompactionSupprimeParLotsJusquALHorizonExclu() {
+        stable(25L);
+        when(journal.supprimerEntre(anyLong(), anyLong())).thenAnswer(invocation ->
+                (int) (invocation.<Long>getArgument(1) - invocation.<Long>getArgument(0)));
+
+        assertThat(service.compacterJournal()).isEqualTo(24);
+
+        verify(journal).supprimerEntre(1L, 11L);
+        verify(journal).supprimerEntre(11L, 21L);
+        verify(journal).supprimerEntre(21L, 25L);
+        ArgumentCaptor<LocalDateTime> borne = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(journal).findDernierIdAvant(borne.capture(), eq(Limit.of(1)));
+        assertThat(borne.getValue()).isBefore(LocalDateTime.now().minusDays(30).plusMinutes(1));
+    }
+
+    private void stable(Long id) {
+        when(journal.findDernierIdAvant(any(), eq(Limit.of(1)))).thenReturn(List.of(id));
+    }
+
+    private static JournalModification entree(Long id, Long evenementId, JournalModification.Type type) {
+        return new JournalModification(id, UTILISATEUR, evenementId, type, LocalDateTime.now().minusMinutes(1));
+    }
+
+    private static EvenementDTO evenement(Long id) {
+        EvenementDTO dto = new EvenementDTO();
+        dto.setId(id);
+        dto.setUserId(UTILISATEUR);
+        return dto;
+    }
+}
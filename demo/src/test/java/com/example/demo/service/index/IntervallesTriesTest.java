@@ -0,0 +1,92 @@
+package com.example.demo.service.index;
+
+import com.example.demo.dto.EvenementDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntervallesTriesTest {
+
+    private static final LocalDateTime LUNDI = LocalDateTime.of(2025, 6, 2, 0, 0);
+
+    @Test
+    void chevauchantRespecteLesBornesIncluses() {
+        IntervallesTries index = IntervallesTries.de(List.of(
+                evenement(1L, LUNDI.plusHours(9), LUNDI.plusHours(10)),
+                evenement(2L, LUNDI.plusHours(10), LUNDI.plusHours(11)),
+                evenement(3L, LUNDI.plusHours(12), LUNDI.plusHours(13))));
+
+        assertThat(ids(index.chevauchant(LUNDI.plusHours(10), LUNDI.plusHours(12))))
+                .containsExactly(1L, 2L, 3L);
+        assertThat(ids(index.chevauchant(LUNDI.plusMinutes(11 * 60 + 1), LUNDI.plusMinutes(11 * 60 + 59))))
+                .isEmpty();
+    }
+
+    @Test
+    void chevauchantTrouveUnLongEvenementCommenceAvantLaPlage() {
+        IntervallesTries index = IntervallesTries.de(List.of(
+                evenement(1L, LUNDI.minusDays(30), LUNDI.plusDays(30)),
+                evenement(2L, LUNDI.minusDays(2), LUNDI.minusDays(1)),
+                evenement(3L, LUNDI.plusDays(3), LUNDI.plusDays(4))));
+
+        assertThat(ids(index.chevauchant(LUNDI, LUNDI.plusDays(1)))).containsExactly(1L);
+    }
+
+    @Test
+    void avecRemplaceEtSansRetire() {
+        IntervallesTries index = IntervallesTries.de(List.of(
+                evenement(1L, LUNDI, LUNDI.plusHours(1)),
+                evenement(2L, LUNDI.plusDays(1), LUNDI.plusDays(1).plusHours(1))));
+
+        index = index.avec(evenement(1L, LUNDI.plusDays(2), LUNDI.plusDays(2).plusHours(1)));
+        assertThat(index.taille()).isEqualTo(2);
+        assertThat(ids(index.chevauchant(LUNDI, LUNDI.plusHours(2)))).isEmpty();
+        assertThat(ids(index.chevauchant(LUNDI, LUNDI.plusDays(3)))).containsExactly(2L, 1L);
+
+        index = index.sans(2L);
+        assertThat(ids(index.chevauchant(LUNDI, LUNDI.plusDays(3)))).containsExactly(1L);
+    }
+
+    @Test
+    void lesSeriesSansFinSontRetenuesSansEmpecherLaDichotomie() {
+        EvenementDTO hebdomadaire = serie(1L, LUNDI.minusYears(1), null);
+        EvenementDTO terminee = serie(2L, LUNDI.minusYears(1), LUNDI.minusMonths(6));
+        IntervallesTries index = IntervallesTries.de(List.of(
+                hebdomadaire,
+                terminee,
+                evenement(3L, LUNDI.minusDays(10), LUNDI.minusDays(10).plusHours(1)),
+                evenement(4L, LUNDI.plusHours(9), LUNDI.plusHours(10)),
+                evenement(5L, LUNDI.plusDays(10), LUNDI.plusDays(10).plusHours(1))));
+
+        assertThat(ids(index.chevauchant(LUNDI, LUNDI.plusDays(1)))).containsExactly(1L, 4L);
+        assertThat(ids(index.chevauchant(LUNDI.minusYears(2), LUNDI.minusYears(1).minusDays(1)))).isEmpty();
+
+        index = index.avec(serie(6L, LUNDI.plusHours(8), LUNDI.plusDays(1))).sans(1L);
+        assertThat(index.taille()).isEqualTo(5);
+        assertThat(ids(index.chevauchant(LUNDI, LUNDI.plusDays(1)))).containsExactly(6L, 4L);
+    }
+
+    private static EvenementDTO serie(Long id, LocalDateTime debut, LocalDateTime finRecurrence) {
+        EvenementDTO dto = evenement(id, debut, debut.plusHours(1));
+        dto.setRegleRecurrence("FREQ=WEEKLY");
+        dto.setFinRecurrence(finRecurrence);
+        return dto;
+    }
+
+    private static EvenementDTO evenement(Long id, LocalDateTime debut, LocalDateTime fin) {
+        EvenementDTO dto = new EvenementDTO();
+        dto.setId(id);
+        dto.setTitre("Événement " + id);
+        dto.setDateDebut(debut);
+        dto.setDateFin(fin);
+        dto.setUserId(1L);
+        return dto;
+    }
+
+    private static List<Long> ids(List<EvenementDTO> evenements) {
+        return evenements.stream().map(EvenementDTO::getId).toList();
+    }
+}
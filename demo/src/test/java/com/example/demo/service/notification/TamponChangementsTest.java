@@ -0,0 +1,65 @@
+package com.example.demo.service.notification;
+
+import com.example.demo.dto.ChangementEvenementDTO;
+import com.example.demo.dto.ChangementEvenementDTO.Type;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TamponChangementsTest {
+
+    @Test
+    void restitueLesChangementsDansLOrdre() {
+        TamponChangements tampon = new TamponChangements(4);
+
+        assertThat(tampon.deposer(changement(Type.CREATION, 1L))).isFalse();
+        assertThat(tampon.deposer(changement(Type.SUPPRESSION, 2L))).isFalse();
+
+        assertThat(vider(tampon)).extracting(ChangementEvenementDTO::getId).containsExactly(1L, 2L);
+        assertThat(tampon.estVide()).isTrue();
+    }
+
+    @Test
+    void remplaceLesChangementsPerdusParUnSeulResync() {
+        TamponChangements tampon = new TamponChangements(2);
+        tampon.deposer(changement(Type.CREATION, 1L));
+        tampon.deposer(changement(Type.CREATION, 2L));
+
+        assertThat(tampon.deposer(changement(Type.CREATION, 3L))).isTrue();
+        assertThat(tampon.deposer(changement(Type.CREATION, 4L))).isFalse();
+        assertThat(tampon.deposer(changement(Type.CREATION, 5L))).isFalse();
+        assertThat(tampon.deposer(changement(Type.CREATION, 6L))).isFalse();
+
+        List<ChangementEvenementDTO> envoyes = vider(tampon);
+        assertThat(envoyes).hasSize(1);
+        assertThat(envoyes.get(0).getType()).isEqualTo(Type.RESYNC);
+    }
+
+    @Test
+    void reprendLesChangementsApresLeResync() {
+        TamponChangements tampon = new TamponChangements(1);
+        tampon.deposer(changement(Type.CREATION, 1L));
+        tampon.deposer(changement(Type.CREATION, 2L));
+
+        assertThat(tampon.prelever().getType()).isEqualTo(Type.RESYNC);
+        tampon.deposer(changement(Type.MODIFICATION, 3L));
+
+        assertThat(vider(tampon)).extracting(ChangementEvenementDTO::getId).containsExactly(3L);
+    }
+
+    private static List<ChangementEvenementDTO> vider(TamponChangements tampon) {
+        List<ChangementEvenementDTO> changements = new ArrayList<>();
+        ChangementEvenementDTO changement;
+        while ((changement = tampon.prelever()) != null) {
+            changements.add(changement);
+        }
+        return changements;
+    }
+
+    private static ChangementEvenementDTO changement(Type type, Long id) {
+        return new ChangementEvenementDTO(type, id, null);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.service.planning;
+
+import com.example.demo.dto.ConflitDTO;
+import com.example.demo.dto.DisponibilitesDTO;
+import com.example.demo.dto.PlageDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FusionAgendasTest {
+
+    private static final LocalDateTime LUNDI = LocalDateTime.of(2025, 6, 2, 0, 0);
+
+    @Test
+    void trouveLesPlagesLibresCommunesEtLesConflits() {
+        Map<Long, List<Intervalle>> agendas = new LinkedHashMap<>();
+        agendas.put(1L, List.of(heures(9, 11), heures(14, 15)));
+        agendas.put(2L, List.of(heures(10, 12), heures(16, 17)));
+
+        DisponibilitesDTO resultat = FusionAgendas.calculer(agendas, LUNDI.plusHours(8), LUNDI.plusHours(18), Duration.ofMinutes(60));
+
+        assertThat(resultat.getPlagesLibres()).containsExactly(
+                new PlageDTO(LUNDI.plusHours(8), LUNDI.plusHours(9)),
+                new PlageDTO(LUNDI.plusHours(12), LUNDI.plusHours(14)),
+                new PlageDTO(LUNDI.plusHours(15), LUNDI.plusHours(16)),
+                new PlageDTO(LUNDI.plusHours(17), LUNDI.plusHours(18)));
+        assertThat(resultat.getConflits()).containsExactly(
+                new ConflitDTO(LUNDI.plusHours(10), LUNDI.plusHours(11), List.of(1L, 2L)));
+    }
+
+    @Test
+    void ecarteLesPlagesTropCourtesEtIgnoreLesJourneesEntieres() {
+        Map<Long, List<Intervalle>> agendas = new LinkedHashMap<>();
+        agendas.put(1L, List.of(new Intervalle(LUNDI, LUNDI.plusDays(1), true), heures(9, 10)));
+        agendas.put(2L, List.of(new Intervalle(LUNDI.plusHours(10).plusMinutes(30), LUNDI.plusHours(12), false)));
+
+        DisponibilitesDTO resultat = FusionAgendas.calculer(agendas, LUNDI.plusHours(9), LUNDI.plusHours(13), Duration.ofMinutes(45));
+
+        // La demi-heure entre 10 h et 10 h 30 est trop courte
+        assertThat(resultat.getPlagesLibres()).containsExactly(new PlageDTO(LUNDI.plusHours(12), LUNDI.plusHours(13)));
+        assertThat(resultat.getConflits()).isEmpty();
+    }
+
+    @Test
+    void deuxReunionsQuiSeSuiventNeSontPasEnConflit() {
+        Map<Long, List<Intervalle>> agendas = new LinkedHashMap<>();
+        agendas.put(1L, List.of(heures(9, 10)));
+        agendas.put(2L, List.of(heures(10, 11)));
+        agendas.put(3L, List.of(heures(8, 12)));
+
+        DisponibilitesDTO resultat = FusionAgendas.calculer(agendas, LUNDI.plusHours(8), LUNDI.plusHours(12), Duration.ofMinutes(30));
+
+        assertThat(resultat.getPlagesLibres()).isEmpty();
+        assertThat(resultat.getConflits()).containsExactly(
+                new ConflitDTO(LUNDI.plusHours(9), LUNDI.plusHours(10), List.of(1L, 3L)),
+                new ConflitDTO(LUNDI.plusHours(10), LUNDI.plusHours(11), List.of(2L, 3L)));
+    }
+
+    private static Intervalle heures(int debut, int fin) {
+        return new Intervalle(LUNDI.plusHours(debut), LUNDI.plusHours(fin), false);
+    }
+}
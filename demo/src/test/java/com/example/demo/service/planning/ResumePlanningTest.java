@@ -0,0 +1,111 @@
+package com.example.demo.service.planning;
+
+import com.example.demo.dto.EvenementDTO;
+import com.example.demo.dto.PlageDTO;
+import com.example.demo.dto.ResumeCreneauDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResumePlanningTest {
+
+    private static final LocalDateTime LUNDI = LocalDateTime.of(2025, 6, 2, 0, 0);
+
+    @Test
+    void repartitUnEvenementSurPlusieursJours() {
+        Intervalle conference = Intervalle.de(evenement(LUNDI.plusHours(14), LUNDI.plusDays(2).plusHours(10), false));
+
+        List<ResumeCreneauDTO> resume = ResumePlanning.resumer(List.of(conference), LUNDI, LUNDI.plusDays(4), Granularite.JOUR, 100);
+
+        assertThat(resume).extracting(ResumeCreneauDTO::getNombreEvenements).containsExactly(1, 1, 1, 0);
+        assertThat(resume).extracting(ResumeCreneauDTO::getMinutesOccupees).containsExactly(600L, 1440L, 600L, 0L);
+        assertThat(resume.get(1).getPlagesOccupees()).containsExactly(new PlageDTO(LUNDI.plusDays(1), LUNDI.plusDays(2)));
+    }
+
+    @Test
+    void compteLesJourneesEntieresSansLesMarquerOccupees() {
+        // Fin exclusive à minuit et fin saisie dans le dernier jour désignent la même période
+        Intervalle conges = Intervalle.de(evenement(LUNDI, LUNDI.plusDays(2), true));
+        Intervalle anniversaire = Intervalle.de(evenement(LUNDI.plusDays(1), LUNDI.plusDays(1).plusHours(23).plusMinutes(59), true));
+
+        List<ResumeCreneauDTO> resume = ResumePlanning.resumer(List.of(conges, anniversaire), LUNDI, LUNDI.plusDays(3), Granularite.JOUR, 100);
+
+        assertThat(resume).extracting(ResumeCreneauDTO::getNombreJourneesEntieres).containsExactly(1, 2, 0);
+        assertThat(resume).extracting(ResumeCreneauDTO::getMinutesOccupees).containsOnly(0L);
+    }
+
+    @Test
+    void fusionneLesPlagesQuiSeChevauchentParHeure() {
+        List<Intervalle> intervalles = List.of(
+                Intervalle.de(evenement(LUNDI.plusHours(9), LUNDI.plusHours(10), false)),
+                Intervalle.de(evenement(LUNDI.plusHours(9).plusMinutes(30), LUNDI.plusHours(10).plusMinutes(15), false)),
+                Intervalle.de(evenement(LUNDI.plusHours(10).plusMinutes(45), LUNDI.plusHours(10).plusMinutes(45), false)));
+
+        List<ResumeCreneauDTO> resume = ResumePlanning.resumer(intervalles, LUNDI.plusHours(9), LUNDI.plusHours(11), Granularite.HEURE, 100);
+
+        assertThat(resume).extracting(ResumeCreneauDTO::getNombreEvenements).containsExactly(2, 2);
+        assertThat(resume.get(1).getPlagesOccupees())
+                .containsExactly(new PlageDTO(LUNDI.plusHours(10), LUNDI.plusHours(10).plusMinutes(15)));
+    }
+
+    @Test
+    void refuseUnePlageTropLongue() {
+        assertThatThrownBy(() -> ResumePlanning.resumer(List.of(), LUNDI, LUNDI.plusDays(10), Granularite.HEURE, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void balayageIdentiqueAuCalculCreneauParCreneau() {
+        Random aleatoire = new Random(7);
+        for (int essai = 0; essai < 200; essai++) {
+            List<Intervalle> intervalles = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                LocalDateTime debut = LUNDI.plusMinutes(15L * aleatoire.nextInt(4 * 24 * 7));
+                LocalDateTime fin = debut.plusMinutes(15L * aleatoire.nextInt(4 * 30));
+                intervalles.add(Intervalle.de(evenement(debut, fin, aleatoire.nextInt(10) == 0)));
+            }
+
+            List<ResumeCreneauDTO> resume = ResumePlanning.resumer(intervalles, LUNDI, LUNDI.plusDays(7), Granularite.HEURE, 1000);
+
+            for (ResumeCreneauDTO creneau : resume) {
+                assertThat(creneau.getNombreEvenements()).isEqualTo(intervalles.stream()
+                        .filter(intervalle -> chevauche(intervalle, creneau)).count());
+                assertThat(creneau.getMinutesOccupees()).isEqualTo(minutesOccupees(intervalles, creneau));
+            }
+        }
+    }
+
+    private static boolean chevauche(Intervalle intervalle, ResumeCreneauDTO creneau) {
+        if (intervalle.estInstantane()) {
+            return !intervalle.debut().isBefore(creneau.getDebut()) && intervalle.debut().isBefore(creneau.getFin());
+        }
+        return intervalle.debut().isBefore(creneau.getFin()) && intervalle.fin().isAfter(creneau.getDebut());
+    }
+
+    private static long minutesOccupees(List<Intervalle> intervalles, ResumeCreneauDTO creneau) {
+        long minutes = 0;
+        for (LocalDateTime minute = creneau.getDebut(); minute.isBefore(creneau.getFin()); minute = minute.plusMinutes(1)) {
+            LocalDateTime instant = minute;
+            if (intervalles.stream().anyMatch(intervalle -> !intervalle.journeeEntiere()
+                    && !instant.isBefore(intervalle.debut()) && instant.isBefore(intervalle.fin()))) {
+                minutes++;
+            }
+        }
+        return minutes;
+    }
+
+    private static EvenementDTO evenement(LocalDateTime debut, LocalDateTime fin, boolean journeeEntiere) {
+        EvenementDTO evenement = new EvenementDTO();
+        evenement.setTitre("Événement");
+        evenement.setDateDebut(debut);
+        evenement.setDateFin(fin);
+        evenement.setEstJourneeEntiere(journeeEntiere);
+        return evenement;
+    }
+}
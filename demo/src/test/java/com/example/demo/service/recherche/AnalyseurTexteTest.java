@@ -0,0 +1,21 @@
+package com.example.demo.service.recherche;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalyseurTexteTest {
+
+    @Test
+    void replieLesAccentsLesLigaturesEtLaCasse() {
+        assertThat(AnalyseurTexte.normaliser("Réunion ÉTÉ : Œuvre, Ex æquo, Noël")).isEqualTo("reunion ete : oeuvre, ex aequo, noel");
+    }
+
+    @Test
+    void decoupeSansMotsVidesNiLettresIsolees() {
+        assertThat(AnalyseurTexte.termes("Point d'étape avec l'équipe de Noël, salle B2 — point n°3"))
+                .containsExactly("point", "etape", "equipe", "noel", "salle", "b2", "point");
+        assertThat(AnalyseurTexte.termes("  ")).isEmpty();
+        assertThat(AnalyseurTexte.termes(null)).isEmpty();
+    }
+}
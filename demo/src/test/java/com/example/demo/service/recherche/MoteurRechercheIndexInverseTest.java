@@ -0,0 +1,139 @@
+package com.example.demo.service.recherche;
+
+import com.example.demo.dto.EvenementDTO;
+import com.example.demo.repository.EvenementRepository;
+import com.example.demo.repository.EvenementRepository.TexteEvenement;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MoteurRechercheIndexInverseTest {
+
+    private final EvenementRepository evenementRepository = mock(EvenementRepository.class);
+    private final MoteurRechercheSql moteurSql = mock(MoteurRechercheSql.class);
+
+    @Test
+    void classeParTfIdfLeTitreAvantLaDescription() {
+        MoteurRechercheIndexInverse moteur = construire(1000, List.of(
+                texte(1L, 1L, "Déjeuner", "budget du trimestre"),
+                texte(2L, 1L, "Budget annuel", null),
+                texte(3L, 1L, "Réunion budget", "budget budget"),
+                texte(4L, 1L, "Sport", null)));
+
+        assertThat(moteur.rechercher(1L, "budget", 0, 10)).containsExactly(3L, 2L, 1L);
+        assertThat(moteur.rechercher(1L, "BUDGET trimestre", 0, 10)).containsExactly(1L);
+        assertThat(moteur.rechercher(1L, "budget", 1, 2)).containsExactly(1L);
+        assertThat(moteur.rechercher(2L, "budget", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void leDernierTermeCorrespondParPrefixe() {
+        MoteurRechercheIndexInverse moteur = construire(1000, List.of(
+                texte(1L, 1L, "Réunion d'équipe", null),
+                texte(2L, 1L, "Rendez-vous dentiste", null)));
+
+        assertThat(moteur.rechercher(1L, "reu", 0, 10)).containsExactly(1L);
+        assertThat(moteur.rechercher(1L, "re", 0, 10)).containsExactlyInAnyOrder(1L, 2L);
+        // Seul le dernier terme est un préfixe
+        assertThat(moteur.rechercher(1L, "reu equipe", 0, 10)).isEmpty();
+        assertThat(moteur.rechercher(1L, "equipe reu", 0, 10)).containsExactly(1L);
+    }
+
+    @Test
+    void retirerPuisReindexerMetAJourLesResultats() {
+        MoteurRechercheIndexInverse moteur = construire(1000, List.of(texte(1L, 1L, "Atelier peinture", null)));
+
+        moteur.retirer(1L);
+        assertThat(moteur.rechercher(1L, "atelier", 0, 10)).isEmpty();
+
+        moteur.indexer(evenement(1L, 1L, "Atelier poterie"));
+        assertThat(moteur.rechercher(1L, "atelier", 0, 10)).containsExactly(1L);
+        assertThat(moteur.rechercher(1L, "peinture", 0, 10)).isEmpty();
+
+        // Changement de propriétaire : l'événement quitte l'index de l'ancien
+        moteur.indexer(evenement(1L, 2L, "Atelier poterie"));
+        assertThat(moteur.rechercher(1L, "atelier", 0, 10)).isEmpty();
+        assertThat(moteur.rechercher(2L, "atelier", 0, 10)).containsExactly(1L);
+    }
+
+    @Test
+    void laRechercheGlobaleCalculeLIdfSurTousLesUtilisateurs() {
+        // Avec un IDF par utilisateur, le terme rare chez l'utilisateur 2 y pèserait bien plus
+        // que chez l'utilisateur 1, et la description passerait devant le titre
+        List<TexteEvenement> textes = new ArrayList<>();
+        textes.add(texte(1L, 1L, "Budget", null));
+        textes.add(texte(2L, 2L, "Comptabilité", "budget"));
+        for (long id = 3; id < 100; id++) {
+            textes.add(texte(id, 2L, "Sport " + id, null));
+        }
+        MoteurRechercheIndexInverse moteur = construire(10_000, textes);
+
+        assertThat(moteur.rechercher(null, "budget", 0, 10)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void auDelaDuPlafondLesRecherchesRepassentParSql() {
+        MoteurRechercheIndexInverse moteur = construire(3, List.of(
+                texte(1L, 1L, "Atelier peinture", null)));
+        assertThat(moteur.rechercher(1L, "atelier", 0, 10)).containsExactly(1L);
+
+        moteur.indexer(evenement(2L, 1L, "Cours de guitare"));
+        when(moteurSql.rechercher(1L, "atelier", 0, 10)).thenReturn(List.of(1L));
+        assertThat(moteur.rechercher(1L, "atelier", 0, 10)).containsExactly(1L);
+        verify(moteurSql).rechercher(1L, "atelier", 0, 10);
+
+        when(evenementRepository.streamTextes()).thenReturn(List.of(
+                texte(1L, 1L, "Atelier peinture", null), texte(2L, 1L, "Cours de guitare", null)).stream());
+        assertThatThrownBy(moteur::reconstruire).isInstanceOf(IllegalStateException.class);
+    }
+
+    private MoteurRechercheIndexInverse construire(long maxEntrees, List<TexteEvenement> textes) {
+        MoteurRechercheIndexInverse moteur =
+                new MoteurRechercheIndexInverse(evenementRepository, moteurSql, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(moteur, "maxEntrees", maxEntrees);
+        when(evenementRepository.streamTextes()).thenReturn(textes.stream());
+        assertThat(moteur.reconstruire()).isEqualTo(textes.size());
+        return moteur;
+    }
+
+    private static EvenementDTO evenement(Long id, Long userId, String titre) {
+        EvenementDTO dto = new EvenementDTO();
+        dto.setId(id);
+        dto.setUserId(userId);
+        dto.setTitre(titre);
+        return dto;
+    }
+
+    private static TexteEvenement texte(Long id, Long userId, String titre, String description) {
+        return new TexteEvenement() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public String getTitre() {
+                return titre;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.service.recurrence;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RegleRecurrenceTest {
+
+    private static final LocalDateTime LUNDI = LocalDateTime.of(2025, 6, 2, 10, 0);
+    private static final Duration UNE_HEURE = Duration.ofHours(1);
+
+    @Test
+    void hebdomadaireAvecJoursEtNombre() {
+        RegleRecurrence regle = RegleRecurrence.analyser("RRULE:freq=weekly;byday=WE,MO;count=5");
+
+        assertThat(regle.toString()).isEqualTo("FREQ=WEEKLY;COUNT=5;BYDAY=MO,WE");
+        assertThat(liste(regle, LUNDI, LUNDI, LUNDI.plusYears(1), Set.of())).containsExactly(
+                LUNDI, LUNDI.plusDays(2), LUNDI.plusDays(7), LUNDI.plusDays(9), LUNDI.plusDays(14));
+        assertThat(regle.finDerniereOccurrence(LUNDI, UNE_HEURE)).isEqualTo(LUNDI.plusDays(14).plus(UNE_HEURE));
+    }
+
+    @Test
+    void lesExceptionsSontExcluesMaisComptentPourLeNombre() {
+        RegleRecurrence regle = RegleRecurrence.analyser("FREQ=DAILY;COUNT=3");
+
+        assertThat(liste(regle, LUNDI, LUNDI, LUNDI.plusDays(10), Set.of(LUNDI.plusDays(1))))
+                .containsExactly(LUNDI, LUNDI.plusDays(2));
+    }
+
+    @Test
+    void mensuelIgnoreLesMoisSansLeJour() {
+        LocalDateTime trenteEtUn = LocalDateTime.of(2025, 1, 31, 9, 0);
+        RegleRecurrence regle = RegleRecurrence.analyser("FREQ=MONTHLY;COUNT=3");
+
+        assertThat(liste(regle, trenteEtUn, trenteEtUn, trenteEtUn.plusYears(1), Set.of())).containsExactly(
+                trenteEtUn, LocalDateTime.of(2025, 3, 31, 9, 0), LocalDateTime.of(2025, 5, 31, 9, 0));
+    }
+
+    @Test
+    void seuleLaPlageDemandeeEstDeveloppee() {
+        RegleRecurrence regle = RegleRecurrence.analyser("FREQ=DAILY;COUNT=1000");
+        LocalDateTime debut = LUNDI.plusDays(997);
+
+        assertThat(liste(regle, LUNDI, debut, debut.plusDays(10), Set.of()))
+                .containsExactly(LUNDI.plusDays(997), LUNDI.plusDays(998), LUNDI.plusDays(999));
+    }
+
+    @Test
+    void leSautDePeriodesDonneLeMemeResultatQueLEnumerationComplete() {
+        String[] regles = {
+                "FREQ=DAILY", "FREQ=DAILY;INTERVAL=3;COUNT=200", "FREQ=WEEKLY;BYDAY=TU,TH,SA;COUNT=150",
+                "FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,FR", "FREQ=MONTHLY;INTERVAL=2;COUNT=40",
+                "FREQ=MONTHLY;UNTIL=20300101", "FREQ=YEARLY;COUNT=12"
+        };
+        Random aleatoire = new Random(3);
+        for (String texte : regles) {
+            RegleRecurrence regle = RegleRecurrence.analyser(texte);
+            LocalDateTime premier = LUNDI.plusDays(aleatoire.nextInt(7)).plusHours(aleatoire.nextInt(10));
+            Duration duree = Duration.ofMinutes(30L + aleatoire.nextInt(3000));
+            List<LocalDateTime> toutes = liste(regle, premier, premier, premier.plusYears(15), Set.of());
+            for (int essai = 0; essai < 50; essai++) {
+                LocalDateTime debut = premier.plusHours(aleatoire.nextInt(24 * 365 * 8));
+                LocalDateTime fin = debut.plusHours(aleatoire.nextInt(24 * 60));
+                List<LocalDateTime> attendues = toutes.stream()
+                        .filter(o -> !o.isAfter(fin) && !o.plus(duree).isBefore(debut))
+                        .toList();
+                assertThat(liste(regle, premier, debut, fin, Set.of(), duree)).as(texte + " sur " + debut)
+                        .isEqualTo(attendues);
+            }
+        }
+    }
+
+    @Test
+    void rejetteLesReglesHorsDuSousEnsemblePrisEnCharge() {
+        assertThatThrownBy(() -> RegleRecurrence.analyser("FREQ=HOURLY")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RegleRecurrence.analyser("FREQ=MONTHLY;BYDAY=MO")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RegleRecurrence.analyser("FREQ=DAILY;COUNT=2;UNTIL=20250101")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RegleRecurrence.analyser("INTERVAL=2")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejetteLesSeriesTropLonguesSansLesEnumerer() {
+        assertThatThrownBy(() -> RegleRecurrence.analyser("FREQ=DAILY;COUNT=2147483647"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("COUNT");
+        assertThatThrownBy(() -> RegleRecurrence.analyser("FREQ=YEARLY;COUNT=10000").finDerniereOccurrence(LUNDI, UNE_HEURE))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RegleRecurrence.analyser("FREQ=DAILY;UNTIL=99991231").finDerniereOccurrence(LUNDI, UNE_HEURE))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("UNTIL");
+        assertThatThrownBy(() -> RegleRecurrence.analyser("FREQ=MONTHLY;COUNT=10000")
+                .finDerniereOccurrence(LocalDateTime.of(2025, 1, 31, 9, 0), UNE_HEURE))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // Une période, une occurrence : la dernière se calcule depuis COUNT
+        assertThat(RegleRecurrence.analyser("FREQ=DAILY;INTERVAL=3;COUNT=10000").finDerniereOccurrence(LUNDI, UNE_HEURE))
+                .isEqualTo(LUNDI.plusDays(3L * 9999).plus(UNE_HEURE));
+        assertThat(RegleRecurrence.analyser("FREQ=MONTHLY;INTERVAL=2;COUNT=40").finDerniereOccurrence(LUNDI, UNE_HEURE))
+                .isEqualTo(liste(RegleRecurrence.analyser("FREQ=MONTHLY;INTERVAL=2;COUNT=40"), LUNDI, LUNDI,
+                        LUNDI.plusYears(10), Set.of()).get(39).plus(UNE_HEURE));
+    }
+
+    private static List<LocalDateTime> liste(RegleRecurrence regle, LocalDateTime premier, LocalDateTime debut,
+                                             LocalDateTime fin, Set<LocalDateTime> exclusions) {
+        return liste(regle, premier, debut, fin, exclusions, UNE_HEURE);
+    }
+
+    private static List<LocalDateTime> liste(RegleRecurrence regle, LocalDateTime premier, LocalDateTime debut,
+                                             LocalDateTime fin, Set<LocalDateTime> exclusions, Duration duree) {
+        List<LocalDateTime> occurrences = new ArrayList<>();
+        Iterator<LocalDateTime> iterateur = regle.occurrences(premier, duree, debut, fin, exclusions);
+        iterateur.forEachRemaining(occurrences::add);
+        return occurrences;
+    }
+}